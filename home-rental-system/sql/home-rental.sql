@@ -75,7 +75,10 @@ CREATE TABLE location
     postal_code VARCHAR(20),
     country     VARCHAR(50) NOT NULL,
     latitude    DECIMAL(10, 8),
-    longitude   DECIMAL(11, 8)
+    longitude   DECIMAL(11, 8),
+    -- Khóa chuẩn hóa (quốc gia|thành phố|quận|phường|mã bưu chính), mỗi vị trí chỉ có một dòng
+    location_key VARCHAR(255),
+    UNIQUE KEY uk_location_key (location_key)
 );
 
 -- HOME RENTAL SYSTEM
@@ -220,6 +223,9 @@ CREATE TABLE property
     owner_id         BIGINT         NOT NULL,
     category_id      BIGINT         NOT NULL,
     location_id      BIGINT         NOT NULL,
+    -- Tọa độ riêng của tin đăng, location chỉ là địa chỉ dùng chung
+    latitude         DECIMAL(10, 8),
+    longitude        DECIMAL(11, 8),
     title            VARCHAR(255)   NOT NULL,
     description      TEXT,
     address          TEXT           NOT NULL,
@@ -229,11 +235,51 @@ CREATE TABLE property
     is_featured      BOOLEAN   DEFAULT FALSE,
     created_at       TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at       TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    deleted_at       TIMESTAMP NULL,
+    -- Đã dọn dữ liệu phụ nhưng giữ lại vì còn hợp đồng/thanh toán
+    purged_at        TIMESTAMP NULL,
+    INDEX idx_property_deleted_at (deleted_at),
     FOREIGN KEY (owner_id) REFERENCES owner (owner_id),
     FOREIGN KEY (category_id) REFERENCES property_category (category_id),
     FOREIGN KEY (location_id) REFERENCES location (location_id)
 );
 
+-- Bản đọc phi chuẩn hóa của bất động sản: cột document giữ nguyên dạng PropertyResponse,
+-- các cột còn lại phục vụ lọc, sắp xếp và phân trang theo cursor
+CREATE TABLE property_read
+(
+    property_id      BIGINT PRIMARY KEY,
+    owner_email      VARCHAR(255),
+    category_id      BIGINT,
+    title            VARCHAR(255),
+    address          TEXT,
+    price_per_month  DECIMAL(12, 2),
+    security_deposit DECIMAL(12, 2),
+    is_available     BOOLEAN,
+    is_featured      BOOLEAN,
+    created_at       TIMESTAMP NULL,
+    updated_at       TIMESTAMP NULL,
+    document         JSON NOT NULL,
+    -- Index cho phân trang theo cursor: (bộ lọc, cột sắp xếp, property_id)
+    INDEX idx_property_read_category (category_id, property_id),
+    INDEX idx_property_read_owner (owner_email, property_id),
+    INDEX idx_property_read_price (price_per_month, property_id),
+    INDEX idx_property_read_created (created_at, property_id),
+    INDEX idx_property_read_category_price (category_id, price_per_month, property_id),
+    INDEX idx_property_read_category_created (category_id, created_at, property_id),
+    INDEX idx_property_read_owner_price (owner_email, price_per_month, property_id),
+    INDEX idx_property_read_owner_created (owner_email, created_at, property_id)
+);
+
+-- Lượt xem của bất động sản, cộng dồn theo lô từ bộ đếm trong bộ nhớ
+-- (tách khỏi bảng property để không làm thay đổi updated_at)
+CREATE TABLE property_view
+(
+    property_id BIGINT PRIMARY KEY,
+    view_count  BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (property_id) REFERENCES property (property_id) ON DELETE CASCADE
+);
+
 -- Thêm bảng property_attribute_value để lưu giá trị thuộc tính của từng bất động sản
 CREATE TABLE property_attribute_value
 (
@@ -392,4 +438,31 @@ CREATE TABLE notification
     notification_type VARCHAR(50)  NOT NULL, -- 'PAYMENT_DUE', 'MAINTENANCE_UPDATE', etc.
     created_at        TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (account_id) REFERENCES account (account_id)
-);
\ No newline at end of file
+);
+
+-- Tìm kiếm đã lưu của người thuê, điều kiện NULL nghĩa là không lọc
+CREATE TABLE saved_search
+(
+    saved_search_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    account_id      BIGINT       NOT NULL,
+    name            VARCHAR(255) NOT NULL,
+    category_id     BIGINT,
+    city            VARCHAR(50),
+    district        VARCHAR(50),
+    min_price       DECIMAL(12, 2),
+    max_price       DECIMAL(12, 2),
+    min_bedrooms    INT,
+    created_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (account_id) REFERENCES account (account_id) ON DELETE CASCADE,
+    FOREIGN KEY (category_id) REFERENCES property_category (category_id)
+);
+CREATE INDEX idx_saved_search_account ON saved_search (account_id, created_at);
+
+CREATE TABLE saved_search_amenity
+(
+    saved_search_id BIGINT NOT NULL,
+    amenity_id      BIGINT NOT NULL,
+    PRIMARY KEY (saved_search_id, amenity_id),
+    FOREIGN KEY (saved_search_id) REFERENCES saved_search (saved_search_id) ON DELETE CASCADE,
+    FOREIGN KEY (amenity_id) REFERENCES amenity (amenity_id)
+);
@@ -0,0 +1,5 @@
+package com.kir.homerentalsystem.constant;
+
+public enum AddressSuggestionType {
+    CITY, DISTRICT, WARD, ADDRESS
+}
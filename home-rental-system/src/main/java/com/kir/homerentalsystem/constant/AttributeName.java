@@ -0,0 +1,7 @@
+package com.kir.homerentalsystem.constant;
+
+public class AttributeName {
+    public static final String AREA = "Diện tích";
+    public static final String BEDROOMS = "Số phòng ngủ";
+    public static final String BATHROOMS = "Số phòng tắm";
+}
@@ -3,4 +3,5 @@ package com.kir.homerentalsystem.constant;
 public class NotificationTitle {
     public static final String VIEWING_REQUEST = "Yêu cầu xem nhà";
     public static final String LEASE_REQUEST = "Yêu cầu hợp đồng";
+    public static final String SAVED_SEARCH_MATCH = "Tin đăng phù hợp với tìm kiếm đã lưu";
 }
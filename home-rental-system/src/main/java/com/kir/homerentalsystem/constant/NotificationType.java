@@ -9,5 +9,10 @@ public enum NotificationType {
     /**
      * Viewing notification types.
      */
-    VIEWING_REQUEST, VIEWING_CONFIRMATION, VIEWING_COMPLETION, VIEWING_CANCELLATION
+    VIEWING_REQUEST, VIEWING_CONFIRMATION, VIEWING_COMPLETION, VIEWING_CANCELLATION,
+
+    /**
+     * Saved search notification types.
+     */
+    SAVED_SEARCH_MATCH
 }
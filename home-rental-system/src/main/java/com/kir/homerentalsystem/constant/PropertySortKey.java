@@ -0,0 +1,26 @@
+package com.kir.homerentalsystem.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Các cột được phép dùng để phân trang theo cursor (đều có index kèm property_id).
+ */
+@Getter
+@AllArgsConstructor
+public enum PropertySortKey {
+    PROPERTY_ID("propertyId"),
+    PRICE_PER_MONTH("pricePerMonth"),
+    CREATED_AT("createdAt");
+
+    private final String field;
+
+    public static PropertySortKey fromField(String field) {
+        for (PropertySortKey key : values()) {
+            if (key.field.equals(field)) {
+                return key;
+            }
+        }
+        return null;
+    }
+}
@@ -4,9 +4,11 @@ import com.kir.homerentalsystem.dto.ApiResponse;
 import com.kir.homerentalsystem.dto.response.AmenityResponse;
 import com.kir.homerentalsystem.service.AmenityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,9 +19,13 @@ public class AmenityController {
     private final AmenityService amenityService;
 
     @GetMapping("/public/getAll")
-    public ApiResponse<List<AmenityResponse>> getAll(){
-        return ApiResponse.<List<AmenityResponse>>builder()
+    public ResponseEntity<ApiResponse<List<AmenityResponse>>> getAll(WebRequest webRequest){
+        String eTag = amenityService.getCatalogETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(ApiResponse.<List<AmenityResponse>>builder()
                 .result(amenityService.getAll())
-                .build();
+                .build());
     }
 }
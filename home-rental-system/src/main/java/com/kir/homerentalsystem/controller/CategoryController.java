@@ -4,9 +4,11 @@ import com.kir.homerentalsystem.dto.ApiResponse;
 import com.kir.homerentalsystem.dto.response.CategoryResponse;
 import com.kir.homerentalsystem.service.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,8 +19,12 @@ public class CategoryController {
     private final CategoryService categoryService;
 
     @GetMapping("/public/findAll")
-    public ApiResponse<List<CategoryResponse>> getAllCategories() {
-        return ApiResponse.<List<CategoryResponse>>builder()
-                .result(categoryService.findAll()).build();
+    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getAllCategories(WebRequest webRequest) {
+        String eTag = categoryService.getCatalogETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(ApiResponse.<List<CategoryResponse>>builder()
+                .result(categoryService.findAll()).build());
     }
 }
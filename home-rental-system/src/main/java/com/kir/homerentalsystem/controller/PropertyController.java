@@ -3,18 +3,35 @@ package com.kir.homerentalsystem.controller;
 import com.cloudinary.Api;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kir.homerentalsystem.constant.AddressSuggestionType;
 import com.kir.homerentalsystem.dto.ApiResponse;
+import com.kir.homerentalsystem.dto.request.PolygonSearchRequest;
 import com.kir.homerentalsystem.dto.request.PropertyCreationRequest;
+import com.kir.homerentalsystem.dto.request.PropertyFilterRequest;
+import com.kir.homerentalsystem.dto.response.AddressSuggestionResponse;
+import com.kir.homerentalsystem.dto.response.CacheStatsResponse;
+import com.kir.homerentalsystem.dto.response.CursorPageResponse;
+import com.kir.homerentalsystem.dto.response.FacetResponse;
+import com.kir.homerentalsystem.dto.response.PriceHistogramBucket;
+import com.kir.homerentalsystem.dto.response.PriceStatisticsResponse;
+import com.kir.homerentalsystem.dto.response.PriceSuggestionResponse;
+import com.kir.homerentalsystem.dto.response.PropertyImportResponse;
 import com.kir.homerentalsystem.dto.response.PropertyResponse;
+import com.kir.homerentalsystem.dto.response.PropertyViewCountResponse;
+import com.kir.homerentalsystem.service.PropertyImportService;
 import com.kir.homerentalsystem.service.PropertyService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -24,6 +41,7 @@ import java.util.List;
 @RequestMapping("/property")
 public class PropertyController {
     private final PropertyService propertyService;
+    private final PropertyImportService propertyImportService;
 
     @PostMapping(value = "/owner/createProperty", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ApiResponse<PropertyResponse> createProperty(
@@ -57,6 +75,18 @@ public class PropertyController {
                 .build();
     }
 
+    @GetMapping("/owner/scrollMyProperties")
+    public ApiResponse<CursorPageResponse<PropertyResponse>> scrollMyProperties(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sortBy", defaultValue = "propertyId") String sortBy,
+            @RequestParam(value = "sortDirection", defaultValue = "ASC") String sortDirection
+    ) {
+        return ApiResponse.<CursorPageResponse<PropertyResponse>>builder()
+                .result(propertyService.scrollAllMyProperties(cursor, size, sortBy, sortDirection))
+                .build();
+    }
+
     @DeleteMapping("/owner/deleteProperty")
     public ApiResponse<Void> deleteProperty(@RequestParam(value = "id") Long id) {
         propertyService.deleteProperty(id);
@@ -64,9 +94,55 @@ public class PropertyController {
     }
 
     @GetMapping("/public/getPropertyById")
-    public ApiResponse<PropertyResponse> getPropertyById(@RequestParam(value = "id") Long id) {
-        return ApiResponse.<PropertyResponse>builder()
-                .result(propertyService.getPropertyById(id))
+    public ResponseEntity<ApiResponse<PropertyResponse>> getPropertyById(@RequestParam(value = "id") Long id,
+                                                                         WebRequest webRequest,
+                                                                         HttpServletRequest httpRequest) {
+        // Người đã đăng nhập được nhận diện theo email, khách theo địa chỉ IP
+        String viewer = httpRequest.getUserPrincipal() != null
+                ? httpRequest.getUserPrincipal().getName()
+                : httpRequest.getRemoteAddr();
+
+        // Kiểm tra If-None-Match trước khi nạp dữ liệu, client đã có bản mới nhất thì trả 304.
+        // Chỉ đếm lượt xem khi bất động sản tồn tại (có trong chỉ mục phiên bản hoặc nạp được)
+        String eTag = propertyService.getPropertyETag(id);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            propertyService.recordPropertyView(id, viewer);
+            return null;
+        }
+        PropertyResponse property = propertyService.getPropertyById(id);
+        propertyService.recordPropertyView(id, viewer);
+        ApiResponse<PropertyResponse> response = ApiResponse.<PropertyResponse>builder()
+                .result(property)
+                .build();
+        return eTag != null ? ResponseEntity.ok().eTag(eTag).body(response) : ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/public/getSimilarProperties")
+    public ApiResponse<List<PropertyResponse>> getSimilarProperties(@RequestParam(value = "id") Long id,
+                                                                    @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ApiResponse.<List<PropertyResponse>>builder()
+                .result(propertyService.getSimilarProperties(id, limit))
+                .build();
+    }
+
+    @GetMapping("/owner/getViewCounts")
+    public ApiResponse<List<PropertyViewCountResponse>> getViewCounts() {
+        return ApiResponse.<List<PropertyViewCountResponse>>builder()
+                .result(propertyService.getMyPropertyViewCounts())
+                .build();
+    }
+
+    @GetMapping("/admin/getCacheStats")
+    public ApiResponse<CacheStatsResponse> getCacheStats() {
+        return ApiResponse.<CacheStatsResponse>builder()
+                .result(propertyService.getPropertyCacheStats())
+                .build();
+    }
+
+    @GetMapping("/admin/getSearchCacheStats")
+    public ApiResponse<CacheStatsResponse> getSearchCacheStats() {
+        return ApiResponse.<CacheStatsResponse>builder()
+                .result(propertyService.getSearchCacheStats())
                 .build();
     }
 
@@ -97,6 +173,45 @@ public class PropertyController {
                 .build();
     }
 
+    @GetMapping(value = "/owner/exportProperties", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPropertiesForOwner(@RequestParam(value = "title", required = false) String title,
+                                                                          @RequestParam(value = "address", required = false) String address,
+                                                                          @RequestParam(value = "bedrooms", required = false) Integer bedrooms,
+                                                                          @RequestParam(value = "bathrooms", required = false) Integer bathrooms,
+                                                                          @RequestParam(value = "minArea", required = false) BigDecimal minArea,
+                                                                          @RequestParam(value = "maxArea", required = false) BigDecimal maxArea,
+                                                                          @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+                                                                          @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+                                                                          @RequestParam(value = "isAvailable", required = false) Boolean isAvailable) {
+        StreamingResponseBody body = outputStream -> propertyService.exportPropertiesForOwner(title, address,
+                bedrooms, bathrooms,
+                minArea, maxArea,
+                minPrice, maxPrice,
+                isAvailable, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/public/searchProperties")
+    public ApiResponse<Page<PropertyResponse>> searchProperties(@RequestParam(value = "keyword") String keyword,
+                                                                @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                @RequestParam(value = "size", defaultValue = "10") int size,
+                                                                @RequestParam(value = "sortBy", defaultValue = "relevance") String sortBy) {
+        return ApiResponse.<Page<PropertyResponse>>builder()
+                .result(propertyService.searchProperties(keyword, page, size, sortBy))
+                .build();
+    }
+
+    @GetMapping("/public/getAllProperties")
+    public ApiResponse<Page<PropertyResponse>> getAllProperties(@RequestParam(value = "page", defaultValue = "0") int page,
+                                                                @RequestParam(value = "size", defaultValue = "10") int size,
+                                                                @RequestParam(value = "sortBy", defaultValue = "bestMatch") String sortBy) {
+        return ApiResponse.<Page<PropertyResponse>>builder()
+                .result(propertyService.getAllProperties(page, size, sortBy))
+                .build();
+    }
+
     @GetMapping("/public/getPropertiesByCategory")
     public ApiResponse<Page<PropertyResponse>> getPropertiesByCategory(@RequestParam(value = "categoryId") Long categoryId,
                                                                         @RequestParam(value = "page", defaultValue = "0") int page,
@@ -106,4 +221,132 @@ public class PropertyController {
                 .result(propertyService.getPropertiesByCategory(categoryId, page, size, sortBy))
                 .build();
                                                                         }
+
+    @GetMapping("/public/scrollProperties")
+    public ApiResponse<CursorPageResponse<PropertyResponse>> scrollProperties(@RequestParam(value = "cursor", required = false) String cursor,
+                                                                              @RequestParam(value = "size", defaultValue = "10") int size,
+                                                                              @RequestParam(value = "sortBy", defaultValue = "propertyId") String sortBy,
+                                                                              @RequestParam(value = "sortDirection", defaultValue = "ASC") String sortDirection) {
+        return ApiResponse.<CursorPageResponse<PropertyResponse>>builder()
+                .result(propertyService.scrollAllProperties(cursor, size, sortBy, sortDirection))
+                .build();
+    }
+
+    @GetMapping("/public/scrollPropertiesByCategory")
+    public ApiResponse<CursorPageResponse<PropertyResponse>> scrollPropertiesByCategory(@RequestParam(value = "categoryId") Long categoryId,
+                                                                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                                                                        @RequestParam(value = "size", defaultValue = "10") int size,
+                                                                                        @RequestParam(value = "sortBy", defaultValue = "propertyId") String sortBy,
+                                                                                        @RequestParam(value = "sortDirection", defaultValue = "ASC") String sortDirection) {
+        return ApiResponse.<CursorPageResponse<PropertyResponse>>builder()
+                .result(propertyService.scrollPropertiesByCategory(categoryId, cursor, size, sortBy, sortDirection))
+                .build();
+    }
+
+    @GetMapping("/public/searchNearby")
+    public ApiResponse<Page<PropertyResponse>> searchPropertiesNearby(@RequestParam(value = "latitude") double latitude,
+                                                                      @RequestParam(value = "longitude") double longitude,
+                                                                      @RequestParam(value = "radiusKm") double radiusKm,
+                                                                      PropertyFilterRequest filter,
+                                                                      @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                      @RequestParam(value = "size", defaultValue = "10") int size,
+                                                                      @RequestParam(value = "sortBy", required = false) String sortBy) {
+        // Không truyền sortBy thì giữ thứ tự gần nhất trước
+        Pageable pageable = sortBy == null || sortBy.isBlank()
+                ? PageRequest.of(page, size)
+                : PageRequest.of(page, size, Sort.by(sortBy));
+        return ApiResponse.<Page<PropertyResponse>>builder()
+                .result(propertyService.searchPropertiesNearby(latitude, longitude, radiusKm, filter, pageable))
+                .build();
+    }
+
+    @GetMapping("/public/searchInBoundingBox")
+    public ApiResponse<Page<PropertyResponse>> searchPropertiesInBoundingBox(@RequestParam(value = "minLatitude") double minLatitude,
+                                                                             @RequestParam(value = "minLongitude") double minLongitude,
+                                                                             @RequestParam(value = "maxLatitude") double maxLatitude,
+                                                                             @RequestParam(value = "maxLongitude") double maxLongitude,
+                                                                             PropertyFilterRequest filter,
+                                                                             @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                             @RequestParam(value = "size", defaultValue = "10") int size,
+                                                                             @RequestParam(value = "sortBy", defaultValue = "propertyId") String sortBy) {
+        return ApiResponse.<Page<PropertyResponse>>builder()
+                .result(propertyService.searchPropertiesInBoundingBox(minLatitude, minLongitude,
+                        maxLatitude, maxLongitude, filter,
+                        PageRequest.of(page, size, Sort.by(sortBy))))
+                .build();
+    }
+
+    @PostMapping("/public/searchInPolygon")
+    public ApiResponse<Page<PropertyResponse>> searchPropertiesInPolygon(@RequestBody PolygonSearchRequest request,
+                                                                         @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                         @RequestParam(value = "size", defaultValue = "10") int size,
+                                                                         @RequestParam(value = "sortBy", defaultValue = "propertyId") String sortBy) {
+        return ApiResponse.<Page<PropertyResponse>>builder()
+                .result(propertyService.searchPropertiesInPolygon(request,
+                        PageRequest.of(page, size, Sort.by(sortBy))))
+                .build();
+    }
+
+    @GetMapping("/public/filterProperties")
+    public ApiResponse<Page<PropertyResponse>> filterProperties(PropertyFilterRequest filter,
+                                                                @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                @RequestParam(value = "size", defaultValue = "10") int size,
+                                                                @RequestParam(value = "sortBy", defaultValue = "propertyId") String sortBy) {
+        return ApiResponse.<Page<PropertyResponse>>builder()
+                .result(propertyService.filterProperties(filter, PageRequest.of(page, size, Sort.by(sortBy))))
+                .build();
+    }
+
+    @GetMapping("/public/getFacets")
+    public ApiResponse<FacetResponse> getPropertyFacets(@RequestParam(value = "keyword", required = false) String keyword,
+                                                        PropertyFilterRequest filter) {
+        return ApiResponse.<FacetResponse>builder()
+                .result(propertyService.getPropertyFacets(keyword, filter))
+                .build();
+    }
+
+    @GetMapping("/public/autocompleteAddress")
+    public ApiResponse<List<AddressSuggestionResponse>> autocompleteAddress(@RequestParam(value = "query") String query,
+                                                                            @RequestParam(value = "type", required = false) AddressSuggestionType type,
+                                                                            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ApiResponse.<List<AddressSuggestionResponse>>builder()
+                .result(propertyService.autocompleteAddress(query, type, limit))
+                .build();
+    }
+
+    @GetMapping("/public/getPriceStatistics")
+    public ApiResponse<PriceStatisticsResponse> getPriceStatistics(@RequestParam(value = "city", required = false) String city,
+                                                                   @RequestParam(value = "district", required = false) String district,
+                                                                   @RequestParam(value = "categoryId", required = false) Long categoryId,
+                                                                   @RequestParam(value = "percentiles", defaultValue = "0.25,0.5,0.75,0.9") List<Double> percentiles) {
+        return ApiResponse.<PriceStatisticsResponse>builder()
+                .result(propertyService.getPriceStatistics(city, district, categoryId, percentiles))
+                .build();
+    }
+
+    @GetMapping("/public/getPriceHistogram")
+    public ApiResponse<List<PriceHistogramBucket>> getPriceHistogram(@RequestParam(value = "city", required = false) String city,
+                                                                     @RequestParam(value = "district", required = false) String district,
+                                                                     @RequestParam(value = "categoryId", required = false) Long categoryId,
+                                                                     @RequestParam(value = "buckets", defaultValue = "10") int buckets) {
+        return ApiResponse.<List<PriceHistogramBucket>>builder()
+                .result(propertyService.getPriceHistogram(city, district, categoryId, buckets))
+                .build();
+    }
+
+    @GetMapping("/owner/suggestPrice")
+    public ApiResponse<PriceSuggestionResponse> suggestPrice(@RequestParam(value = "city") String city,
+                                                             @RequestParam(value = "district") String district,
+                                                             @RequestParam(value = "categoryId") Long categoryId) {
+        return ApiResponse.<PriceSuggestionResponse>builder()
+                .result(propertyService.suggestPrice(city, district, categoryId))
+                .build();
+    }
+
+    @PostMapping(value = "/owner/importProperties", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ApiResponse<PropertyImportResponse> importProperties(@RequestParam("file") MultipartFile file) {
+        return ApiResponse.<PropertyImportResponse>builder()
+                .result(propertyImportService.importProperties(file))
+                .build();
+    }
 }
@@ -1,5 +1,6 @@
 package com.kir.homerentalsystem.controller;
 
+import com.kir.homerentalsystem.constant.PropertyViewingStatus;
 import com.kir.homerentalsystem.dto.ApiResponse;
 import com.kir.homerentalsystem.dto.request.PropertyViewingRequest;
 import com.kir.homerentalsystem.dto.response.NotificationResponse;
@@ -10,8 +11,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -28,6 +31,13 @@ public class PropertyViewingController {
                 .build();
     }
 
+    @PutMapping("/user/updatePropertyViewingStatus")
+    public ApiResponse<Void> updatePropertyViewingStatus(@RequestParam Long viewingId, @RequestParam String status) {
+        propertyViewingService.updatePropertyViewingStatus(viewingId, PropertyViewingStatus.valueOf(status.toUpperCase()));
+        return ApiResponse.<Void>builder()
+                .build();
+    }
+
     @MessageMapping("/public/notifications")
     public void sendNotifications(@RequestBody NotificationResponse response) {
         System.out.println("Received property response: " + response);
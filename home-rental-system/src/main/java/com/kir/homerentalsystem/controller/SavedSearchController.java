@@ -0,0 +1,37 @@
+package com.kir.homerentalsystem.controller;
+
+import com.kir.homerentalsystem.dto.ApiResponse;
+import com.kir.homerentalsystem.dto.request.SavedSearchRequest;
+import com.kir.homerentalsystem.dto.response.SavedSearchResponse;
+import com.kir.homerentalsystem.service.SavedSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/savedSearch")
+@RequiredArgsConstructor
+public class SavedSearchController {
+    private final SavedSearchService savedSearchService;
+
+    @PostMapping("/tenant/create")
+    public ApiResponse<SavedSearchResponse> createSavedSearch(@RequestBody SavedSearchRequest request) {
+        return ApiResponse.<SavedSearchResponse>builder()
+                .result(savedSearchService.createSavedSearch(request))
+                .build();
+    }
+
+    @GetMapping("/tenant/getMySavedSearches")
+    public ApiResponse<List<SavedSearchResponse>> getMySavedSearches() {
+        return ApiResponse.<List<SavedSearchResponse>>builder()
+                .result(savedSearchService.getMySavedSearches())
+                .build();
+    }
+
+    @DeleteMapping("/tenant/delete")
+    public ApiResponse<Void> deleteSavedSearch(@RequestParam(value = "id") Long id) {
+        savedSearchService.deleteSavedSearch(id);
+        return ApiResponse.<Void>builder().build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.kir.homerentalsystem.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeoPoint {
+    private Double latitude;
+    private Double longitude;
+}
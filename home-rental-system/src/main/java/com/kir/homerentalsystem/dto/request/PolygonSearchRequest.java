@@ -0,0 +1,17 @@
+package com.kir.homerentalsystem.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PolygonSearchRequest {
+    private List<GeoPoint> points;
+    private PropertyFilterRequest filter;
+}
@@ -0,0 +1,36 @@
+package com.kir.homerentalsystem.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyFilterRequest {
+    private Integer bedrooms;
+    private Integer bathrooms;
+    private BigDecimal minArea;
+    private BigDecimal maxArea;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean isAvailable;
+    private Boolean isFeatured;
+    private Long categoryId;
+    // Bất động sản phải có đủ mọi tiện ích trong danh sách
+    private List<Long> amenityIds;
+    // Điều kiện trên thuộc tính bất kỳ, dạng attributeId:operator:value[:value2], ví dụ 1:between:30:60
+    private List<String> attributes;
+    // Còn trống trong cả khoảng ngày (không trùng hợp đồng đang chờ duyệt, đã đặt trước hoặc đang hiệu lực)
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate availableFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate availableTo;
+}
@@ -0,0 +1,24 @@
+package com.kir.homerentalsystem.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SavedSearchRequest {
+    private String name;
+    private Long categoryId;
+    private String city;
+    private String district;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minBedrooms;
+    private List<Long> amenityIds;
+}
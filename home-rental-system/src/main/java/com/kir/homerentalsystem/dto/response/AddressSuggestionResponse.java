@@ -0,0 +1,16 @@
+package com.kir.homerentalsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AddressSuggestionResponse {
+    private String text;
+    private String type;
+    private long count;
+}
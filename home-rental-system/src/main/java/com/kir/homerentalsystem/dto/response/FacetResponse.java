@@ -0,0 +1,20 @@
+package com.kir.homerentalsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetResponse {
+    private long total;
+    private List<FacetBucket> categories;
+    private List<FacetBucket> districts;
+    private List<FacetBucket> amenities;
+    private List<FacetBucket> priceRanges;
+}
@@ -0,0 +1,16 @@
+package com.kir.homerentalsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+    // Số dòng trong file Excel (bắt đầu từ 1)
+    private int row;
+    private String message;
+}
@@ -0,0 +1,21 @@
+package com.kir.homerentalsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceStatisticsResponse {
+    private long count;
+    private BigDecimal min;
+    private BigDecimal max;
+    // Phân vị (0..1) -> giá
+    private Map<Double, BigDecimal> percentiles;
+}
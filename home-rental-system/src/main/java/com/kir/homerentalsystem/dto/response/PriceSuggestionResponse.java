@@ -0,0 +1,19 @@
+package com.kir.homerentalsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceSuggestionResponse {
+    private long sampleSize;
+    private BigDecimal low;
+    private BigDecimal median;
+    private BigDecimal high;
+}
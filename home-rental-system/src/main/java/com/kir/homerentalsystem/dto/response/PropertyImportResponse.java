@@ -0,0 +1,19 @@
+package com.kir.homerentalsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyImportResponse {
+    private int totalRows;
+    private int importedRows;
+    private List<Long> propertyIds;
+    private List<ImportRowError> errors;
+}
@@ -0,0 +1,27 @@
+package com.kir.homerentalsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SavedSearchResponse {
+    private Long savedSearchId;
+    private String name;
+    private Long categoryId;
+    private String city;
+    private String district;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minBedrooms;
+    private List<Long> amenityIds;
+    private LocalDateTime createdAt;
+}
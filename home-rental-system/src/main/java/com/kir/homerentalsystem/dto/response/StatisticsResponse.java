@@ -13,4 +13,6 @@ public class StatisticsResponse {
     private int rentedPropertyCount;
     private int availablePropertyCount;
     private int totalPropertyCount;
+    private int pendingLeaseCount;
+    private int openViewingCount;
 }
@@ -42,6 +42,11 @@ public class Location {
     @Column(name = "longitude", precision = 11, scale = 8)
     private BigDecimal longitude;
 
+    // Tọa độ của tin đăng đầu tiên tạo địa chỉ này; vị trí của từng tin đăng nằm ở property.latitude/longitude
+    // Khóa chuẩn hóa của (quốc gia, thành phố, quận, phường, mã bưu chính), do LocationRegistry gán
+    @Column(name = "location_key", unique = true)
+    private String locationKey;
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -3,6 +3,7 @@ package com.kir.homerentalsystem.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -12,12 +13,51 @@ import java.util.Set;
 
 @Entity
 @Table(name = "property")
+// Bất động sản đã xóa mềm bị ẩn khỏi mọi truy vấn, chờ tiến trình dọn dẹp xóa hẳn
+@SQLRestriction("deleted_at IS NULL")
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Property.GRAPH_CARD,
+                attributeNodes = {
+                        @NamedAttributeNode(value = "owner", subgraph = "owner"),
+                        @NamedAttributeNode("category"),
+                        @NamedAttributeNode("location")
+                },
+                subgraphs = {
+                        @NamedSubgraph(name = "owner", attributeNodes = @NamedAttributeNode(value = "account", subgraph = "account")),
+                        @NamedSubgraph(name = "account", attributeNodes = @NamedAttributeNode("role"))
+                }
+        ),
+        @NamedEntityGraph(name = Property.GRAPH_DETAIL,
+                attributeNodes = {
+                        @NamedAttributeNode(value = "owner", subgraph = "owner"),
+                        @NamedAttributeNode("category"),
+                        @NamedAttributeNode("location"),
+                        @NamedAttributeNode(value = "attributeValues", subgraph = "attributeValues")
+                },
+                subgraphs = {
+                        @NamedSubgraph(name = "owner", attributeNodes = @NamedAttributeNode(value = "account", subgraph = "account")),
+                        @NamedSubgraph(name = "account", attributeNodes = @NamedAttributeNode("role")),
+                        @NamedSubgraph(name = "attributeValues", attributeNodes = @NamedAttributeNode("attribute"))
+                }
+        )
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Property {
+    /**
+     * Dùng cho danh sách: nạp kèm các quan hệ to-one trong cùng câu truy vấn phân trang,
+     * các collection được nạp theo lô nhờ hibernate.default_batch_fetch_size.
+     */
+    public static final String GRAPH_CARD = "Property.card";
+
+    /**
+     * Dùng cho trang chi tiết: nạp thêm giá trị thuộc tính; ảnh và tiện ích vẫn được nạp theo lô.
+     */
+    public static final String GRAPH_DETAIL = "Property.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "property_id")
@@ -35,6 +75,13 @@ public class Property {
     @JoinColumn(name = "location_id", nullable = false)
     private Location location;
 
+    // Tọa độ riêng của tin đăng; location chỉ là địa chỉ dùng chung nên không giữ vị trí của từng tin
+    @Column(name = "latitude", precision = 10, scale = 8)
+    private BigDecimal latitude;
+
+    @Column(name = "longitude", precision = 11, scale = 8)
+    private BigDecimal longitude;
+
     @Column(nullable = false)
     private String title;
 
@@ -63,6 +110,9 @@ public class Property {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @OneToMany(mappedBy = "property", cascade = CascadeType.ALL)
     private Set<PropertyAttributeValue> attributeValues = new HashSet<>();
 
@@ -0,0 +1,56 @@
+package com.kir.homerentalsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bản đọc của bất động sản, được {@link com.kir.homerentalsystem.service.projection.PropertyReadProjector}
+ * cập nhật sau mỗi thay đổi. {@code document} là {@code PropertyResponse} đã serialize,
+ * các cột còn lại chỉ dùng để lọc và sắp xếp.
+ */
+@Builder
+@Entity
+@Table(name = "property_read")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyRead {
+    @Id
+    @Column(name = "property_id")
+    private Long propertyId;
+
+    @Column(name = "owner_email")
+    private String ownerEmail;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    private String title;
+
+    private String address;
+
+    @Column(name = "price_per_month")
+    private BigDecimal pricePerMonth;
+
+    @Column(name = "security_deposit")
+    private BigDecimal securityDeposit;
+
+    @Column(name = "is_available")
+    private Boolean isAvailable;
+
+    @Column(name = "is_featured")
+    private Boolean isFeatured;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "document", columnDefinition = "JSON", nullable = false)
+    private String document;
+}
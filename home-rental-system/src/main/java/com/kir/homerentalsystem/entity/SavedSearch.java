@@ -0,0 +1,67 @@
+package com.kir.homerentalsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tìm kiếm đã lưu của người thuê; khi có tin đăng mới khớp điều kiện, người thuê được thông báo.
+ * Các điều kiện để {@code null} nghĩa là không lọc theo tiêu chí đó.
+ */
+@Builder
+@Entity
+@Table(name = "saved_search")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "saved_search_id")
+    private Long savedSearchId;
+
+    @ManyToOne
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @ManyToOne
+    @JoinColumn(name = "category_id")
+    private PropertyCategory category;
+
+    @Column(name = "city")
+    private String city;
+
+    @Column(name = "district")
+    private String district;
+
+    @Column(name = "min_price")
+    private BigDecimal minPrice;
+
+    @Column(name = "max_price")
+    private BigDecimal maxPrice;
+
+    @Column(name = "min_bedrooms")
+    private Integer minBedrooms;
+
+    @ManyToMany
+    @JoinTable(
+            name = "saved_search_amenity",
+            joinColumns = @JoinColumn(name = "saved_search_id"),
+            inverseJoinColumns = @JoinColumn(name = "amenity_id")
+    )
+    @Builder.Default
+    private Set<Amenity> amenities = new HashSet<>();
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.kir.homerentalsystem.event;
+
+import com.kir.homerentalsystem.entity.Property;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Sự kiện phát ra mỗi khi một bất động sản được tạo, cập nhật hoặc xóa.
+ * Với {@link Type#DELETED}, {@code property} luôn là null.
+ */
+@Getter
+@AllArgsConstructor
+public class PropertyChangedEvent {
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Long propertyId;
+    private final Property property;
+
+    public static PropertyChangedEvent created(Property property) {
+        return new PropertyChangedEvent(Type.CREATED, property.getPropertyId(), property);
+    }
+
+    public static PropertyChangedEvent updated(Property property) {
+        return new PropertyChangedEvent(Type.UPDATED, property.getPropertyId(), property);
+    }
+
+    public static PropertyChangedEvent deleted(Long propertyId) {
+        return new PropertyChangedEvent(Type.DELETED, propertyId, null);
+    }
+}
@@ -41,6 +41,10 @@ public enum ErrorCode {
     LEASE_NOT_EXISTED(9030, "Hợp đồng không tồn tại", HttpStatus.NOT_FOUND),
     LEASE_EXISTED(9031, "Hợp đồng đã tồn tại", HttpStatus.BAD_REQUEST),
     TIME_FORMAT_INVALID(9032, "Định dạng thời gian không hợp lệ.", HttpStatus.BAD_REQUEST),
+    IMPORT_FILE_INVALID(9033, "Tệp nhập liệu không hợp lệ.", HttpStatus.BAD_REQUEST),
+    SAVED_SEARCH_NOT_EXISTED(9034, "Tìm kiếm đã lưu không tồn tại.", HttpStatus.NOT_FOUND),
+    SAVED_SEARCH_LIMIT_EXCEEDED(9035, "Đã đạt số lượng tìm kiếm được lưu tối đa.", HttpStatus.BAD_REQUEST),
+    PROPERTY_VIEWING_NOT_EXISTED(9036, "Lịch xem nhà không tồn tại.", HttpStatus.NOT_FOUND),
     UNCATEGORIZED_EXCEPTION(9999, "Lỗi không xác định", HttpStatus.INTERNAL_SERVER_ERROR);
     
     private int code;
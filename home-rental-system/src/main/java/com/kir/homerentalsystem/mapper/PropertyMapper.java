@@ -12,6 +12,8 @@ import org.mapstruct.Mapping;
 public interface PropertyMapper {
     @Mapping(target = "isAvailable", ignore = true)
     @Mapping(target = "isFeatured", ignore = true)
+    @Mapping(target = "latitude", source = "location.latitude")
+    @Mapping(target = "longitude", source = "location.longitude")
     Property toProperty(PropertyCreationRequest request);
 
     @Mapping(target = "name", source = "category.name")
@@ -3,5 +3,9 @@ package com.kir.homerentalsystem.repository;
 import com.kir.homerentalsystem.entity.Amenity;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface AmenityRepository extends JpaRepository<Amenity, Long> {
+    List<Amenity> findAllByNameIn(Collection<String> names);
 }
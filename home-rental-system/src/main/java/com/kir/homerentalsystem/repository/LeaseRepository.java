@@ -12,5 +12,9 @@ public interface LeaseRepository extends JpaRepository<Lease, Long> {
     List<Lease> findAllByStatusAndStartDate(String status, LocalDate startDate);
     List<Lease> findAllByProperty_Owner_Account_EmailAndStatus(String email, String status);
     List<Lease> findAllByProperty_Owner_OwnerIdAndStatus(Long ownerId, String status);
+    List<Lease> findAllByProperty_PropertyIdAndStatusIn(Long propertyId, List<String> status);
     boolean existsByProperty_PropertyIdAndStatusIn(Long propertyId, List<String> status);
+    // Có hợp đồng nào trùng khoảng [startDate, endDate] không: start <= endDate và end >= startDate
+    boolean existsByProperty_PropertyIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+            Long propertyId, List<String> status, LocalDate endDate, LocalDate startDate);
 }
@@ -0,0 +1,32 @@
+package com.kir.homerentalsystem.repository;
+
+import com.kir.homerentalsystem.entity.PropertyRead;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface PropertyReadRepository extends JpaRepository<PropertyRead, Long>,
+        JpaSpecificationExecutor<PropertyRead> {
+    Page<PropertyRead> findAllByCategoryId(Long categoryId, Pageable pageable);
+
+    /**
+     * Bất động sản chưa có bản đọc hoặc bản đọc cũ hơn bản ghi gốc.
+     */
+    @Query(value = "SELECT p.property_id FROM property p " +
+            "LEFT JOIN property_read r ON r.property_id = p.property_id " +
+            "WHERE p.deleted_at IS NULL AND (r.property_id IS NULL OR NOT (r.updated_at <=> p.updated_at))",
+            nativeQuery = true)
+    List<Long> findStalePropertyIds();
+
+    @Modifying
+    @Query(value = "DELETE r FROM property_read r " +
+            "LEFT JOIN property p ON p.property_id = r.property_id AND p.deleted_at IS NULL " +
+            "WHERE p.property_id IS NULL",
+            nativeQuery = true)
+    int deleteOrphans();
+}
@@ -2,24 +2,52 @@ package com.kir.homerentalsystem.repository;
 
 import com.kir.homerentalsystem.dto.response.PropertyResponse;
 import com.kir.homerentalsystem.entity.Property;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property> {
+public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property>,
+        PropertyRepositoryCustom {
     Optional<Property> findByOwner_Account_Email(String email);
 
+    @EntityGraph(Property.GRAPH_DETAIL)
+    Optional<Property> findWithDetailsByPropertyId(Long propertyId);
+
+    // SELECT ... FOR UPDATE: tuần tự hóa các yêu cầu thuê trên cùng một bất động sản
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Property> findForUpdateByPropertyId(Long propertyId);
+
+    @EntityGraph(Property.GRAPH_CARD)
     Page<Property> findAllByOwner_Account_Email(Pageable pageable, String email);
 
+    @EntityGraph(Property.GRAPH_CARD)
     Page<Property> findAll(Pageable pageable);
 
+    @Override
+    @EntityGraph(Property.GRAPH_CARD)
+    Page<Property> findAll(Specification<Property> specification, Pageable pageable);
+
+    @Override
+    @EntityGraph(Property.GRAPH_CARD)
+    List<Property> findAllById(Iterable<Long> propertyIds);
+
+    @EntityGraph(Property.GRAPH_CARD)
     Page<Property> findAllByCategory_CategoryId(Pageable pageable, Long categoryId);
 
+    @EntityGraph(Property.GRAPH_CARD)
     Page<Property> findAllByLocation_LocationId(Pageable pageable, Long locationId);
 
+    @EntityGraph(Property.GRAPH_CARD)
+    Page<Property> findAllByPropertyIdIn(Collection<Long> propertyIds, Pageable pageable);
+
     int countPropertiesByIsAvailableAndOwner_Account_Email(Boolean isAvailable, String email);
 }
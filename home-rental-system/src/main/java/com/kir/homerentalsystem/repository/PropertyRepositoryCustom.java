@@ -0,0 +1,17 @@
+package com.kir.homerentalsystem.repository;
+
+import com.kir.homerentalsystem.entity.Property;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface PropertyRepositoryCustom {
+    /**
+     * Đọc tuần tự bản đọc ({@code PropertyResponse} đã serialize) của các bất động sản khớp điều kiện,
+     * MySQL trả từng dòng qua kết nối thay vì đưa cả kết quả vào bộ nhớ và không chạy câu đếm.
+     * Trong lúc đọc, kết nối không chạy được câu lệnh khác nên chỉ lấy một cột, không tải lười gì thêm.
+     * Phải được gọi trong transaction và stream phải được đóng sau khi dùng.
+     */
+    Stream<String> streamDocuments(Specification<Property> specification, Sort sort);
+}
@@ -0,0 +1,42 @@
+package com.kir.homerentalsystem.repository;
+
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyRead;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.stream.Stream;
+
+public class PropertyRepositoryCustomImpl implements PropertyRepositoryCustom {
+    // Connector/J chỉ đọc từng dòng khi fetch size là Integer.MIN_VALUE (không cần useCursorFetch trên URL)
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<String> streamDocuments(Specification<Property> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = criteriaBuilder.createQuery(String.class);
+        Root<Property> root = query.from(Property.class);
+        Root<PropertyRead> read = query.from(PropertyRead.class);
+        Predicate joined = criteriaBuilder.equal(read.get("propertyId"), root.get("propertyId"));
+        Predicate filter = specification != null ? specification.toPredicate(root, query, criteriaBuilder) : null;
+        query.select(read.get("document"))
+                .where(filter != null ? criteriaBuilder.and(joined, filter) : joined)
+                .orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAMING_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,15 @@
+package com.kir.homerentalsystem.repository;
+
+import com.kir.homerentalsystem.entity.SavedSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+    List<SavedSearch> findAllByAccount_EmailOrderByCreatedAtDesc(String email);
+
+    Optional<SavedSearch> findBySavedSearchIdAndAccount_Email(Long savedSearchId, String email);
+
+    long countByAccount_Email(String email);
+}
@@ -6,4 +6,6 @@ import java.util.List;
 
 public interface AmenityService {
     List<AmenityResponse> getAll();
+
+    String getCatalogETag();
 }
@@ -8,4 +8,8 @@ public interface MediaService {
     List<String> uploadImages(MultipartFile[] file);
 
     String uploadImage(MultipartFile file);
+
+    List<String> uploadImagesConcurrently(List<MultipartFile> files);
+
+    List<String> deleteImages(List<String> urls);
 }
@@ -7,4 +7,6 @@ public interface OwnerService {
     void verifyOwner(VerifyOwnerRequest request);
 
     StatisticsResponse getStatistics();
+
+    void reconcileStatistics();
 }
@@ -0,0 +1,8 @@
+package com.kir.homerentalsystem.service;
+
+import com.kir.homerentalsystem.dto.response.PropertyImportResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface PropertyImportService {
+    PropertyImportResponse importProperties(MultipartFile file);
+}
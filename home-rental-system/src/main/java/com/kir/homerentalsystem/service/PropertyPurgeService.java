@@ -0,0 +1,5 @@
+package com.kir.homerentalsystem.service;
+
+public interface PropertyPurgeService {
+    void purgeDeletedProperties();
+}
@@ -1,10 +1,21 @@
 package com.kir.homerentalsystem.service;
 
 import com.cloudinary.Search;
+import com.kir.homerentalsystem.constant.AddressSuggestionType;
 import com.kir.homerentalsystem.dto.request.AmenityRequest;
+import com.kir.homerentalsystem.dto.request.PolygonSearchRequest;
 import com.kir.homerentalsystem.dto.request.PropertyCreationRequest;
+import com.kir.homerentalsystem.dto.request.PropertyFilterRequest;
 import com.kir.homerentalsystem.dto.request.PropertyImageRequest;
+import com.kir.homerentalsystem.dto.response.AddressSuggestionResponse;
+import com.kir.homerentalsystem.dto.response.CacheStatsResponse;
+import com.kir.homerentalsystem.dto.response.CursorPageResponse;
+import com.kir.homerentalsystem.dto.response.FacetResponse;
+import com.kir.homerentalsystem.dto.response.PriceHistogramBucket;
+import com.kir.homerentalsystem.dto.response.PriceStatisticsResponse;
+import com.kir.homerentalsystem.dto.response.PriceSuggestionResponse;
 import com.kir.homerentalsystem.dto.response.PropertyResponse;
+import com.kir.homerentalsystem.dto.response.PropertyViewCountResponse;
 import com.kir.homerentalsystem.entity.*;
 import jakarta.mail.Multipart;
 import org.springframework.data.domain.Page;
@@ -13,6 +24,8 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.parameters.P;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Set;
@@ -32,14 +45,33 @@ public interface PropertyService {
 
     Page<PropertyResponse> getPropertiesByCategory(long categoryId, int page, int size, String sortBy);
 
+    CursorPageResponse<PropertyResponse> scrollAllProperties(String cursor, int size, String sortBy, String direction);
+
+    CursorPageResponse<PropertyResponse> scrollPropertiesByCategory(long categoryId, String cursor, int size,
+                                                                    String sortBy, String direction);
+
+    CursorPageResponse<PropertyResponse> scrollAllMyProperties(String cursor, int size, String sortBy, String direction);
+
     Page<PropertyResponse> getPropertiesByEmail(long ownerId, int page, int size, String sortBy);
 
-    Set<PropertyImage> processPropertyImages(List<PropertyImageRequest> imageRequests, Property property);
+    Set<PropertyImage> processPropertyImages(List<PropertyImageRequest> imageRequests, List<String> imageUrls, Property property);
 
     Property createPropertyEntity(PropertyCreationRequest request, Owner owner, PropertyCategory category, Location location);
 
     PropertyResponse getPropertyById(Long id);
 
+    String getPropertyETag(Long id);
+
+    List<PropertyResponse> getSimilarProperties(Long id, int limit);
+
+    void recordPropertyView(Long id, String viewer);
+
+    List<PropertyViewCountResponse> getMyPropertyViewCounts();
+
+    CacheStatsResponse getPropertyCacheStats();
+
+    CacheStatsResponse getSearchCacheStats();
+
     void validateOwnerStatus(Owner owner);
 
     Set<Amenity> processAmenities(List<AmenityRequest> amenityRequests, Property property);
@@ -54,4 +86,30 @@ public interface PropertyService {
                                             BigDecimal minArea, BigDecimal maxArea,
                                             BigDecimal minPrice, BigDecimal maxPrice, Boolean isAvailable,
                                             Pageable pageable);
+
+    void exportPropertiesForOwner(String title, String address, Integer bedrooms, Integer bathrooms,
+                                  BigDecimal minArea, BigDecimal maxArea,
+                                  BigDecimal minPrice, BigDecimal maxPrice, Boolean isAvailable,
+                                  OutputStream outputStream) throws IOException;
+
+    Page<PropertyResponse> searchPropertiesNearby(double latitude, double longitude, double radiusKm,
+                                                  PropertyFilterRequest filter, Pageable pageable);
+
+    Page<PropertyResponse> searchPropertiesInBoundingBox(double minLatitude, double minLongitude,
+                                                         double maxLatitude, double maxLongitude,
+                                                         PropertyFilterRequest filter, Pageable pageable);
+
+    Page<PropertyResponse> searchPropertiesInPolygon(PolygonSearchRequest request, Pageable pageable);
+
+    Page<PropertyResponse> filterProperties(PropertyFilterRequest filter, Pageable pageable);
+
+    FacetResponse getPropertyFacets(String keyword, PropertyFilterRequest filter);
+
+    List<AddressSuggestionResponse> autocompleteAddress(String query, AddressSuggestionType type, int limit);
+
+    PriceStatisticsResponse getPriceStatistics(String city, String district, Long categoryId, List<Double> percentiles);
+
+    List<PriceHistogramBucket> getPriceHistogram(String city, String district, Long categoryId, int buckets);
+
+    PriceSuggestionResponse suggestPrice(String city, String district, Long categoryId);
 }
@@ -0,0 +1,14 @@
+package com.kir.homerentalsystem.service;
+
+import com.kir.homerentalsystem.dto.request.SavedSearchRequest;
+import com.kir.homerentalsystem.dto.response.SavedSearchResponse;
+
+import java.util.List;
+
+public interface SavedSearchService {
+    SavedSearchResponse createSavedSearch(SavedSearchRequest request);
+
+    List<SavedSearchResponse> getMySavedSearches();
+
+    void deleteSavedSearch(Long id);
+}
@@ -0,0 +1,94 @@
+package com.kir.homerentalsystem.service.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Số phiên bản của các danh mục dùng chung (loại bất động sản, tiện ích), dùng làm ETag.
+ * Giá trị gốc nằm trong Redis, mỗi instance giữ bản sao trong bộ nhớ và nhận phiên bản mới
+ * qua kênh {@value #VERSION_CHANNEL}, nên đọc ETag không tốn truy vấn nào.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogVersion {
+    private static final String KEY_PREFIX = "catalog_version_";
+    private static final String VERSION_CHANNEL = "catalog_version";
+
+    public enum Catalog {
+        CATEGORY, AMENITY
+    }
+
+    private final Map<Catalog, AtomicLong> versions = new EnumMap<>(Catalog.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    void init() {
+        for (Catalog catalog : Catalog.values()) {
+            versions.put(catalog, new AtomicLong(loadVersion(catalog)));
+        }
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+            versions.get(Catalog.valueOf(parts[0])).accumulateAndGet(Long.parseLong(parts[1]), Math::max);
+        }, new ChannelTopic(VERSION_CHANNEL));
+    }
+
+    public String eTag(Catalog catalog) {
+        return "\"" + catalog.name().toLowerCase(Locale.ROOT) + "-" + versions.get(catalog).get() + "\"";
+    }
+
+    /**
+     * Tăng phiên bản sau khi transaction hiện tại commit, để client không nhận ETag mới kèm dữ liệu cũ.
+     */
+    public void bumpAfterCommit(Catalog catalog) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(catalog);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(catalog);
+            }
+        });
+    }
+
+    private void bump(Catalog catalog) {
+        long next;
+        try {
+            next = redisTemplate.opsForValue().increment(KEY_PREFIX + catalog.name());
+            redisTemplate.convertAndSend(VERSION_CHANNEL, catalog.name() + ":" + next);
+        } catch (Exception e) {
+            log.warn("Cannot bump {} catalog version in Redis: {}", catalog, e.getMessage());
+            next = versions.get(catalog).get() + 1;
+        }
+        versions.get(catalog).accumulateAndGet(next, Math::max);
+    }
+
+    // Khởi tạo bằng thời gian hiện tại để không lặp lại ETag cũ nếu Redis bị xóa dữ liệu
+    private long loadVersion(Catalog catalog) {
+        String key = KEY_PREFIX + catalog.name();
+        try {
+            redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(System.currentTimeMillis()));
+            return Long.parseLong(String.valueOf(redisTemplate.opsForValue().get(key)));
+        } catch (Exception e) {
+            log.warn("Cannot load {} catalog version from Redis: {}", catalog, e.getMessage());
+            return System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.kir.homerentalsystem.service.cache;
+
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.util.TextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Danh mục vị trí dùng chung: mỗi bộ (quốc gia, thành phố, quận, phường, mã bưu chính) đã chuẩn hóa
+ * chỉ có một dòng {@code location}, ràng buộc bởi unique key {@code location_key}.
+ * Tọa độ của từng tin đăng nằm ở {@code property.latitude/longitude}, không thuộc khóa.
+ * Toàn bộ các vị trí được giữ trong bộ nhớ nên tạo bất động sản ở vị trí đã có không tốn truy vấn nào;
+ * vị trí mới được ghi ngay trong transaction của người gọi và chỉ vào bộ nhớ sau khi commit.
+ * <p>
+ * Khi khởi động, tọa độ của các tin đăng cũ được chép từ {@code location} sang {@code property},
+ * sau đó các dòng chưa có khóa (hoặc có khóa theo định dạng cũ) được gán khóa; dòng trùng được gộp
+ * vào dòng có id nhỏ nhất (bất động sản được trỏ sang dòng đó, bản đọc của chúng bị xóa để projector dựng lại).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocationRegistry {
+    private static final int BATCH_SIZE = 500;
+    private static final String COLUMNS = "location_id, location_key, city, district, ward, postal_code, country, " +
+            "latitude, longitude";
+    private static final String SELECT_KEYED = "SELECT " + COLUMNS + " FROM location WHERE location_key IS NOT NULL";
+    private static final String SELECT_BY_KEY = "SELECT " + COLUMNS + " FROM location WHERE location_key = ?";
+    private static final String SELECT_BY_KEY_LOCKED = SELECT_BY_KEY + " LOCK IN SHARE MODE";
+    private static final String SELECT_UNKEYED = "SELECT " + COLUMNS + " FROM location " +
+            "WHERE location_key IS NULL ORDER BY location_id LIMIT " + BATCH_SIZE;
+    private static final String INSERT_LOCATION = "INSERT INTO location " +
+            "(location_key, city, district, ward, postal_code, country, latitude, longitude) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ASSIGN_KEY = "UPDATE location SET location_key = ? WHERE location_id = ?";
+    private static final String RESET_KEY = "UPDATE location SET location_key = NULL WHERE location_id = ?";
+    // Phải chạy trước khi gộp, nếu không tin đăng trỏ sang dòng gộp sẽ mất tọa độ của dòng cũ
+    private static final String COPY_COORDINATES = "UPDATE property p JOIN location l ON l.location_id = p.location_id " +
+            "SET p.latitude = l.latitude, p.longitude = l.longitude " +
+            "WHERE p.latitude IS NULL AND p.longitude IS NULL AND l.latitude IS NOT NULL AND l.longitude IS NOT NULL";
+    private static final String DELETE_READ_MODELS = "DELETE FROM property_read WHERE property_id IN " +
+            "(SELECT property_id FROM property WHERE location_id = ?)";
+    private static final String REPOINT_PROPERTIES = "UPDATE property SET location_id = ? WHERE location_id = ?";
+    private static final String DELETE_LOCATION = "DELETE FROM location WHERE location_id = ?";
+
+    private static final RowMapper<Entry> ENTRY_MAPPER = (rs, rowNum) -> new Entry(
+            rs.getLong("location_id"), rs.getString("location_key"),
+            rs.getString("city"), rs.getString("district"), rs.getString("ward"),
+            rs.getString("postal_code"), rs.getString("country"),
+            rs.getBigDecimal("latitude"), rs.getBigDecimal("longitude"));
+
+    private final Map<String, Entry> locations = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Chạy trước khi dựng chỉ mục và bản đọc để chúng thấy vị trí đã gộp
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        locations.clear();
+        int copied = jdbcTemplate.update(COPY_COORDINATES);
+        List<Object[]> stale = new ArrayList<>();
+        for (Entry entry : jdbcTemplate.query(SELECT_KEYED, ENTRY_MAPPER)) {
+            if (entry.key().equals(key(entry.toLocation()))) {
+                locations.put(entry.key(), entry);
+            } else {
+                stale.add(new Object[]{entry.locationId()});
+            }
+        }
+        // Khóa theo định dạng cũ (có kèm tọa độ) được xóa để bước dưới gán lại và gộp theo địa chỉ
+        jdbcTemplate.batchUpdate(RESET_KEY, stale);
+
+        int merged = 0;
+        List<Entry> unkeyed;
+        while (!(unkeyed = jdbcTemplate.query(SELECT_UNKEYED, ENTRY_MAPPER)).isEmpty()) {
+            List<Entry> batch = unkeyed;
+            BatchResult result = Objects.requireNonNull(transactionTemplate.execute(status -> deduplicate(batch)));
+            locations.putAll(result.assigned());
+            merged += result.merged();
+        }
+        log.info("Location registry loaded {} locations in {} ms, {} duplicates merged, {} coordinates moved to property",
+                locations.size(), System.currentTimeMillis() - start, merged, copied);
+    }
+
+    /**
+     * Trả về vị trí chuẩn có cùng khóa với {@code location}, tạo mới nếu chưa có.
+     * Đối tượng trả về là bản sao mới, chỉ dùng để gán quan hệ hoặc đọc thông tin.
+     */
+    public Location intern(Location location) {
+        String key = key(location);
+        Entry entry = locations.get(key);
+        if (entry == null) {
+            entry = findOrInsert(key, location);
+            cacheAfterCommit(entry);
+        }
+        return entry.toLocation();
+    }
+
+    public static String key(Location location) {
+        return String.join("|",
+                normalize(location.getCountry()),
+                normalize(location.getCity()),
+                normalize(location.getDistrict()),
+                normalize(location.getWard()),
+                normalize(location.getPostalCode()));
+    }
+
+    private Entry findOrInsert(String key, Location location) {
+        List<Entry> existing = jdbcTemplate.query(SELECT_BY_KEY, ENTRY_MAPPER, key);
+        if (!existing.isEmpty()) {
+            return existing.get(0);
+        }
+        try {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(INSERT_LOCATION, Statement.RETURN_GENERATED_KEYS);
+                ps.setString(1, key);
+                ps.setString(2, location.getCity().trim());
+                ps.setString(3, location.getDistrict().trim());
+                ps.setString(4, location.getWard().trim());
+                ps.setString(5, location.getPostalCode() != null ? location.getPostalCode().trim() : null);
+                ps.setString(6, location.getCountry().trim());
+                ps.setBigDecimal(7, location.getLatitude());
+                ps.setBigDecimal(8, location.getLongitude());
+                return ps;
+            }, keyHolder);
+            return new Entry(Objects.requireNonNull(keyHolder.getKey()).longValue(), key,
+                    location.getCity().trim(), location.getDistrict().trim(), location.getWard().trim(),
+                    location.getPostalCode() != null ? location.getPostalCode().trim() : null,
+                    location.getCountry().trim(), location.getLatitude(), location.getLongitude());
+        } catch (DuplicateKeyException e) {
+            // Transaction khác vừa tạo cùng khóa; đọc có khóa để thấy cả dòng commit sau snapshot hiện tại
+            return jdbcTemplate.query(SELECT_BY_KEY_LOCKED, ENTRY_MAPPER, key).stream()
+                    .findFirst()
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private void cacheAfterCommit(Entry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            locations.putIfAbsent(entry.key(), entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                locations.putIfAbsent(entry.key(), entry);
+            }
+        });
+    }
+
+    /**
+     * Gán khóa cho một lô dòng cũ; dòng trùng khóa với dòng đã có thì được gộp vào dòng đó rồi xóa.
+     *
+     * @return Các khóa mới được gán (chỉ đưa vào bộ nhớ sau khi commit) và số dòng đã gộp
+     */
+    private BatchResult deduplicate(List<Entry> batch) {
+        Map<String, Entry> assigned = new HashMap<>();
+        List<Object[]> keys = new ArrayList<>();
+        List<Object[]> duplicates = new ArrayList<>();
+        List<Object[]> repoints = new ArrayList<>();
+        for (Entry row : batch) {
+            String key = key(row.toLocation());
+            Entry canonical = locations.getOrDefault(key, assigned.get(key));
+            if (canonical == null) {
+                Entry keyed = row.withKey(key);
+                assigned.put(key, keyed);
+                keys.add(new Object[]{key, row.locationId()});
+            } else {
+                duplicates.add(new Object[]{row.locationId()});
+                repoints.add(new Object[]{canonical.locationId(), row.locationId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(ASSIGN_KEY, keys);
+        jdbcTemplate.batchUpdate(DELETE_READ_MODELS, duplicates);
+        jdbcTemplate.batchUpdate(REPOINT_PROPERTIES, repoints);
+        jdbcTemplate.batchUpdate(DELETE_LOCATION, duplicates);
+        return new BatchResult(assigned, duplicates.size());
+    }
+
+    // Khóa tra cứu: bỏ dấu, chữ thường, dấu câu và khoảng trắng thừa gộp thành một dấu cách
+    private static String normalize(String text) {
+        return text == null ? "" : String.join(" ", TextUtil.tokenize(text));
+    }
+
+    private record BatchResult(Map<String, Entry> assigned, int merged) {
+    }
+
+    private record Entry(long locationId, String key, String city, String district, String ward,
+                         String postalCode, String country, BigDecimal latitude, BigDecimal longitude) {
+
+        Entry withKey(String key) {
+            return new Entry(locationId, key, city, district, ward, postalCode, country, latitude, longitude);
+        }
+
+        Location toLocation() {
+            return Location.builder()
+                    .locationId(locationId)
+                    .locationKey(key)
+                    .city(city)
+                    .district(district)
+                    .ward(ward)
+                    .postalCode(postalCode)
+                    .country(country)
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.kir.homerentalsystem.service.cache;
+
+import com.kir.homerentalsystem.constant.LeaseStatus;
+import com.kir.homerentalsystem.constant.PropertyViewingStatus;
+import com.kir.homerentalsystem.dto.response.StatisticsResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Bộ đếm thống kê của từng chủ nhà, lưu trong Redis hash {@code owner_stats_<email>}.
+ * Mỗi thay đổi tăng/giảm các trường bằng một script nên được áp dụng nguyên tử; hash chưa tồn tại
+ * thì bỏ qua, lần đọc kế tiếp sẽ tính lại từ DB. Sai lệch tích lũy được sửa bởi {@link #reconcileAll()}.
+ * <p>
+ * Trong lúc đối soát, mọi thay đổi còn được ghi thêm vào một hash nhật ký theo lượt đối soát
+ * ({@code owner_stats_<email>:<lượt>}). Khi ghi kết quả từ DB, script cộng nhật ký vào rồi mới thay hash,
+ * nên các thay đổi commit sau thời điểm truy vấn DB không bị ghi đè mất.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OwnerStatisticsCounter {
+    private static final String KEY_PREFIX = "owner_stats_";
+    private static final String RECONCILE_KEY = "owner_stats_reconcile";
+    // Giới hạn thời gian của một lượt đối soát, tránh nhật ký bị ghi mãi nếu instance đối soát dừng giữa chừng
+    private static final Duration RECONCILE_TIMEOUT = Duration.ofHours(1);
+
+    private static final String TOTAL = "total";
+    private static final String AVAILABLE = "available";
+    private static final String RENTED = "rented";
+    private static final String PENDING_LEASES = "pendingLeases";
+    private static final String OPEN_VIEWINGS = "openViewings";
+
+    private static final List<String> OPEN_VIEWING_STATUSES = List.of(
+            PropertyViewingStatus.REQUESTED.name(), PropertyViewingStatus.CONFIRMED.name());
+
+    // Chỉ cộng dồn khi hash đã được khởi tạo đầy đủ, tránh tạo hash chỉ có vài trường.
+    // Nếu đang đối soát (KEYS[2] giữ mã lượt) thì ghi thêm vào nhật ký của lượt đó, kể cả khi hash chưa có.
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "local round = redis.call('GET', KEYS[2]) " +
+                    "if round then " +
+                    "local journal = KEYS[1] .. ':' .. round " +
+                    "for i = 1, #ARGV, 2 do redis.call('HINCRBY', journal, ARGV[i], ARGV[i + 1]) end " +
+                    "redis.call('EXPIRE', journal, " + RECONCILE_TIMEOUT.toSeconds() + ") " +
+                    "end " +
+                    "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+                    "for i = 1, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+                    "return 1",
+            Long.class);
+
+    // Thay hash bằng kết quả từ DB (ARGV) cộng các thay đổi đã ghi vào nhật ký (KEYS[2]) kể từ lúc bắt đầu đối soát
+    private static final RedisScript<Long> SWAP_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) " +
+                    "redis.call('HSET', KEYS[1], unpack(ARGV)) " +
+                    "local journal = redis.call('HGETALL', KEYS[2]) " +
+                    "for i = 1, #journal, 2 do redis.call('HINCRBY', KEYS[1], journal[i], journal[i + 1]) end " +
+                    "redis.call('DEL', KEYS[2]) " +
+                    "return 1",
+            Long.class);
+
+    // Chỉ khởi tạo khi hash vẫn chưa có: instance khác có thể đã khởi tạo và cộng dồn trong lúc đang tính từ DB
+    private static final RedisScript<Long> FILL_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+                    "redis.call('HSET', KEYS[1], unpack(ARGV)) " +
+                    "return 1",
+            Long.class);
+
+    private static final String SELECT_STATISTICS = "SELECT a.email, " +
+            "(SELECT COUNT(*) FROM property p WHERE p.owner_id = o.owner_id AND p.deleted_at IS NULL) AS total, " +
+            "(SELECT COUNT(*) FROM property p WHERE p.owner_id = o.owner_id AND p.deleted_at IS NULL " +
+            "AND p.is_available = TRUE) AS available, " +
+            "(SELECT COUNT(*) FROM property p WHERE p.owner_id = o.owner_id AND p.deleted_at IS NULL " +
+            "AND p.is_available = FALSE) AS rented, " +
+            "(SELECT COUNT(*) FROM lease l JOIN property p ON p.property_id = l.property_id " +
+            "WHERE p.owner_id = o.owner_id AND p.deleted_at IS NULL AND l.status = '" + LeaseStatus.PENDING.name() + "') " +
+            "AS pending_leases, " +
+            "(SELECT COUNT(*) FROM property_viewing v JOIN property p ON p.property_id = v.property_id " +
+            "WHERE p.owner_id = o.owner_id AND p.deleted_at IS NULL AND v.status IN ('" +
+            String.join("', '", OPEN_VIEWING_STATUSES) + "')) AS open_viewings " +
+            "FROM owner o JOIN account a ON a.account_id = o.account_id";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Đọc thống kê bằng một lệnh HGETALL; nếu chưa có thì tính lại từ DB và lưu vào Redis.
+     */
+    public StatisticsResponse get(String email) {
+        Map<Object, Object> counters = Map.of();
+        try {
+            counters = redisTemplate.opsForHash().entries(KEY_PREFIX + email);
+        } catch (Exception e) {
+            log.warn("Cannot read statistics of {} from Redis: {}", email, e.getMessage());
+        }
+        if (counters.isEmpty()) {
+            List<Map<String, String>> rows = new ArrayList<>();
+            jdbcTemplate.query(SELECT_STATISTICS + " WHERE a.email = ?",
+                    (RowCallbackHandler) rs -> rows.add(toCounters(rs.getLong("total"), rs.getLong("available"),
+                            rs.getLong("rented"), rs.getLong("pending_leases"), rs.getLong("open_viewings"))),
+                    email);
+            Map<String, String> loaded = rows.isEmpty() ? toCounters(0, 0, 0, 0, 0) : rows.get(0);
+            fillIfAbsent(email, loaded);
+            counters = new HashMap<>(loaded);
+        }
+        return StatisticsResponse.builder()
+                .totalPropertyCount(intValue(counters.get(TOTAL)))
+                .availablePropertyCount(intValue(counters.get(AVAILABLE)))
+                .rentedPropertyCount(intValue(counters.get(RENTED)))
+                .pendingLeaseCount(intValue(counters.get(PENDING_LEASES)))
+                .openViewingCount(intValue(counters.get(OPEN_VIEWINGS)))
+                .build();
+    }
+
+    public void propertiesCreated(String email, int count) {
+        if (count <= 0) {
+            return;
+        }
+        incrementAfterCommit(email, TOTAL, count, AVAILABLE, count);
+    }
+
+    public void availabilityChanged(String email, Boolean wasAvailable, Boolean available) {
+        if (Objects.equals(wasAvailable, available)) {
+            return;
+        }
+        List<Object> deltas = new ArrayList<>();
+        if (wasAvailable != null) {
+            deltas.addAll(List.of(wasAvailable ? AVAILABLE : RENTED, -1));
+        }
+        if (available != null) {
+            deltas.addAll(List.of(available ? AVAILABLE : RENTED, 1));
+        }
+        incrementAfterCommit(email, deltas.toArray());
+    }
+
+    public void leaseStatusChanged(String email, String oldStatus, String newStatus) {
+        int delta = (LeaseStatus.PENDING.name().equals(newStatus) ? 1 : 0)
+                - (LeaseStatus.PENDING.name().equals(oldStatus) ? 1 : 0);
+        if (delta != 0) {
+            incrementAfterCommit(email, PENDING_LEASES, delta);
+        }
+    }
+
+    public void viewingStatusChanged(String email, String oldStatus, String newStatus) {
+        int delta = (OPEN_VIEWING_STATUSES.contains(newStatus) ? 1 : 0)
+                - (OPEN_VIEWING_STATUSES.contains(oldStatus) ? 1 : 0);
+        if (delta != 0) {
+            incrementAfterCommit(email, OPEN_VIEWINGS, delta);
+        }
+    }
+
+    /**
+     * Xóa bộ đếm để lần đọc kế tiếp tính lại, dùng khi thay đổi ảnh hưởng nhiều trường khó tính chênh lệch
+     * (ví dụ xóa bất động sản kèm các hợp đồng và lịch xem nhà của nó).
+     */
+    public void invalidateAfterCommit(String email) {
+        afterCommit(() -> redisTemplate.delete(KEY_PREFIX + email));
+    }
+
+    /**
+     * Tính lại bộ đếm của mọi chủ nhà từ DB và ghi lên Redis.
+     * <p>
+     * Nhật ký được bật trước khi truy vấn, và truy vấn là một câu lệnh nên đọc trên một snapshot;
+     * vì vậy kết quả DB cộng nhật ký bằng giá trị hiện tại. Mỗi lúc chỉ một instance được đối soát.
+     * Thay đổi commit ngay trước truy vấn nhưng ghi Redis sau khi bật nhật ký có thể bị tính hai lần;
+     * khe thời gian này rất ngắn và được sửa ở lượt đối soát sau.
+     */
+    public void reconcileAll() {
+        String round = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RECONCILE_KEY, round, RECONCILE_TIMEOUT))) {
+                log.info("Owner statistics are being reconciled by another instance");
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("Cannot start owner statistics reconciliation: {}", e.getMessage());
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int[] owners = {0};
+        try {
+            jdbcTemplate.query(SELECT_STATISTICS, (RowCallbackHandler) rs -> {
+                swap(rs.getString("email"), round, toCounters(rs.getLong("total"), rs.getLong("available"),
+                        rs.getLong("rented"), rs.getLong("pending_leases"), rs.getLong("open_viewings")));
+                owners[0]++;
+            });
+        } finally {
+            try {
+                if (round.equals(redisTemplate.opsForValue().get(RECONCILE_KEY))) {
+                    redisTemplate.delete(RECONCILE_KEY);
+                }
+            } catch (Exception e) {
+                log.warn("Cannot finish owner statistics reconciliation: {}", e.getMessage());
+            }
+        }
+        log.info("Owner statistics reconciled for {} owners in {} ms", owners[0], System.currentTimeMillis() - start);
+    }
+
+    private void incrementAfterCommit(String email, Object... fieldDeltas) {
+        if (email == null || fieldDeltas.length == 0) {
+            return;
+        }
+        String[] args = new String[fieldDeltas.length];
+        for (int i = 0; i < fieldDeltas.length; i++) {
+            args[i] = String.valueOf(fieldDeltas[i]);
+        }
+        afterCommit(() -> redisTemplate.execute(INCREMENT_SCRIPT, List.of(KEY_PREFIX + email, RECONCILE_KEY),
+                (Object[]) args));
+    }
+
+    // Chỉ cập nhật khi transaction commit để bộ đếm không tính các thay đổi bị rollback
+    private void afterCommit(Runnable action) {
+        Runnable safeAction = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.warn("Cannot update owner statistics in Redis: {}", e.getMessage());
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            safeAction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                safeAction.run();
+            }
+        });
+    }
+
+    private void fillIfAbsent(String email, Map<String, String> counters) {
+        try {
+            redisTemplate.execute(FILL_SCRIPT, List.of(KEY_PREFIX + email), (Object[]) toArgs(counters));
+        } catch (Exception e) {
+            log.warn("Cannot write statistics of {} to Redis: {}", email, e.getMessage());
+        }
+    }
+
+    private void swap(String email, String round, Map<String, String> counters) {
+        try {
+            redisTemplate.execute(SWAP_SCRIPT, List.of(KEY_PREFIX + email, KEY_PREFIX + email + ":" + round),
+                    (Object[]) toArgs(counters));
+        } catch (Exception e) {
+            log.warn("Cannot write statistics of {} to Redis: {}", email, e.getMessage());
+        }
+    }
+
+    private static String[] toArgs(Map<String, String> counters) {
+        return counters.entrySet().stream()
+                .flatMap(entry -> Stream.of(entry.getKey(), entry.getValue()))
+                .toArray(String[]::new);
+    }
+
+    private static Map<String, String> toCounters(long total, long available, long rented,
+                                                  long pendingLeases, long openViewings) {
+        return Map.of(
+                TOTAL, String.valueOf(total),
+                AVAILABLE, String.valueOf(available),
+                RENTED, String.valueOf(rented),
+                PENDING_LEASES, String.valueOf(pendingLeases),
+                OPEN_VIEWINGS, String.valueOf(openViewings));
+    }
+
+    private static int intValue(Object value) {
+        return value == null ? 0 : Integer.parseInt(value.toString());
+    }
+}
@@ -0,0 +1,164 @@
+package com.kir.homerentalsystem.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kir.homerentalsystem.dto.response.CacheStatsResponse;
+import com.kir.homerentalsystem.dto.response.PropertyResponse;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache hai tầng cho chi tiết bất động sản: tầng local (Caffeine, W-TinyLFU) đặt trước Redis.
+ * Khi bất động sản thay đổi, key Redis bị xóa và một thông điệp được phát qua kênh
+ * {@value #EVICT_CHANNEL} để các instance khác xóa tầng local của mình.
+ * <p>
+ * Mỗi lần xóa cũng ghi lại phiên bản mới nhất ({@code updatedAt}) của bất động sản; bản ghi vào Redis chỉ được
+ * chấp nhận nếu không cũ hơn phiên bản đó, nên một lần tải đọc dữ liệu trước khi cập nhật rồi ghi sau khi key
+ * đã bị xóa sẽ bị bỏ qua thay vì nằm lại trong Redis đến hết TTL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PropertyResponseCache {
+    private static final String KEY_PREFIX = "property_response_";
+    private static final String EVICT_CHANNEL = "property_response_evict";
+    private static final String VERSION_KEY_PREFIX = "property_response_version_";
+    private static final Duration REDIS_TTL = Duration.ofMinutes(10);
+    // Bất động sản đã xóa: không bản tải nào được ghi lại
+    private static final long DELETED_VERSION = Long.MAX_VALUE;
+
+    // KEYS[1] = giá trị, KEYS[2] = phiên bản mới nhất; ARGV = json, phiên bản của json, TTL (ms)
+    private static final RedisScript<Long> WRITE_SCRIPT = new DefaultRedisScript<>(
+            "local latest = redis.call('GET', KEYS[2]) " +
+                    "if latest and tonumber(latest) > tonumber(ARGV[2]) then return 0 end " +
+                    "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3]) " +
+                    "return 1",
+            Long.class);
+
+    // KEYS[1] = giá trị, KEYS[2] = phiên bản mới nhất; ARGV = phiên bản mới, TTL (ms). Phiên bản chỉ tăng
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+            "local latest = redis.call('GET', KEYS[2]) " +
+                    "if not latest or tonumber(latest) < tonumber(ARGV[1]) then " +
+                    "redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2]) end " +
+                    "return redis.call('DEL', KEYS[1])",
+            Long.class);
+
+    private final Cache<Long, PropertyResponse> localCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .recordStats()
+            .build();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    void subscribeEvictions() {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            localCache.invalidate(Long.valueOf(body));
+        }, new ChannelTopic(EVICT_CHANNEL));
+    }
+
+    public PropertyResponse get(Long propertyId, Supplier<PropertyResponse> loader) {
+        return localCache.get(propertyId, id -> {
+            PropertyResponse cached = readRemote(id);
+            if (cached != null) {
+                remoteHits.increment();
+                return cached;
+            }
+            remoteMisses.increment();
+            PropertyResponse loaded = loader.get();
+            writeRemote(id, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * @param version {@code updatedAt} mới nhất của bất động sản (epoch giây), các bản tải cũ hơn sẽ không được ghi
+     */
+    public void evict(Long propertyId, long version) {
+        localCache.invalidate(propertyId);
+        try {
+            redisTemplate.execute(EVICT_SCRIPT, List.of(KEY_PREFIX + propertyId, VERSION_KEY_PREFIX + propertyId),
+                    String.valueOf(version), String.valueOf(REDIS_TTL.toMillis()));
+            redisTemplate.convertAndSend(EVICT_CHANNEL, String.valueOf(propertyId));
+        } catch (Exception e) {
+            log.warn("Cannot evict property {} from Redis: {}", propertyId, e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        long version = event.getType() == PropertyChangedEvent.Type.DELETED
+                ? DELETED_VERSION
+                : versionOf(event.getProperty().getUpdatedAt());
+        evict(event.getPropertyId(), version);
+    }
+
+    public CacheStatsResponse getStats() {
+        CacheStats stats = localCache.stats();
+        return CacheStatsResponse.builder()
+                .name("propertyResponse")
+                .size(localCache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .evictionCount(stats.evictionCount())
+                .hitRate(stats.hitRate())
+                .remoteHitCount(remoteHits.sum())
+                .remoteMissCount(remoteMisses.sum())
+                .build();
+    }
+
+    private PropertyResponse readRemote(Long propertyId) {
+        try {
+            Object json = redisTemplate.opsForValue().get(KEY_PREFIX + propertyId);
+            return json == null ? null : objectMapper.readValue(json.toString(), PropertyResponse.class);
+        } catch (Exception e) {
+            log.warn("Cannot read property {} from Redis: {}", propertyId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRemote(Long propertyId, PropertyResponse response) {
+        try {
+            Long written = redisTemplate.execute(WRITE_SCRIPT,
+                    List.of(KEY_PREFIX + propertyId, VERSION_KEY_PREFIX + propertyId),
+                    objectMapper.writeValueAsString(response),
+                    String.valueOf(versionOf(response.getUpdatedAt())),
+                    String.valueOf(REDIS_TTL.toMillis()));
+            if (written == null || written == 0) {
+                log.debug("Skip caching stale property {} in Redis", propertyId);
+            }
+        } catch (Exception e) {
+            log.warn("Cannot write property {} to Redis: {}", propertyId, e.getMessage());
+        }
+    }
+
+    // Theo giây (làm tròn xuống) vì cột TIMESTAMP không lưu phần lẻ, bản tải từ DB không được bị coi là cũ hơn
+    private static long versionOf(LocalDateTime updatedAt) {
+        return updatedAt == null ? 0 : updatedAt.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
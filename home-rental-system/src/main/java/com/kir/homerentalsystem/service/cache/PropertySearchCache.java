@@ -0,0 +1,107 @@
+package com.kir.homerentalsystem.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kir.homerentalsystem.dto.response.CacheStatsResponse;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache kết quả tìm kiếm theo bộ lọc đã chuẩn hóa. Mỗi entry chỉ lưu danh sách id của trang và tổng số bản ghi.
+ * Key có kèm số epoch; mọi thay đổi bất động sản làm tăng epoch (trên mọi instance qua kênh
+ * {@value #EPOCH_CHANNEL}) nên các entry cũ không còn được đọc tới và tự hết hạn.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PropertySearchCache {
+    private static final String EPOCH_CHANNEL = "property_search_epoch";
+
+    private final Cache<String, SearchResult> cache = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .expireAfterWrite(Duration.ofMinutes(2))
+            .recordStats()
+            .build();
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public record SearchResult(List<Long> ids, long total) {
+    }
+
+    @PostConstruct
+    void subscribeEpoch() {
+        listenerContainer.addMessageListener((message, pattern) -> epoch.incrementAndGet(),
+                new ChannelTopic(EPOCH_CHANNEL));
+    }
+
+    /**
+     * Chuẩn hóa bộ lọc thành key: bỏ khoảng trắng thừa, không phân biệt hoa thường, số được bỏ số 0 thừa.
+     */
+    public String key(String title, String address, Integer bedrooms, Integer bathrooms,
+                      BigDecimal minArea, BigDecimal maxArea, BigDecimal minPrice, BigDecimal maxPrice,
+                      Boolean isAvailable, Pageable pageable) {
+        return String.join("|",
+                String.valueOf(epoch.get()),
+                normalize(title), normalize(address),
+                String.valueOf(bedrooms), String.valueOf(bathrooms),
+                normalize(minArea), normalize(maxArea), normalize(minPrice), normalize(maxPrice),
+                String.valueOf(isAvailable),
+                String.valueOf(pageable.getPageNumber()), String.valueOf(pageable.getPageSize()),
+                pageable.getSort().toString());
+    }
+
+    public SearchResult get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, List<Long> ids, long total) {
+        cache.put(key, new SearchResult(List.copyOf(ids), total));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        epoch.incrementAndGet();
+        try {
+            redisTemplate.convertAndSend(EPOCH_CHANNEL, String.valueOf(event.getPropertyId()));
+        } catch (Exception e) {
+            log.warn("Cannot publish search cache epoch: {}", e.getMessage());
+        }
+    }
+
+    public CacheStatsResponse getStats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsResponse.builder()
+                .name("propertySearch")
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .evictionCount(stats.evictionCount())
+                .hitRate(stats.hitRate())
+                .build();
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalize(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,183 @@
+package com.kir.homerentalsystem.service.cache;
+
+import com.kir.homerentalsystem.dto.response.PropertyViewCountResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Đếm lượt xem bất động sản mà không ghi DB trên luồng đọc: mỗi lượt xem chỉ cộng vào một {@link LongAdder}
+ * theo id, phần chênh lệch được ghi xuống bảng {@code property_view} theo lô mỗi {@value #FLUSH_INTERVAL_MS} ms.
+ * <p>
+ * Một người xem chỉ được tính một lần trong mỗi khoảng {@value #DEDUP_WINDOW_MINUTES} phút, kiểm tra bằng
+ * hai bloom filter luân phiên (thế hệ hiện tại và thế hệ trước); tỉ lệ bỏ sót lượt xem thật khoảng 1%.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PropertyViewCounter {
+    private static final long FLUSH_INTERVAL_MS = 10_000;
+    private static final long DEDUP_WINDOW_MINUTES = 30;
+    // Khoảng 1,2 MB mỗi filter, đủ cho 1 triệu lượt xem khác nhau trong một khoảng với tỉ lệ trùng giả 1%
+    private static final int BLOOM_BITS = 1 << 23;
+    private static final int BLOOM_HASHES = 7;
+
+    private static final String UPSERT_VIEWS = "INSERT INTO property_view (property_id, view_count) " +
+            "SELECT p.property_id, ? FROM property p WHERE p.property_id = ? " +
+            "ON DUPLICATE KEY UPDATE view_count = property_view.view_count + ?";
+    private static final String SELECT_OWNER_VIEWS = "SELECT r.property_id, r.title, COALESCE(v.view_count, 0) AS view_count " +
+            "FROM property_read r LEFT JOIN property_view v ON v.property_id = r.property_id " +
+            "WHERE r.owner_email = ? ORDER BY r.property_id";
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private volatile BloomFilter currentViewers = new BloomFilter();
+    private volatile BloomFilter previousViewers = new BloomFilter();
+    private volatile long windowStart = System.currentTimeMillis();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ghi nhận một lượt xem, bỏ qua nếu người xem đã xem bất động sản này trong khoảng gần đây.
+     *
+     * @param viewer Email nếu đã đăng nhập, ngược lại là địa chỉ IP
+     */
+    public void record(Long propertyId, String viewer) {
+        if (propertyId == null) {
+            return;
+        }
+        if (viewer != null) {
+            String key = propertyId + ":" + viewer;
+            if (previousViewers.mightContain(key) || !currentViewers.put(key)) {
+                return;
+            }
+        }
+        // Cộng trong compute để không rơi vào adder vừa bị flush gỡ khỏi map
+        pending.compute(propertyId, (id, adder) -> {
+            LongAdder counter = adder != null ? adder : new LongAdder();
+            counter.increment();
+            return counter;
+        });
+    }
+
+    /**
+     * Lượt xem của các bất động sản của một chủ nhà, gồm cả phần chưa ghi xuống DB.
+     */
+    public List<PropertyViewCountResponse> ownerViewCounts(String email) {
+        return jdbcTemplate.query(SELECT_OWNER_VIEWS, (rs, rowNum) -> {
+            long propertyId = rs.getLong("property_id");
+            return PropertyViewCountResponse.builder()
+                    .propertyId(propertyId)
+                    .title(rs.getString("title"))
+                    .viewCount(rs.getLong("view_count") + pendingCount(propertyId))
+                    .build();
+        }, email);
+    }
+
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public void flush() {
+        rotateViewers();
+
+        List<Object[]> rows = new ArrayList<>();
+        pending.forEach((propertyId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                rows.add(new Object[]{delta, propertyId, delta});
+            }
+            // Gỡ entry đã hết lượt xem chờ ghi, map chỉ giữ các bất động sản vừa được xem
+            pending.computeIfPresent(propertyId, (id, counter) -> counter.sum() == 0 ? null : counter);
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_VIEWS, rows);
+        } catch (Exception e) {
+            // Trả lại phần chênh lệch để lần sau ghi tiếp
+            log.warn("Cannot flush view counts of {} properties: {}", rows.size(), e.getMessage());
+            rows.forEach(row -> pending.compute((Long) row[1], (id, adder) -> {
+                LongAdder counter = adder != null ? adder : new LongAdder();
+                counter.add((Long) row[0]);
+                return counter;
+            }));
+        }
+    }
+
+    private long pendingCount(Long propertyId) {
+        LongAdder adder = pending.get(propertyId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private void rotateViewers() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= DEDUP_WINDOW_MINUTES * 60_000) {
+            previousViewers = currentViewers;
+            currentViewers = new BloomFilter();
+            windowStart = now;
+        }
+    }
+
+    /**
+     * Bloom filter trên mảng bit dùng chung giữa các luồng, vị trí bit theo kỹ thuật double hashing.
+     */
+    private static class BloomFilter {
+        private final AtomicLongArray bits = new AtomicLongArray(BLOOM_BITS / Long.SIZE);
+
+        boolean mightContain(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int index = index(hash1 + i * hash2);
+                if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return {@code true} nếu có ít nhất một bit mới được bật, tức key chắc chắn chưa có trước đó
+         */
+        boolean put(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1);
+            boolean changed = false;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int index = index(hash1 + i * hash2);
+                long mask = 1L << index;
+                long previous = bits.getAndAccumulate(index >>> 6, mask, (current, bit) -> current | bit);
+                changed |= (previous & mask) == 0;
+            }
+            return changed;
+        }
+
+        private static int index(long hash) {
+            return (int) ((hash & Long.MAX_VALUE) % BLOOM_BITS);
+        }
+
+        // FNV-1a 64 bit
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        // Bước trộn của SplitMix64
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return value ^ (value >>> 31);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.kir.homerentalsystem.dto.response.AmenityResponse;
 import com.kir.homerentalsystem.mapper.AmenityMapper;
 import com.kir.homerentalsystem.repository.AmenityRepository;
 import com.kir.homerentalsystem.service.AmenityService;
+import com.kir.homerentalsystem.service.cache.CatalogVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +17,7 @@ import java.util.stream.Collectors;
 public class AmenityServiceImpl implements AmenityService {
     private final AmenityRepository amenityRepository;
     private final AmenityMapper amenityMapper;
+    private final CatalogVersion catalogVersion;
 
     @Override
     public List<AmenityResponse> getAll() {
@@ -23,4 +25,9 @@ public class AmenityServiceImpl implements AmenityService {
                 .stream().map(amenityMapper::toAmenityResponse).toList();
         return amenityResponses.isEmpty() ? new ArrayList<>() : amenityResponses;
     }
+
+    @Override
+    public String getCatalogETag() {
+        return catalogVersion.eTag(CatalogVersion.Catalog.AMENITY);
+    }
 }
@@ -7,6 +7,7 @@ import com.kir.homerentalsystem.entity.PropertyCategory;
 import com.kir.homerentalsystem.repository.CategoryAttributeRepository;
 import com.kir.homerentalsystem.repository.PropertyCategoryRepository;
 import com.kir.homerentalsystem.service.CategoryService;
+import com.kir.homerentalsystem.service.cache.CatalogVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +19,12 @@ import java.util.List;
 public class CategoryServiceImpl implements CategoryService {
     private final PropertyCategoryRepository propertyCategoryRepository;
     private final CategoryAttributeRepository categoryAttributeRepository;
+    private final CatalogVersion catalogVersion;
+
+    @Override
+    public String getCatalogETag() {
+        return catalogVersion.eTag(CatalogVersion.Catalog.CATEGORY);
+    }
 
     @Override
     public List<CategoryResponse> findAll() {
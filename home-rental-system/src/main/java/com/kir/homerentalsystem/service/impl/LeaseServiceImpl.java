@@ -11,17 +11,21 @@ import com.kir.homerentalsystem.entity.Lease;
 import com.kir.homerentalsystem.entity.Notification;
 import com.kir.homerentalsystem.entity.Property;
 import com.kir.homerentalsystem.entity.Tenant;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
 import com.kir.homerentalsystem.exception.AppException;
 import com.kir.homerentalsystem.exception.ErrorCode;
 import com.kir.homerentalsystem.mapper.LeaseMapper;
 import com.kir.homerentalsystem.mapper.NotificationMapper;
 import com.kir.homerentalsystem.repository.*;
 import com.kir.homerentalsystem.service.LeaseService;
+import com.kir.homerentalsystem.service.cache.OwnerStatisticsCounter;
+import com.kir.homerentalsystem.service.index.LeaseCalendar;
 import com.kir.homerentalsystem.util.AuthUtil;
 import com.kir.homerentalsystem.util.TimeUtil;
 import com.kir.homerentalsystem.util.WordUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -48,6 +52,12 @@ public class LeaseServiceImpl implements LeaseService {
     private final AccountRepository accountRepository;
     private final NotificationRepository notificationRepository;
     private final NotificationMapper notificationMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OwnerStatisticsCounter ownerStatisticsCounter;
+    private final LeaseCalendar leaseCalendar;
+
+    private static final List<String> BOOKED_STATUSES = List.of(
+            LeaseStatus.PENDING.name(), LeaseStatus.PREBOOKED.name(), LeaseStatus.ACTIVE.name());
 
     /**
      * Kiểm tra xem tài sản có thể được đặt trước để thuê từ một ngày cụ thể không
@@ -94,26 +104,20 @@ public class LeaseServiceImpl implements LeaseService {
         return false;
     }
 
-    public boolean checkLeaseCreationConditions(Optional<Lease> lease, LocalDate startDate, LocalDate endDate){
-        if(lease.isPresent()){
-            Lease currentLease = lease.get();
-            int lastMonthLeaseCurrentEnd = currentLease.getEndDate().getMonthValue();
-            boolean isLastMonth = lastMonthLeaseCurrentEnd == LocalDate.now().getMonthValue()
-                    && currentLease.getEndDate().getYear() == LocalDate.now().getYear();
-
-            long daysLeft = ChronoUnit.DAYS.between(LocalDate.now(), currentLease.getEndDate());
-            boolean is15daysLeft = daysLeft > 0 && daysLeft <= 15;
-
-            boolean isStartDateAfterCurrentEndDate = startDate.isAfter(currentLease.getEndDate());
-
-            return isLastMonth && is15daysLeft && isStartDateAfterCurrentEndDate;
-        }
-        return true;
+    /**
+     * Hợp đồng mới là gia hạn của hợp đồng đang hiệu lực nếu bắt đầu ngay sau ngày kết thúc
+     * và hiện đang ở tháng cuối, còn không quá 15 ngày. Đặt trước xa hơn không đổi trạng thái hợp đồng hiện tại.
+     */
+    private boolean isRenewal(Lease currentLease, LocalDate startDate) {
+        LocalDate now = LocalDate.now();
+        LocalDate currentEnd = currentLease.getEndDate();
+        boolean isLastMonth = currentEnd.getMonthValue() == now.getMonthValue() && currentEnd.getYear() == now.getYear();
+        long daysLeft = ChronoUnit.DAYS.between(now, currentEnd);
+        return isLastMonth && daysLeft > 0 && daysLeft <= 15 && startDate.equals(currentEnd.plusDays(1));
     }
 
-
-
     @Override
+    @Transactional
     public LeaseResponse createLease(LeaseCreationRequest request) {
         String email = AuthUtil.getEmailFromToken();
         Tenant tenant = tenantRepository.findByAccount_Email(email)
@@ -123,25 +127,35 @@ public class LeaseServiceImpl implements LeaseService {
         LocalDate startDate = TimeUtil.getFirstDateOfMonth(request.getStartMonth());
         LocalDate endDate = TimeUtil.getLastDateOfMonth(request.getEndMonth());
 
-        //Kiem tra prop co ton tai khong
-        Property property = propertyRepository.findById(request.getPropertyId())
-                .orElseThrow(() -> new AppException(ErrorCode.PROPERTY_NOT_EXISTED));
+        if (endDate.isBefore(startDate)) {
+            throw new AppException(ErrorCode.TIME_FORMAT_INVALID);
+        }
 
-        Optional<Lease> lease1 = leaseRepository.findByProperty_PropertyIdAndStatus(property.getPropertyId(), LeaseStatus.PREBOOKED.name());
-        if(lease1.isPresent()){
+        //Loc nhanh bang lich trong bo nho, tranh khoa dong khi chac chan bi trung
+        if (leaseCalendar.isBooked(request.getPropertyId(), startDate, endDate)) {
             throw new AppException(ErrorCode.LEASE_EXISTED);
         }
 
-        //Kiem tra xem prop co trong hop dong nao khong
-        Optional<Lease> lease = leaseRepository.findByProperty_PropertyIdAndStatus(request.getPropertyId(), LeaseStatus.ACTIVE.name());
-        if(!checkLeaseCreationConditions(lease, startDate, endDate)){
-            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        //Kiem tra prop co ton tai khong, khoa dong property de cac yeu cau thue dong thoi chay tuan tu
+        Property property = propertyRepository.findForUpdateByPropertyId(request.getPropertyId())
+                .orElseThrow(() -> new AppException(ErrorCode.PROPERTY_NOT_EXISTED));
+
+        //Kiem tra chinh thuc tren DB trong cung giao dich: lich co the chua dong bo giua cac instance
+        if (leaseRepository.existsByProperty_PropertyIdAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
+                property.getPropertyId(), BOOKED_STATUSES, endDate, startDate)) {
+            throw new AppException(ErrorCode.LEASE_EXISTED);
         }
 
-        if(lease.isPresent()){
+        String ownerEmail = property.getOwner().getAccount().getEmail();
+
+        //Gia han: hop dong moi noi ngay sau hop dong dang hieu luc trong 15 ngay cuoi -> danh dau hop dong hien tai da duoc dat truoc
+        Optional<Lease> lease = leaseRepository.findByProperty_PropertyIdAndStatus(property.getPropertyId(), LeaseStatus.ACTIVE.name());
+        if (lease.isPresent() && isRenewal(lease.get(), startDate)) {
             Lease currentLease = lease.get();
+            ownerStatisticsCounter.leaseStatusChanged(ownerEmail, currentLease.getStatus(), LeaseStatus.PREBOOKED.name());
             currentLease.setStatus(LeaseStatus.PREBOOKED.name());
             leaseRepository.save(currentLease);
+            leaseCalendar.refreshAfterCommit(currentLease);
         }
 
         Lease newLease = new Lease();
@@ -154,10 +168,17 @@ public class LeaseServiceImpl implements LeaseService {
         newLease.setStatus(LeaseStatus.PENDING.name());
 
         leaseRepository.save(newLease);
+        leaseCalendar.refreshAfterCommit(newLease);
+        ownerStatisticsCounter.leaseStatusChanged(ownerEmail, null, newLease.getStatus());
         log.info("Creating lease: {}", newLease);
 
-        property.setIsAvailable(false);
-        propertyRepository.save(property);
+        //Chi danh dau het trong khi hop dong bao phu ngay hien tai; dat truoc cho tuong lai khong khoa tin dang
+        if (!startDate.isAfter(LocalDate.now())) {
+            ownerStatisticsCounter.availabilityChanged(ownerEmail, property.getIsAvailable(), false);
+            property.setIsAvailable(false);
+            propertyRepository.save(property);
+            eventPublisher.publishEvent(PropertyChangedEvent.updated(property));
+        }
 
         Notification notification = Notification.builder()
                 .account(property.getOwner().getAccount())
@@ -253,9 +274,11 @@ public class LeaseServiceImpl implements LeaseService {
             throw new AppException(ErrorCode.UNAUTHENTICATED);
         }
 
+        ownerStatisticsCounter.leaseStatusChanged(email, lease.getStatus(), status.name());
         lease.setStatus(status.name());
         log.info("Updating lease status: {}", lease);
         leaseRepository.save(lease);
+        leaseCalendar.refreshAfterCommit(lease);
         log.info("Lease status updated.");
     }
 
@@ -268,12 +291,25 @@ public class LeaseServiceImpl implements LeaseService {
     }
 
     @Override
+    @Transactional
     @Scheduled(cron = "0 35 10 * * *")
     public void activePrebookedLease() {
         List<Lease> leases = leaseRepository.findAllByStatusAndStartDate("PREBOOKED", LocalDate.now());
         if (!leases.isEmpty()) {
             leases.forEach(lease -> {
+                Property property = lease.getProperty();
+                String ownerEmail = property.getOwner().getAccount().getEmail();
+                ownerStatisticsCounter.leaseStatusChanged(ownerEmail, lease.getStatus(), LeaseStatus.ACTIVE.name());
                 lease.setStatus(LeaseStatus.ACTIVE.name());
+                leaseCalendar.refreshAfterCommit(lease);
+
+                //Hop dong bat dau hieu luc: bat dong san het trong
+                if (!Boolean.FALSE.equals(property.getIsAvailable())) {
+                    ownerStatisticsCounter.availabilityChanged(ownerEmail, property.getIsAvailable(), false);
+                    property.setIsAvailable(false);
+                    propertyRepository.save(property);
+                    eventPublisher.publishEvent(PropertyChangedEvent.updated(property));
+                }
                 log.info("Lease {} has been active.", lease.getLeaseId());
             });
         }
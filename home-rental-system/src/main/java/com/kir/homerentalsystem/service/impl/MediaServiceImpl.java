@@ -6,16 +6,32 @@ import com.kir.homerentalsystem.exception.AppException;
 import com.kir.homerentalsystem.exception.ErrorCode;
 import com.kir.homerentalsystem.service.MediaService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class MediaServiceImpl implements MediaService {
+    // Số file tối đa được upload đồng thời trong một request
+    private static final int MAX_CONCURRENT_UPLOADS = 4;
+    // Giới hạn số public id trong một lần gọi xóa của Admin API
+    private static final int MAX_DELETE_BATCH = 100;
+    // Trạng thái của từng public id trong kết quả deleteResources
+    private static final String DELETED = "deleted";
+    private static final String NOT_FOUND = "not_found";
+
     private final Cloudinary cloudinary;
 
     @Override
@@ -41,4 +57,90 @@ public class MediaServiceImpl implements MediaService {
             throw new AppException(ErrorCode.CAN_NOT_SAVE_FILE);
         }
     }
+
+    /**
+     * Upload song song trên virtual thread, giới hạn {@value #MAX_CONCURRENT_UPLOADS} file cùng lúc.
+     * Nếu một file lỗi, các file còn lại bị hủy và những file đã upload xong sẽ bị xóa khỏi Cloudinary.
+     *
+     * @return Danh sách URL theo đúng thứ tự của {@code files}
+     */
+    @Override
+    public List<String> uploadImagesConcurrently(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            return List.of();
+        }
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_UPLOADS);
+        List<String> uploaded = Collections.synchronizedList(new ArrayList<>());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> futures = files.stream()
+                    .map(file -> executor.submit(() -> {
+                        permits.acquire();
+                        try {
+                            String url = uploadImage(file);
+                            uploaded.add(url);
+                            return url;
+                        } finally {
+                            permits.release();
+                        }
+                    }))
+                    .toList();
+
+            List<String> urls = new ArrayList<>(files.size());
+            try {
+                for (Future<String> future : futures) {
+                    urls.add(future.get());
+                }
+                return urls;
+            } catch (InterruptedException | ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        // Executor đã đóng nên mọi upload đang chạy đều đã kết thúc, danh sách uploaded là đầy đủ
+        deleteImages(List.copyOf(uploaded));
+        throw new AppException(ErrorCode.CAN_NOT_SAVE_FILE);
+    }
+
+    /**
+     * Xóa ảnh theo lô bằng Admin API, tối đa {@value #MAX_DELETE_BATCH} ảnh mỗi lần gọi.
+     * Ảnh không còn tồn tại trên Cloudinary được coi là đã xóa.
+     *
+     * @return Các URL chưa xóa được, rỗng nếu tất cả đã xóa
+     */
+    @Override
+    public List<String> deleteImages(List<String> urls) {
+        if (urls == null || urls.isEmpty()) {
+            return List.of();
+        }
+        List<String> failed = new ArrayList<>();
+        for (int from = 0; from < urls.size(); from += MAX_DELETE_BATCH) {
+            List<String> batch = urls.subList(from, Math.min(from + MAX_DELETE_BATCH, urls.size()));
+            List<String> publicIds = batch.stream().map(MediaServiceImpl::publicIdOf).toList();
+            Map<?, ?> deleted;
+            try {
+                deleted = (Map<?, ?>) cloudinary.api().deleteResources(publicIds, Map.of("invalidate", true))
+                        .get("deleted");
+            } catch (Exception e) {
+                log.warn("Cannot delete images {}: {}", publicIds, e.getMessage());
+                failed.addAll(batch);
+                continue;
+            }
+            // Kết quả trả về theo từng public id, một lô có thể chỉ xóa được một phần
+            for (int i = 0; i < batch.size(); i++) {
+                Object status = deleted != null ? deleted.get(publicIds.get(i)) : null;
+                if (!DELETED.equals(status) && !NOT_FOUND.equals(status)) {
+                    log.warn("Cannot delete image {}: {}", publicIds.get(i), status);
+                    failed.add(batch.get(i));
+                }
+            }
+        }
+        return failed;
+    }
+
+    private static String publicIdOf(String url) {
+        String[] segments = url.split("/");
+        return segments[segments.length - 1].split("\\.")[0];
+    }
 }
@@ -9,10 +9,12 @@ import com.kir.homerentalsystem.exception.ErrorCode;
 import com.kir.homerentalsystem.repository.OwnerRepository;
 import com.kir.homerentalsystem.repository.PropertyRepository;
 import com.kir.homerentalsystem.service.OwnerService;
+import com.kir.homerentalsystem.service.cache.OwnerStatisticsCounter;
 import com.kir.homerentalsystem.util.AuthUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.EnumUtils;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -21,6 +23,7 @@ import org.springframework.stereotype.Service;
 public class OwnerServiceImpl implements OwnerService {
     private final OwnerRepository ownerRepository;
     private final PropertyRepository propertyRepository;
+    private final OwnerStatisticsCounter ownerStatisticsCounter;
 
     @Override
     public void verifyOwner(VerifyOwnerRequest request) {
@@ -36,18 +39,18 @@ public class OwnerServiceImpl implements OwnerService {
         ownerRepository.save(owner);
     }
 
+    @Override
     public StatisticsResponse getStatistics() {
         String email = AuthUtil.getEmailFromToken();
+        return ownerStatisticsCounter.get(email);
+    }
 
-        StatisticsResponse statisticsResponse = new StatisticsResponse();
-
-        int rentedPropertyCount = propertyRepository.countPropertiesByIsAvailableAndOwner_Account_Email(false, email);
-        int availablePropertyCount = propertyRepository.countPropertiesByIsAvailableAndOwner_Account_Email(true, email);
-
-        statisticsResponse.setRentedPropertyCount(rentedPropertyCount);
-        statisticsResponse.setAvailablePropertyCount(availablePropertyCount);
-        statisticsResponse.setTotalPropertyCount(rentedPropertyCount + availablePropertyCount);
-
-        return statisticsResponse;
+    /**
+     * Sửa sai lệch của các bộ đếm trong Redis (cập nhật bị lỡ khi Redis lỗi, dữ liệu sửa trực tiếp trong DB...).
+     */
+    @Override
+    @Scheduled(cron = "0 0 3 * * *")
+    public void reconcileStatistics() {
+        ownerStatisticsCounter.reconcileAll();
     }
 }
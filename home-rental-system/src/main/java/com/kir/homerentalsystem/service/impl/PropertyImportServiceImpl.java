@@ -0,0 +1,492 @@
+package com.kir.homerentalsystem.service.impl;
+
+import com.kir.homerentalsystem.dto.response.ImportRowError;
+import com.kir.homerentalsystem.dto.response.PropertyImportResponse;
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.CategoryAttribute;
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Owner;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyAttribute;
+import com.kir.homerentalsystem.entity.PropertyCategory;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import com.kir.homerentalsystem.exception.AppException;
+import com.kir.homerentalsystem.exception.ErrorCode;
+import com.kir.homerentalsystem.repository.AmenityRepository;
+import com.kir.homerentalsystem.repository.CategoryAttributeRepository;
+import com.kir.homerentalsystem.repository.OwnerRepository;
+import com.kir.homerentalsystem.repository.PropertyCategoryRepository;
+import com.kir.homerentalsystem.service.PropertyImportService;
+import com.kir.homerentalsystem.service.PropertyService;
+import com.kir.homerentalsystem.service.cache.LocationRegistry;
+import com.kir.homerentalsystem.service.cache.OwnerStatisticsCounter;
+import com.kir.homerentalsystem.util.AuthUtil;
+import com.kir.homerentalsystem.util.TextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Nhập hàng loạt bất động sản từ file .xlsx.
+ * <p>
+ * File được đọc tuần tự bằng SAX (không dựng toàn bộ workbook trong bộ nhớ). Dòng đầu tiên là tiêu đề cột:
+ * {@code title, description, pricePerMonth, securityDeposit, categoryId, city, district, ward, country,
+ * latitude, longitude, amenityIds}; các cột còn lại được hiểu là tên thuộc tính của danh mục (ví dụ "Số phòng ngủ").
+ * Các dòng hợp lệ được ghi theo lô {@value #BATCH_SIZE} dòng bằng JDBC batch, mỗi lô một transaction;
+ * dòng lỗi được bỏ qua và trả về kèm số dòng và lý do.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PropertyImportServiceImpl implements PropertyImportService {
+    private static final int BATCH_SIZE = 200;
+    private static final String DEFAULT_COUNTRY = "Việt Nam";
+
+    private static final String INSERT_PROPERTY = "INSERT INTO property " +
+            "(owner_id, category_id, location_id, latitude, longitude, title, description, address, price_per_month, " +
+            "security_deposit, is_available, is_featured) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, FALSE)";
+    private static final String INSERT_ATTRIBUTE_VALUE = "INSERT INTO property_attribute_value " +
+            "(property_id, attribute_id, value) VALUES (?, ?, ?)";
+    private static final String INSERT_AMENITY_LINK = "INSERT INTO property_amenity " +
+            "(property_id, amenity_id) VALUES (?, ?)";
+
+    private final OwnerRepository ownerRepository;
+    private final PropertyCategoryRepository propertyCategoryRepository;
+    private final CategoryAttributeRepository categoryAttributeRepository;
+    private final AmenityRepository amenityRepository;
+    private final PropertyService propertyService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OwnerStatisticsCounter ownerStatisticsCounter;
+    private final LocationRegistry locationRegistry;
+
+    @Override
+    public PropertyImportResponse importProperties(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new AppException(ErrorCode.FILE_NOT_EXISTED);
+        }
+        String email = AuthUtil.getEmailFromToken();
+        Owner owner = ownerRepository.findByAccount_Email(email)
+                .orElseThrow(() -> new AppException(ErrorCode.OWNER_NOT_EXISTED));
+        propertyService.validateOwnerStatus(owner);
+
+        ImportContext context = new ImportContext(owner.getOwnerId(), loadCatalog());
+        Path tempFile = null;
+        try {
+            // OPCPackage đọc từ file chỉ mở các phần cần thiết của zip, đọc từ InputStream sẽ nạp toàn bộ vào bộ nhớ
+            tempFile = Files.createTempFile("property-import-", ".xlsx");
+            file.transferTo(tempFile);
+            try (OPCPackage pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null,
+                        new ReadOnlySharedStringsTable(pkg), new RowHandler(context), new RawValueFormatter(), false));
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    throw new AppException(ErrorCode.IMPORT_FILE_INVALID);
+                }
+                try (InputStream sheet = sheets.next()) {
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+            context.flush();
+        } catch (AppException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Cannot read import file {}", file.getOriginalFilename(), e);
+            throw new AppException(ErrorCode.IMPORT_FILE_INVALID);
+        } finally {
+            deleteQuietly(tempFile);
+            // Các lô đã commit vẫn được tính kể cả khi lô sau bị lỗi
+            ownerStatisticsCounter.propertiesCreated(email, context.propertyIds.size());
+        }
+
+        log.info("Imported {}/{} properties for owner {}", context.propertyIds.size(), context.totalRows, email);
+        context.errors.sort(Comparator.comparingInt(ImportRowError::getRow));
+        return PropertyImportResponse.builder()
+                .totalRows(context.totalRows)
+                .importedRows(context.propertyIds.size())
+                .propertyIds(context.propertyIds)
+                .errors(context.errors)
+                .build();
+    }
+
+    /**
+     * Nạp một lần danh mục, thuộc tính của từng danh mục và tiện ích để kiểm tra các dòng mà không truy vấn lại DB.
+     */
+    private Catalog loadCatalog() {
+        Map<Long, Map<String, CategoryAttribute>> categoryAttributes = new HashMap<>();
+        for (PropertyCategory category : propertyCategoryRepository.findAll()) {
+            categoryAttributes.put(category.getCategoryId(), new HashMap<>());
+        }
+        for (CategoryAttribute categoryAttribute : categoryAttributeRepository.findAll()) {
+            categoryAttributes.computeIfAbsent(categoryAttribute.getCategory().getCategoryId(), k -> new HashMap<>())
+                    .put(TextUtil.fold(categoryAttribute.getAttribute().getName()).trim(), categoryAttribute);
+        }
+        Set<Long> amenityIds = amenityRepository.findAll().stream()
+                .map(Amenity::getAmenityId)
+                .collect(Collectors.toSet());
+        return new Catalog(categoryAttributes, amenityIds);
+    }
+
+    private ImportRow parseRow(int rowNumber, Map<String, String> cells, Catalog catalog) {
+        ImportRow row = new ImportRow(rowNumber);
+        row.title = required(cells, "title");
+        row.description = cells.get("description");
+        row.pricePerMonth = positiveDecimal(required(cells, "pricePerMonth"), "pricePerMonth");
+        row.securityDeposit = cells.containsKey("securityDeposit")
+                ? positiveDecimal(cells.get("securityDeposit"), "securityDeposit") : null;
+        row.categoryId = parseLong(required(cells, "categoryId"), "categoryId");
+        row.city = required(cells, "city");
+        row.district = required(cells, "district");
+        row.ward = required(cells, "ward");
+        row.country = cells.getOrDefault("country", DEFAULT_COUNTRY);
+        row.latitude = cells.containsKey("latitude") ? decimal(cells.get("latitude"), "latitude") : null;
+        row.longitude = cells.containsKey("longitude") ? decimal(cells.get("longitude"), "longitude") : null;
+
+        Map<String, CategoryAttribute> attributes = catalog.categoryAttributes().get(row.categoryId);
+        if (attributes == null) {
+            throw new IllegalArgumentException("Danh mục " + row.categoryId + " không tồn tại");
+        }
+
+        if (cells.containsKey("amenityIds")) {
+            for (String part : cells.get("amenityIds").split("[,;\\s]+")) {
+                if (part.isEmpty()) {
+                    continue;
+                }
+                Long amenityId = parseLong(part, "amenityIds");
+                if (!catalog.amenityIds().contains(amenityId)) {
+                    throw new IllegalArgumentException("Tiện ích " + amenityId + " không tồn tại");
+                }
+                row.amenityIds.add(amenityId);
+            }
+        }
+
+        cells.forEach((header, value) -> {
+            if (ImportContext.FIXED_COLUMNS.contains(header)) {
+                return;
+            }
+            CategoryAttribute categoryAttribute = attributes.get(TextUtil.fold(header).trim());
+            if (categoryAttribute == null) {
+                throw new IllegalArgumentException("Thuộc tính \"" + header + "\" không thuộc danh mục " + row.categoryId);
+            }
+            PropertyAttribute attribute = categoryAttribute.getAttribute();
+            row.attributeValues.put(attribute.getId(), validateAttributeValue(attribute, value));
+        });
+        for (CategoryAttribute categoryAttribute : attributes.values()) {
+            Long attributeId = categoryAttribute.getAttribute().getId();
+            if (row.attributeValues.containsKey(attributeId)) {
+                continue;
+            }
+            if (categoryAttribute.getDefaultValue() != null) {
+                row.attributeValues.put(attributeId, categoryAttribute.getDefaultValue());
+            } else if (Boolean.TRUE.equals(categoryAttribute.getIsRequired())) {
+                throw new IllegalArgumentException("Thiếu thuộc tính bắt buộc \"" + categoryAttribute.getAttribute().getName() + "\"");
+            }
+        }
+        return row;
+    }
+
+    private static String validateAttributeValue(PropertyAttribute attribute, String value) {
+        try {
+            switch (String.valueOf(attribute.getDataType())) {
+                case "NUMBER" -> new BigDecimal(value.replace(',', '.'));
+                case "DATE" -> LocalDate.parse(value);
+                case "BOOLEAN" -> {
+                    if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")
+                            && !value.equals("1") && !value.equals("0")) {
+                        throw new IllegalArgumentException();
+                    }
+                }
+                default -> {
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Giá trị \"" + value + "\" không hợp lệ cho thuộc tính \""
+                    + attribute.getName() + "\" (" + attribute.getDataType() + ")");
+        }
+        return value;
+    }
+
+    private static String required(Map<String, String> cells, String column) {
+        String value = cells.get(column);
+        if (value == null) {
+            throw new IllegalArgumentException("Thiếu giá trị cột " + column);
+        }
+        return value;
+    }
+
+    private static BigDecimal decimal(String value, String column) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cột " + column + " phải là số");
+        }
+    }
+
+    private static BigDecimal positiveDecimal(String value, String column) {
+        BigDecimal decimal = decimal(value, column);
+        if (decimal.signum() < 0) {
+            throw new IllegalArgumentException("Cột " + column + " không được âm");
+        }
+        return decimal;
+    }
+
+    private static Long parseLong(String value, String column) {
+        try {
+            return new BigDecimal(value).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cột " + column + " phải là số nguyên");
+        }
+    }
+
+    /**
+     * Ghi một lô dòng hợp lệ trong một transaction. Nếu lô bị lỗi ở DB, toàn bộ lô được rollback
+     * và mọi dòng trong lô được báo lỗi.
+     */
+    private List<Long> writeBatch(Long ownerId, List<ImportRow> rows) {
+        return transactionTemplate.execute(status -> {
+            // Các dòng cùng địa chỉ dùng chung một location, chỉ địa chỉ chưa có mới được ghi xuống DB
+            List<Long> locationIds = rows.stream()
+                    .map(row -> locationRegistry.intern(Location.builder()
+                                    .city(row.city)
+                                    .district(row.district)
+                                    .ward(row.ward)
+                                    .country(row.country)
+                                    .latitude(row.latitude)
+                                    .longitude(row.longitude)
+                                    .build())
+                            .getLocationId())
+                    .toList();
+
+            List<Object[]> propertyRows = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                ImportRow row = rows.get(i);
+                propertyRows.add(new Object[]{ownerId, row.categoryId, locationIds.get(i), row.latitude, row.longitude,
+                        row.title, row.description,
+                        String.format("%s, %s, %s, %s", row.ward, row.district, row.city, row.country),
+                        row.pricePerMonth, row.securityDeposit});
+            }
+            List<Long> propertyIds = insertReturningKeys(INSERT_PROPERTY, propertyRows);
+
+            List<Object[]> attributeValues = new ArrayList<>();
+            List<Object[]> amenityLinks = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                Long propertyId = propertyIds.get(i);
+                rows.get(i).attributeValues.forEach((attributeId, value) ->
+                        attributeValues.add(new Object[]{propertyId, attributeId, value}));
+                rows.get(i).amenityIds.forEach(amenityId ->
+                        amenityLinks.add(new Object[]{propertyId, amenityId}));
+            }
+            jdbcTemplate.batchUpdate(INSERT_ATTRIBUTE_VALUE, attributeValues);
+            jdbcTemplate.batchUpdate(INSERT_AMENITY_LINK, amenityLinks);
+
+            // Sự kiện được xử lý sau khi transaction commit, chỉ mục sẽ đọc lại bản ghi theo id
+            propertyIds.forEach(id -> eventPublisher.publishEvent(
+                    PropertyChangedEvent.created(Property.builder().propertyId(id).build())));
+            return propertyIds;
+        });
+    }
+
+    private List<Long> insertReturningKeys(String sql, List<Object[]> rows) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Object[] values = rows.get(i);
+                        for (int j = 0; j < values.length; j++) {
+                            ps.setObject(j + 1, values[j]);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keyHolder);
+        List<Long> keys = keyHolder.getKeyList().stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue())
+                .toList();
+        if (keys.size() != rows.size()) {
+            throw new IllegalStateException("Expected " + rows.size() + " generated keys but got " + keys.size());
+        }
+        return keys;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Cannot delete temp file {}", path);
+        }
+    }
+
+    private record Catalog(Map<Long, Map<String, CategoryAttribute>> categoryAttributes, Set<Long> amenityIds) {
+    }
+
+    private static class ImportRow {
+        final int rowNumber;
+        String title;
+        String description;
+        BigDecimal pricePerMonth;
+        BigDecimal securityDeposit;
+        Long categoryId;
+        String city;
+        String district;
+        String ward;
+        String country;
+        BigDecimal latitude;
+        BigDecimal longitude;
+        final Set<Long> amenityIds = new LinkedHashSet<>();
+        final Map<Long, String> attributeValues = new LinkedHashMap<>();
+
+        ImportRow(int rowNumber) {
+            this.rowNumber = rowNumber;
+        }
+    }
+
+    private class ImportContext {
+        static final Set<String> FIXED_COLUMNS = Set.of("title", "description", "pricePerMonth", "securityDeposit",
+                "categoryId", "city", "district", "ward", "country", "latitude", "longitude", "amenityIds");
+
+        final Long ownerId;
+        final Catalog catalog;
+        final List<ImportRow> batch = new ArrayList<>(BATCH_SIZE);
+        final List<Long> propertyIds = new ArrayList<>();
+        final List<ImportRowError> errors = new ArrayList<>();
+        int totalRows;
+
+        ImportContext(Long ownerId, Catalog catalog) {
+            this.ownerId = ownerId;
+            this.catalog = catalog;
+        }
+
+        void accept(int rowNumber, Map<String, String> cells) {
+            totalRows++;
+            try {
+                batch.add(parseRow(rowNumber, cells, catalog));
+            } catch (IllegalArgumentException e) {
+                errors.add(new ImportRowError(rowNumber, e.getMessage()));
+                return;
+            }
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                propertyIds.addAll(writeBatch(ownerId, batch));
+            } catch (RuntimeException e) {
+                log.error("Failed to write import batch of {} rows", batch.size(), e);
+                batch.forEach(row -> errors.add(new ImportRowError(row.rowNumber,
+                        "Không thể lưu dòng này: " + e.getMessage())));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Nhận từng ô từ SAX parser, gom thành một dòng theo tên cột của dòng tiêu đề.
+     */
+    private static class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final ImportContext context;
+        private final Map<Integer, String> headers = new HashMap<>();
+        private final Map<String, String> cells = new LinkedHashMap<>();
+        private boolean headerRead;
+
+        RowHandler(ImportContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (cells.isEmpty()) {
+                return;
+            }
+            if (!headerRead) {
+                headerRead = true;
+                return;
+            }
+            context.accept(rowNum + 1, new LinkedHashMap<>(cells));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (formattedValue == null || formattedValue.isBlank()) {
+                return;
+            }
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            String value = formattedValue.trim();
+            if (!headerRead) {
+                headers.put(column, value);
+                cells.put(value, value);
+                return;
+            }
+            String header = headers.get(column);
+            if (header != null) {
+                cells.put(header, value);
+            }
+        }
+    }
+
+    /**
+     * Trả về giá trị gốc của ô số thay vì chuỗi đã định dạng (tránh dấu phân cách hàng nghìn),
+     * ô ngày được chuyển về dạng ISO {@code yyyy-MM-dd}.
+     */
+    private static class RawValueFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
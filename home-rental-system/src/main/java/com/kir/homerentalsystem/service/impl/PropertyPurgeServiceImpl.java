@@ -0,0 +1,86 @@
+package com.kir.homerentalsystem.service.impl;
+
+import com.kir.homerentalsystem.service.MediaService;
+import com.kir.homerentalsystem.service.PropertyPurgeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Xóa hẳn các bất động sản đã bị xóa mềm: ảnh trên Cloudinary trước, sau đó dữ liệu liên quan theo từng lô nhỏ.
+ * Mỗi câu lệnh tự commit và đều có thể chạy lại, nên lỗi giữa chừng chỉ cần đợi lần chạy kế tiếp.
+ * <p>
+ * Dữ liệu tài chính không bao giờ bị xóa: {@code payment} và các hợp đồng chưa bị hủy (hoặc đã hủy nhưng có thanh toán)
+ * được giữ lại. Khi còn hợp đồng như vậy, dòng {@code property} cũng được giữ ở trạng thái xóa mềm làm bản lưu trữ
+ * và chỉ được đánh dấu {@code purged_at} để không bị quét lại.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PropertyPurgeServiceImpl implements PropertyPurgeService {
+    private static final int PROPERTIES_PER_RUN = 50;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private static final String SELECT_DELETED = "SELECT property_id FROM property " +
+            "WHERE deleted_at IS NOT NULL AND purged_at IS NULL ORDER BY deleted_at LIMIT ?";
+    private static final String SELECT_IMAGE_URLS = "SELECT image_url FROM property_image WHERE property_id = ?";
+
+    // Thứ tự xóa theo khóa ngoại: bảng con trước, bản ghi property cuối cùng
+    private static final List<String> PURGE_STATEMENTS = List.of(
+            "DELETE FROM lease WHERE property_id = ? AND status = 'CANCELLED' " +
+                    "AND NOT EXISTS (SELECT 1 FROM payment p WHERE p.lease_id = lease.lease_id) LIMIT ?",
+            "DELETE FROM maintenance_request WHERE property_id = ? LIMIT ?",
+            "DELETE FROM review WHERE property_id = ? LIMIT ?",
+            "DELETE FROM property_viewing WHERE property_id = ? LIMIT ?",
+            "DELETE FROM property_image WHERE property_id = ? LIMIT ?",
+            "DELETE FROM property_attribute_value WHERE property_id = ? LIMIT ?",
+            "DELETE FROM property_amenity WHERE property_id = ? LIMIT ?",
+            "DELETE FROM property WHERE property_id = ? AND deleted_at IS NOT NULL " +
+                    "AND NOT EXISTS (SELECT 1 FROM lease l WHERE l.property_id = property.property_id) LIMIT ?"
+    );
+    // Còn hợp đồng được giữ lại thì dòng property không xóa được; đánh dấu đã dọn để không quét lại
+    private static final String MARK_PURGED = "UPDATE property SET purged_at = CURRENT_TIMESTAMP " +
+            "WHERE property_id = ? AND deleted_at IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MediaService mediaService;
+
+    @Override
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void purgeDeletedProperties() {
+        List<Long> propertyIds = jdbcTemplate.queryForList(SELECT_DELETED, Long.class, PROPERTIES_PER_RUN);
+        for (Long propertyId : propertyIds) {
+            try {
+                purge(propertyId);
+            } catch (Exception e) {
+                log.warn("Cannot purge property {}, will retry: {}", propertyId, e.getMessage());
+            }
+        }
+    }
+
+    private void purge(Long propertyId) {
+        List<String> imageUrls = jdbcTemplate.queryForList(SELECT_IMAGE_URLS, String.class, propertyId);
+        List<String> failed = mediaService.deleteImages(imageUrls);
+        if (!failed.isEmpty()) {
+            // Giữ lại các dòng property_image để lần sau còn biết ảnh nào cần xóa
+            log.warn("{} images of property {} not deleted yet", failed.size(), propertyId);
+            return;
+        }
+
+        for (String statement : PURGE_STATEMENTS) {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(statement, propertyId, DELETE_CHUNK_SIZE);
+            } while (deleted == DELETE_CHUNK_SIZE);
+        }
+        if (jdbcTemplate.update(MARK_PURGED, propertyId) > 0) {
+            log.info("Property purged, leases and payments archived: {}", propertyId);
+            return;
+        }
+        log.info("Property purged: {}", propertyId);
+    }
+}
@@ -1,13 +1,26 @@
 package com.kir.homerentalsystem.service.impl;
 
-import com.cloudinary.Cloudinary;
+import com.kir.homerentalsystem.constant.AddressSuggestionType;
+import com.kir.homerentalsystem.constant.AttributeName;
 import com.kir.homerentalsystem.constant.LeaseStatus;
+import com.kir.homerentalsystem.constant.PropertySortKey;
 import com.kir.homerentalsystem.constant.VerificationStatus;
 import com.kir.homerentalsystem.dto.request.AmenityRequest;
+import com.kir.homerentalsystem.dto.request.PolygonSearchRequest;
 import com.kir.homerentalsystem.dto.request.PropertyCreationRequest;
+import com.kir.homerentalsystem.dto.request.PropertyFilterRequest;
 import com.kir.homerentalsystem.dto.request.PropertyImageRequest;
+import com.kir.homerentalsystem.dto.response.AddressSuggestionResponse;
+import com.kir.homerentalsystem.dto.response.CacheStatsResponse;
+import com.kir.homerentalsystem.dto.response.CursorPageResponse;
+import com.kir.homerentalsystem.dto.response.FacetResponse;
+import com.kir.homerentalsystem.dto.response.PriceHistogramBucket;
+import com.kir.homerentalsystem.dto.response.PriceStatisticsResponse;
+import com.kir.homerentalsystem.dto.response.PriceSuggestionResponse;
 import com.kir.homerentalsystem.dto.response.PropertyResponse;
+import com.kir.homerentalsystem.dto.response.PropertyViewCountResponse;
 import com.kir.homerentalsystem.entity.*;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
 import com.kir.homerentalsystem.exception.AppException;
 import com.kir.homerentalsystem.exception.ErrorCode;
 import com.kir.homerentalsystem.mapper.AmenityMapper;
@@ -15,27 +28,78 @@ import com.kir.homerentalsystem.mapper.PropertyMapper;
 import com.kir.homerentalsystem.repository.*;
 import com.kir.homerentalsystem.service.MediaService;
 import com.kir.homerentalsystem.service.PropertyService;
+import com.kir.homerentalsystem.service.cache.CatalogVersion;
+import com.kir.homerentalsystem.service.cache.LocationRegistry;
+import com.kir.homerentalsystem.service.cache.OwnerStatisticsCounter;
+import com.kir.homerentalsystem.service.cache.PropertyResponseCache;
+import com.kir.homerentalsystem.service.cache.PropertySearchCache;
+import com.kir.homerentalsystem.service.cache.PropertyViewCounter;
+import com.kir.homerentalsystem.service.index.AddressAutocompleteIndex;
+import com.kir.homerentalsystem.service.index.AttributePredicate;
+import com.kir.homerentalsystem.service.index.LeaseCalendar;
+import com.kir.homerentalsystem.service.index.PropertyAttributeIndex;
+import com.kir.homerentalsystem.service.index.PropertyBitmapIndex;
+import com.kir.homerentalsystem.service.index.PropertyFacetIndex;
+import com.kir.homerentalsystem.service.index.PropertyGeoIndex;
+import com.kir.homerentalsystem.service.index.PropertyPriceIndex;
+import com.kir.homerentalsystem.service.index.PropertyRankingIndex;
+import com.kir.homerentalsystem.service.index.PropertySimilarityIndex;
+import com.kir.homerentalsystem.service.index.PropertySortIndex;
+import com.kir.homerentalsystem.service.index.PropertyTextIndex;
+import com.kir.homerentalsystem.service.index.PropertyVersionIndex;
+import com.kir.homerentalsystem.service.projection.PropertyReadProjector;
 import com.kir.homerentalsystem.util.AuthUtil;
-import jakarta.persistence.criteria.Predicate;
+import com.kir.homerentalsystem.util.PropertyCursor;
+import com.tdunning.math.stats.TDigest;
+import jakarta.persistence.criteria.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PropertyServiceImpl implements PropertyService {
+    private static final double MAX_SEARCH_RADIUS_KM = 100;
+    private static final int EXPORT_FLUSH_SIZE = 500;
+    private static final String BEST_MATCH = "bestMatch";
+    private static final int MAX_HISTOGRAM_BUCKETS = 50;
+    private static final int MIN_PRICE_SAMPLES = 5;
+    private static final int MAX_SIMILAR_PROPERTIES = 50;
+    private static final String INSERT_AMENITY = "INSERT INTO amenity (name, description) VALUES (?, ?)";
+
     private final LocationRepository locationRepository;
+    private final LocationRegistry locationRegistry;
     private final OwnerRepository ownerRepository;
     private final PropertyCategoryRepository propertyCategoryRepository;
     private final PropertyRepository propertyRepository;
@@ -47,9 +111,29 @@ public class PropertyServiceImpl implements PropertyService {
     private final AmenityMapper amenityMapper;
     private final PropertyAttributeValueRepository propertyAttributeValueRepository;
     private final CategoryAttributeRepository categoryAttributeRepository;
-    private final PropertyAttributeRepository propertyAttributeRepository;
     private final LeaseRepository leaseRepository;
-    private final Cloudinary cloudinary;
+    private final PropertyTextIndex propertyTextIndex;
+    private final PropertyGeoIndex propertyGeoIndex;
+    private final PropertyAttributeIndex propertyAttributeIndex;
+    private final PropertyFacetIndex propertyFacetIndex;
+    private final PropertyBitmapIndex propertyBitmapIndex;
+    private final AddressAutocompleteIndex addressAutocompleteIndex;
+    private final PropertyRankingIndex propertyRankingIndex;
+    private final PropertySortIndex propertySortIndex;
+    private final PropertyPriceIndex propertyPriceIndex;
+    private final PropertySimilarityIndex propertySimilarityIndex;
+    private final LeaseCalendar leaseCalendar;
+    private final PropertyResponseCache propertyResponseCache;
+    private final PropertyReadRepository propertyReadRepository;
+    private final PropertyReadProjector propertyReadProjector;
+    private final PropertyVersionIndex propertyVersionIndex;
+    private final CatalogVersion catalogVersion;
+    private final OwnerStatisticsCounter ownerStatisticsCounter;
+    private final PropertyViewCounter propertyViewCounter;
+    private final PropertySearchCache propertySearchCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public Specification<Property> getSearchPropertiesForOwner(String title, String address,
@@ -76,20 +160,25 @@ public class PropertyServiceImpl implements PropertyService {
                 ));
             }
 
+            // Số phòng ngủ, số phòng tắm, diện tích được lưu dưới dạng giá trị thuộc tính
             if(bedrooms != null) {
-                predicates.add(criteriaBuilder.equal(root.get("bedrooms"), bedrooms));
+                predicates.add(attributeMatches(root, query, criteriaBuilder, AttributeName.BEDROOMS,
+                        value -> criteriaBuilder.equal(value, BigDecimal.valueOf(bedrooms))));
             }
 
             if(bathrooms != null) {
-                predicates.add(criteriaBuilder.equal(root.get("bathrooms"), bathrooms));
+                predicates.add(attributeMatches(root, query, criteriaBuilder, AttributeName.BATHROOMS,
+                        value -> criteriaBuilder.equal(value, BigDecimal.valueOf(bathrooms))));
             }
 
             if(minArea != null) {
-                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("area"), minArea));
+                predicates.add(attributeMatches(root, query, criteriaBuilder, AttributeName.AREA,
+                        value -> criteriaBuilder.greaterThanOrEqualTo(value, minArea)));
             }
 
             if(maxArea != null) {
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("area"), maxArea));
+                predicates.add(attributeMatches(root, query, criteriaBuilder, AttributeName.AREA,
+                        value -> criteriaBuilder.lessThanOrEqualTo(value, maxArea)));
             }
 
             if(minPrice != null) {
@@ -106,6 +195,260 @@ public class PropertyServiceImpl implements PropertyService {
         };
     }
 
+    private Predicate attributeMatches(Root<Property> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+                                       String attributeName, Function<Expression<BigDecimal>, Predicate> condition) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<PropertyAttributeValue> value = subquery.from(PropertyAttributeValue.class);
+        subquery.select(criteriaBuilder.literal(1L))
+                .where(criteriaBuilder.equal(value.get("property"), root),
+                        criteriaBuilder.equal(value.get("attribute").get("name"), attributeName),
+                        condition.apply(value.get("value").as(BigDecimal.class)));
+        return criteriaBuilder.exists(subquery);
+    }
+
+    @Override
+    public Page<PropertyResponse> searchPropertiesNearby(double latitude, double longitude, double radiusKm,
+                                                         PropertyFilterRequest filter, Pageable pageable) {
+        if (radiusKm <= 0 || radiusKm > MAX_SEARCH_RADIUS_KM) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        return findAmongCandidates(propertyGeoIndex.withinRadius(latitude, longitude, radiusKm), filter, pageable);
+    }
+
+    @Override
+    public Page<PropertyResponse> searchPropertiesInBoundingBox(double minLatitude, double minLongitude,
+                                                                double maxLatitude, double maxLongitude,
+                                                                PropertyFilterRequest filter, Pageable pageable) {
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        return findAmongCandidates(
+                propertyGeoIndex.withinBoundingBox(minLatitude, minLongitude, maxLatitude, maxLongitude),
+                filter, pageable);
+    }
+
+    @Override
+    public Page<PropertyResponse> searchPropertiesInPolygon(PolygonSearchRequest request, Pageable pageable) {
+        if (request.getPoints() == null || request.getPoints().size() < 3
+                || request.getPoints().stream().anyMatch(p -> p.getLatitude() == null || p.getLongitude() == null)) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        return findAmongCandidates(propertyGeoIndex.withinPolygon(request.getPoints()), request.getFilter(), pageable);
+    }
+
+    @Override
+    public Page<PropertyResponse> filterProperties(PropertyFilterRequest filter, Pageable pageable) {
+        return findAmongCandidates(null, filter, pageable);
+    }
+
+    @Override
+    public List<AddressSuggestionResponse> autocompleteAddress(String query, AddressSuggestionType type, int limit) {
+        if (limit <= 0 || limit > AddressAutocompleteIndex.TOP_K) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        return addressAutocompleteIndex.suggest(query, type, limit);
+    }
+
+    @Override
+    public PriceStatisticsResponse getPriceStatistics(String city, String district, Long categoryId,
+                                                      List<Double> percentiles) {
+        if (percentiles == null || percentiles.stream().anyMatch(p -> p == null || p < 0 || p > 1)) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        TDigest digest = propertyPriceIndex.digest(city, district, categoryId);
+        if (digest == null) {
+            return PriceStatisticsResponse.builder().count(0).percentiles(Map.of()).build();
+        }
+        Map<Double, BigDecimal> values = new LinkedHashMap<>();
+        percentiles.forEach(p -> values.put(p, toPrice(digest.quantile(p))));
+        return PriceStatisticsResponse.builder()
+                .count(digest.size())
+                .min(toPrice(digest.getMin()))
+                .max(toPrice(digest.getMax()))
+                .percentiles(values)
+                .build();
+    }
+
+    @Override
+    public List<PriceHistogramBucket> getPriceHistogram(String city, String district, Long categoryId, int buckets) {
+        if (buckets <= 0 || buckets > MAX_HISTOGRAM_BUCKETS) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        TDigest digest = propertyPriceIndex.digest(city, district, categoryId);
+        if (digest == null) {
+            return List.of();
+        }
+        double min = digest.getMin();
+        double width = (digest.getMax() - min) / buckets;
+        if (width == 0) {
+            return List.of(PriceHistogramBucket.builder()
+                    .from(toPrice(min)).to(toPrice(min)).count(digest.size()).build());
+        }
+
+        List<PriceHistogramBucket> histogram = new ArrayList<>(buckets);
+        double previousCdf = 0;
+        for (int i = 0; i < buckets; i++) {
+            double from = min + i * width;
+            double to = i == buckets - 1 ? digest.getMax() : from + width;
+            double cdf = i == buckets - 1 ? 1 : digest.cdf(to);
+            histogram.add(PriceHistogramBucket.builder()
+                    .from(toPrice(from))
+                    .to(toPrice(to))
+                    .count(Math.round(digest.size() * (cdf - previousCdf)))
+                    .build());
+            previousCdf = cdf;
+        }
+        return histogram;
+    }
+
+    @Override
+    public PriceSuggestionResponse suggestPrice(String city, String district, Long categoryId) {
+        // Quận có quá ít tin đăng thì mở rộng ra cả thành phố
+        TDigest digest = propertyPriceIndex.digest(city, district, categoryId);
+        if (digest == null || digest.size() < MIN_PRICE_SAMPLES) {
+            TDigest cityDigest = propertyPriceIndex.digest(city, null, categoryId);
+            if (cityDigest != null) {
+                digest = cityDigest;
+            }
+        }
+        if (digest == null) {
+            return PriceSuggestionResponse.builder().sampleSize(0).build();
+        }
+        return PriceSuggestionResponse.builder()
+                .sampleSize(digest.size())
+                .low(toPrice(digest.quantile(0.25)))
+                .median(toPrice(digest.quantile(0.5)))
+                .high(toPrice(digest.quantile(0.75)))
+                .build();
+    }
+
+    private static BigDecimal toPrice(double value) {
+        return BigDecimal.valueOf(value).setScale(0, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public FacetResponse getPropertyFacets(String keyword, PropertyFilterRequest filter) {
+        PropertyFilterRequest f = filter != null ? filter : new PropertyFilterRequest();
+        List<Long> candidateIds = keyword != null && !keyword.isBlank() ? propertyTextIndex.search(keyword) : null;
+        return propertyFacetIndex.count(resolveCandidates(candidateIds, f),
+                f.getMinPrice(), f.getMaxPrice(), f.getIsAvailable());
+    }
+
+    /**
+     * Áp dụng các bộ lọc lên tập id ứng viên lấy từ chỉ mục ({@code null} nghĩa là không giới hạn).
+     * Khi có tập ứng viên, lọc giá, sắp xếp và cắt trang đều làm trong bộ nhớ
+     * nên database chỉ nhận các id của trang hiện tại.
+     */
+    private Page<PropertyResponse> findAmongCandidates(List<Long> candidateIds, PropertyFilterRequest filter,
+                                                       Pageable pageable) {
+        PropertyFilterRequest f = filter != null ? filter : new PropertyFilterRequest();
+        List<Long> ids = resolveCandidates(candidateIds, f);
+        if (ids != null && ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        if (ids != null) {
+            return pageInMemory(ids, f, pageable);
+        }
+
+        Specification<PropertyRead> specification = (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (f.getMinPrice() != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("pricePerMonth"), f.getMinPrice()));
+            }
+            if (f.getMaxPrice() != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("pricePerMonth"), f.getMaxPrice()));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+
+        return propertyReadRepository.findAll(specification, pageable)
+                .map(propertyReadProjector::toResponse);
+    }
+
+    /**
+     * Lọc giá và sắp xếp tập ứng viên qua {@link PropertySortIndex}; không có sắp xếp thì giữ nguyên thứ tự
+     * của tập ứng viên (ví dụ gần nhất trước khi tìm theo bán kính). Chỉ các id của trang được tải từ database.
+     */
+    private Page<PropertyResponse> pageInMemory(List<Long> ids, PropertyFilterRequest f, Pageable pageable) {
+        List<Long> ordered = propertySortIndex.sort(
+                propertySortIndex.filterByPrice(ids, f.getMinPrice(), f.getMaxPrice()), pageable.getSort());
+        int from = (int) Math.min(pageable.getOffset(), ordered.size());
+        int to = Math.min(from + pageable.getPageSize(), ordered.size());
+        return new PageImpl<>(loadInOrder(ordered.subList(from, to)), pageable, ordered.size());
+    }
+
+    /**
+     * Lọc tập ứng viên trên các chỉ mục: tiện ích, loại, trạng thái và lịch cho thuê qua {@link PropertyBitmapIndex}
+     * và {@link LeaseCalendar}, sau đó các điều kiện thuộc tính qua {@link PropertyAttributeIndex}.
+     *
+     * @return {@code null} nếu không có ứng viên giới hạn và không có điều kiện nào
+     */
+    private List<Long> resolveCandidates(List<Long> candidateIds, PropertyFilterRequest f) {
+        RoaringBitmap booked = null;
+        if (f.getAvailableFrom() != null || f.getAvailableTo() != null) {
+            // Chỉ truyền một đầu thì hiểu là còn trống trong đúng ngày đó
+            LocalDate from = f.getAvailableFrom() != null ? f.getAvailableFrom() : f.getAvailableTo();
+            LocalDate to = f.getAvailableTo() != null ? f.getAvailableTo() : f.getAvailableFrom();
+            if (to.isBefore(from)) {
+                throw new AppException(ErrorCode.TIME_FORMAT_INVALID);
+            }
+            booked = leaseCalendar.bookedProperties(from, to);
+        }
+        RoaringBitmap flags = propertyBitmapIndex.match(f.getAmenityIds(), f.getCategoryId(),
+                f.getIsAvailable(), f.getIsFeatured(), booked);
+        if (flags != null) {
+            candidateIds = candidateIds == null
+                    ? Arrays.stream(flags.toArray()).mapToObj(Long::valueOf).toList()
+                    : candidateIds.stream().filter(id -> flags.contains(id.intValue())).toList();
+        }
+        if (candidateIds != null && candidateIds.isEmpty()) {
+            return candidateIds;
+        }
+        List<AttributePredicate> predicates = new ArrayList<>();
+        if (f.getAttributes() != null) {
+            f.getAttributes().stream()
+                    .filter(expression -> expression != null && !expression.isBlank())
+                    .map(AttributePredicate::parse)
+                    .forEach(predicates::add);
+        }
+        boolean attributesKnown = addAttributePredicate(predicates, AttributeName.BEDROOMS,
+                AttributePredicate.Operator.EQ, f.getBedrooms())
+                && addAttributePredicate(predicates, AttributeName.BATHROOMS,
+                AttributePredicate.Operator.EQ, f.getBathrooms())
+                && addAttributePredicate(predicates, AttributeName.AREA,
+                AttributePredicate.Operator.GTE, f.getMinArea())
+                && addAttributePredicate(predicates, AttributeName.AREA,
+                AttributePredicate.Operator.LTE, f.getMaxArea());
+        if (!attributesKnown) {
+            return List.of();
+        }
+        if (predicates.isEmpty()) {
+            return candidateIds;
+        }
+
+        List<Long> matched = propertyAttributeIndex.match(predicates);
+        if (candidateIds == null) {
+            return matched;
+        }
+        Set<Long> matchedIds = new HashSet<>(matched);
+        return candidateIds.stream().filter(matchedIds::contains).toList();
+    }
+
+    /**
+     * Thêm điều kiện trên thuộc tính theo tên.
+     *
+     * @return {@code false} nếu có giá trị lọc nhưng thuộc tính chưa từng xuất hiện, khi đó không bất động sản nào khớp
+     */
+    private boolean addAttributePredicate(List<AttributePredicate> predicates, String attributeName,
+                                          AttributePredicate.Operator operator, Number value) {
+        if (value == null) {
+            return true;
+        }
+        Optional<Long> attributeId = propertyAttributeIndex.findAttributeId(attributeName);
+        attributeId.ifPresent(id -> predicates.add(new AttributePredicate(id, operator, value.toString(), null)));
+        return attributeId.isPresent();
+    }
+
     @Override
     public Page<PropertyResponse> searchPropertiesForOwner(
             String title,
@@ -119,19 +462,69 @@ public class PropertyServiceImpl implements PropertyService {
             Boolean isAvailable,
             Pageable pageable
     ) {
+        String cacheKey = propertySearchCache.key(title, address, bedrooms, bathrooms,
+                minArea, maxArea, minPrice, maxPrice, isAvailable, pageable);
+        PropertySearchCache.SearchResult cached = propertySearchCache.get(cacheKey);
+        if (cached != null) {
+            return new PageImpl<>(loadInOrder(cached.ids()), pageable, cached.total());
+        }
+
         Page<Property> properties = propertyRepository.findAll(
                 getSearchPropertiesForOwner(title, address, bedrooms, bathrooms,
                         minArea, maxArea, minPrice, maxPrice, isAvailable),
                 pageable
         );
+        propertySearchCache.put(cacheKey,
+                properties.getContent().stream().map(Property::getPropertyId).toList(),
+                properties.getTotalElements());
         return properties.map(propertyMapper::toPropertyResponse);
     }
 
+    @Override
+    public CacheStatsResponse getSearchCacheStats() {
+        return propertySearchCache.getStats();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPropertiesForOwner(
+            String title,
+            String address,
+            Integer bedrooms,
+            Integer bathrooms,
+            BigDecimal minArea,
+            BigDecimal maxArea,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Boolean isAvailable,
+            OutputStream outputStream
+    ) throws IOException {
+        Specification<Property> specification = getSearchPropertiesForOwner(title, address, bedrooms, bathrooms,
+                minArea, maxArea, minPrice, maxPrice, isAvailable);
+        OutputStream out = new BufferedOutputStream(outputStream);
+        int count = 0;
+        // Bản đọc đã là PropertyResponse dạng JSON nên ghi thẳng ra, không cần tải entity hay map lại
+        try (Stream<String> documents = propertyRepository.streamDocuments(specification, Sort.by("propertyId"))) {
+            Iterator<String> iterator = documents.iterator();
+            while (iterator.hasNext()) {
+                out.write(iterator.next().getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+                if (++count % EXPORT_FLUSH_SIZE == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.info("Exported {} properties", count);
+    }
+
 
     @Override
+    @Transactional
     public void deleteProperty(long propertyId) {
         String email = AuthUtil.getEmailFromToken();
-        Property property = propertyRepository.findById(propertyId)
+        // Khóa dòng property như createLease để kiểm tra hợp đồng và xóa mềm không xen với yêu cầu thuê mới
+        Property property = propertyRepository.findForUpdateByPropertyId(propertyId)
                 .orElseThrow(() -> new AppException(ErrorCode.PROPERTY_NOT_EXISTED));
 
         if (!property.getOwner().getAccount().getEmail().equals(email)) {
@@ -141,21 +534,19 @@ public class PropertyServiceImpl implements PropertyService {
         if(leaseRepository.existsByProperty_PropertyIdAndStatusIn(propertyId, List.of(LeaseStatus.PREBOOKED.name(), LeaseStatus.ACTIVE.name()))){
             throw new AppException(ErrorCode.PROPERTY_IS_NOT_AVAILABLE);
         }
-        try{
-            for(var image : property.getPropertyImages()){
-                String[] publicIds = image.getImageUrl().split("/");
-                String publicId = publicIds[publicIds.length - 1].split("\\.")[0];
-                log.info("Deleting image: {}", publicId);
-                cloudinary.uploader().destroy(publicId, Map.of("invalidate", true));
-            }
-        }catch (Exception e){
-            throw new AppException(ErrorCode.UNAUTHENTICATED);
-        }
-
 
+        // Hợp đồng chưa bắt đầu bị hủy theo, nếu không chúng treo mãi trên tin đã ẩn và giữ dòng property lại khi dọn
+        List<Lease> pendingLeases = leaseRepository.findAllByProperty_PropertyIdAndStatusIn(propertyId,
+                List.of(LeaseStatus.PENDING.name(), LeaseStatus.CONFIRMED.name()));
+        pendingLeases.forEach(lease -> lease.setStatus(LeaseStatus.CANCELLED.name()));
+        leaseRepository.saveAll(pendingLeases);
 
-        propertyRepository.deleteById(propertyId);
-        log.info("Property deleted: {}", property);
+        // Chỉ xóa mềm; ảnh trên Cloudinary và dữ liệu liên quan được PropertyPurgeService dọn sau
+        property.setDeletedAt(LocalDateTime.now());
+        propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.deleted(propertyId));
+        ownerStatisticsCounter.invalidateAfterCommit(email);
+        log.info("Property soft deleted: {}, {} pending leases cancelled", propertyId, pendingLeases.size());
     }
 
     @Override
@@ -165,35 +556,197 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     public Page<PropertyResponse> getAllProperties(int page, int size, String sortBy) {
+        // Thứ tự "phù hợp nhất" được tính sẵn trong chỉ mục xếp hạng, DB chỉ tải các bản ghi của trang
+        if (BEST_MATCH.equalsIgnoreCase(sortBy)) {
+            Pageable pageable = PageRequest.of(page, size);
+            List<Long> ids = propertyRankingIndex.page(pageable.getOffset(), size);
+            if (ids.isEmpty()) {
+                throw new AppException(ErrorCode.PROPERTY_NOT_EXISTED);
+            }
+            return new PageImpl<>(loadInOrder(ids), pageable, propertyRankingIndex.size());
+        }
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
-        Page<Property> properties = propertyRepository.findAll(pageable);
+        Page<PropertyRead> properties = propertyReadRepository.findAll(pageable);
         if (properties.isEmpty()) {
             throw new AppException(ErrorCode.PROPERTY_NOT_EXISTED);
         }
-        return properties.map(propertyMapper::toPropertyResponse);
+        return properties.map(propertyReadProjector::toResponse);
     }
 
     @Override
     public Page<PropertyResponse> searchProperties(String keyword, int page, int size, String sortBy) {
-        return null;
+        List<Long> ids = propertyTextIndex.search(keyword);
+        if (ids.isEmpty()) {
+            return Page.empty(PageRequest.of(page, size));
+        }
+
+        // Mặc định giữ nguyên thứ tự theo điểm BM25; sắp xếp khác làm trong bộ nhớ.
+        // Cả hai trường hợp chỉ tải từ DB các bản ghi của trang hiện tại
+        boolean byRelevance = sortBy == null || sortBy.isBlank() || "relevance".equalsIgnoreCase(sortBy);
+        Pageable pageable = byRelevance ? PageRequest.of(page, size) : PageRequest.of(page, size, Sort.by(sortBy));
+        List<Long> ordered = propertySortIndex.sort(ids, pageable.getSort());
+        int from = (int) Math.min(pageable.getOffset(), ordered.size());
+        List<Long> pageIds = ordered.subList(from, Math.min(from + size, ordered.size()));
+
+        return new PageImpl<>(loadInOrder(pageIds), pageable, ordered.size());
+    }
+
+    /**
+     * Tải các bất động sản theo id từ bản đọc và giữ nguyên thứ tự của danh sách id.
+     */
+    private List<PropertyResponse> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PropertyRead> properties = propertyReadRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(PropertyRead::getPropertyId, Function.identity()));
+        return ids.stream()
+                .map(properties::get)
+                .filter(Objects::nonNull)
+                .map(propertyReadProjector::toResponse)
+                .toList();
     }
 
     @Override
     public Page<PropertyResponse> getPropertiesByCategory(long categoryId, int page, int size, String sortBy) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
-        Page<Property> properties = propertyRepository.findAllByCategory_CategoryId(pageable, categoryId);
+        Page<PropertyRead> properties = propertyReadRepository.findAllByCategoryId(categoryId, pageable);
         if (properties.isEmpty()) {
             throw new AppException(ErrorCode.PROPERTY_NOT_EXISTED);
         }
-        return properties.map(propertyMapper::toPropertyResponse);
+        return properties.map(propertyReadProjector::toResponse);
+    }
+
+    @Override
+    public CursorPageResponse<PropertyResponse> scrollAllProperties(String cursor, int size,
+                                                                    String sortBy, String direction) {
+        return scrollProperties(null, cursor, size, sortBy, direction);
+    }
+
+    @Override
+    public CursorPageResponse<PropertyResponse> scrollPropertiesByCategory(long categoryId, String cursor, int size,
+                                                                           String sortBy, String direction) {
+        return scrollProperties((root, query, criteriaBuilder) ->
+                        criteriaBuilder.equal(root.get("categoryId"), categoryId),
+                cursor, size, sortBy, direction);
+    }
+
+    @Override
+    public CursorPageResponse<PropertyResponse> scrollAllMyProperties(String cursor, int size,
+                                                                      String sortBy, String direction) {
+        String email = AuthUtil.getEmailFromToken();
+        return scrollProperties((root, query, criteriaBuilder) ->
+                        criteriaBuilder.equal(root.get("ownerEmail"), email),
+                cursor, size, sortBy, direction);
+    }
+
+    /**
+     * Phân trang theo keyset: thay vì OFFSET, lấy các bản ghi đứng sau (sortKey, propertyId) của
+     * bản ghi cuối trang trước. Không chạy COUNT, chi phí mỗi trang như nhau dù ở trang thứ bao nhiêu.
+     */
+    private CursorPageResponse<PropertyResponse> scrollProperties(Specification<PropertyRead> filter, String cursor,
+                                                                  int size, String sortBy, String direction) {
+        PropertyCursor position = (cursor == null || cursor.isBlank()) ? null : PropertyCursor.decode(cursor);
+        PropertySortKey sortKey = position != null ? position.getSortKey() : PropertySortKey.fromField(sortBy);
+        if (sortKey == null || size <= 0) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        Sort.Direction sortDirection = position != null ? position.getDirection()
+                : Sort.Direction.fromOptionalString(direction).orElse(Sort.Direction.ASC);
+
+        Sort sort = sortKey == PropertySortKey.PROPERTY_ID
+                ? Sort.by(sortDirection, "propertyId")
+                : Sort.by(sortDirection, sortKey.getField(), "propertyId");
+
+        Specification<PropertyRead> specification = Specification.where(filter).and(seekAfter(position));
+        List<PropertyRead> properties = propertyReadRepository.<PropertyRead, List<PropertyRead>>findBy(specification,
+                query -> query.sortBy(sort).limit(size + 1).all());
+
+        boolean hasNext = properties.size() > size;
+        List<PropertyRead> content = hasNext ? properties.subList(0, size) : properties;
+        String nextCursor = hasNext
+                ? PropertyCursor.after(content.get(content.size() - 1), sortKey, sortDirection).encode()
+                : null;
+
+        return CursorPageResponse.<PropertyResponse>builder()
+                .content(content.stream().map(propertyReadProjector::toResponse).toList())
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Specification<PropertyRead> seekAfter(PropertyCursor position) {
+        if (position == null) {
+            return null;
+        }
+        return (root, query, criteriaBuilder) -> {
+            boolean ascending = position.getDirection().isAscending();
+            Path<Long> id = root.get("propertyId");
+            return switch (position.getSortKey()) {
+                case PROPERTY_ID -> ascending
+                        ? criteriaBuilder.greaterThan(id, position.getLastId())
+                        : criteriaBuilder.lessThan(id, position.getLastId());
+                case PRICE_PER_MONTH -> keysetPredicate(criteriaBuilder, root.<BigDecimal>get("pricePerMonth"),
+                        (BigDecimal) position.getLastValue(), id, position.getLastId(), ascending);
+                case CREATED_AT -> keysetPredicate(criteriaBuilder, root.<LocalDateTime>get("createdAt"),
+                        (LocalDateTime) position.getLastValue(), id, position.getLastId(), ascending);
+            };
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate keysetPredicate(CriteriaBuilder criteriaBuilder,
+                                                                               Expression<Y> key, Y lastValue,
+                                                                               Path<Long> id, Long lastId,
+                                                                               boolean ascending) {
+        Predicate keyAfter = ascending
+                ? criteriaBuilder.greaterThan(key, lastValue)
+                : criteriaBuilder.lessThan(key, lastValue);
+        Predicate idAfter = ascending
+                ? criteriaBuilder.greaterThan(id, lastId)
+                : criteriaBuilder.lessThan(id, lastId);
+        return criteriaBuilder.or(keyAfter, criteriaBuilder.and(criteriaBuilder.equal(key, lastValue), idAfter));
     }
 
     @Override
     public PropertyResponse getPropertyById(Long id) {
-        Property property = propertyRepository.findById(id)
-                .orElseThrow(() -> new AppException(ErrorCode.PROPERTY_NOT_EXISTED));
+        return propertyResponseCache.get(id, () -> propertyReadRepository.findById(id)
+                .map(propertyReadProjector::toResponse)
+                .orElseGet(() -> {
+                    // Bản đọc chưa kịp dựng (projector lỗi), đọc từ các bảng gốc
+                    Property property = propertyRepository.findWithDetailsByPropertyId(id)
+                            .orElseThrow(() -> new AppException(ErrorCode.PROPERTY_NOT_EXISTED));
+                    return propertyMapper.toPropertyResponse(property);
+                }));
+    }
 
-        return propertyMapper.toPropertyResponse(property);
+    @Override
+    public String getPropertyETag(Long id) {
+        return propertyVersionIndex.eTag(id);
+    }
+
+    @Override
+    public List<PropertyResponse> getSimilarProperties(Long id, int limit) {
+        if (limit <= 0) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        return loadInOrder(propertySimilarityIndex.similarTo(id, Math.min(limit, MAX_SIMILAR_PROPERTIES)));
+    }
+
+    @Override
+    public void recordPropertyView(Long id, String viewer) {
+        propertyViewCounter.record(id, viewer);
+    }
+
+    @Override
+    public List<PropertyViewCountResponse> getMyPropertyViewCounts() {
+        String email = AuthUtil.getEmailFromToken();
+        return propertyViewCounter.ownerViewCounts(email);
+    }
+
+    @Override
+    public CacheStatsResponse getPropertyCacheStats() {
+        return propertyResponseCache.getStats();
     }
 
     @Override
@@ -221,9 +774,27 @@ public class PropertyServiceImpl implements PropertyService {
         return properties.map(propertyMapper::toPropertyResponse);
     }
 
-    @Transactional
+    /**
+     * Ảnh được upload song song trước khi mở transaction để không giữ connection trong lúc chờ Cloudinary.
+     * Nếu lưu bất động sản thất bại, các ảnh đã upload sẽ bị xóa.
+     */
     @Override
     public PropertyResponse createProperty(PropertyCreationRequest request) {
+        List<PropertyImageRequest> imageRequests = request.getPropertyImages() == null ? List.of()
+                : request.getPropertyImages().stream().filter(image -> image.getFile() != null).toList();
+        List<String> imageUrls = mediaService.uploadImagesConcurrently(
+                imageRequests.stream().map(PropertyImageRequest::getFile).toList());
+
+        try {
+            return transactionTemplate.execute(status -> saveNewProperty(request, imageRequests, imageUrls));
+        } catch (RuntimeException e) {
+            mediaService.deleteImages(imageUrls);
+            throw e;
+        }
+    }
+
+    private PropertyResponse saveNewProperty(PropertyCreationRequest request,
+                                             List<PropertyImageRequest> imageRequests, List<String> imageUrls) {
         Property property = new Property();
 
         //Check role, add role to property
@@ -243,6 +814,8 @@ public class PropertyServiceImpl implements PropertyService {
         //Location
         Location location = processLocation(request.getLocation());
         property.setLocation(location);
+        property.setLatitude(request.getLocation().getLatitude());
+        property.setLongitude(request.getLocation().getLongitude());
 
         //Title, description, address, pricePerMonth, securityDeposit, isAvailable, isFeatured
         property.setTitle(request.getTitle());
@@ -257,19 +830,16 @@ public class PropertyServiceImpl implements PropertyService {
 
         log.info("Property saved: {}", property.getPropertyId());
 
-        Set<Long> validIds = category.getCategoryAttributes()
-                .stream().map(ca -> ca.getAttribute().getId())
-                .collect(Collectors.toSet());
-        validIds.stream().forEach(id -> {
-            log.info("Valid attribute id: {}", id);
-        });
+        // Thuộc tính hợp lệ của danh mục được nạp cùng category, không cần truy vấn lại từng thuộc tính
+        Map<Long, PropertyAttribute> attributeCatalog = category.getCategoryAttributes().stream()
+                .map(CategoryAttribute::getAttribute)
+                .collect(Collectors.toMap(PropertyAttribute::getId, Function.identity()));
         Set<PropertyAttributeValue> propertyAttributeValues = new HashSet<>();
         for (var i : request.getPropertyAttributeValues()) {
-            if (!validIds.contains(i.getAttributeId())) {
+            PropertyAttribute attribute = attributeCatalog.get(i.getAttributeId());
+            if (attribute == null) {
                 throw new AppException(ErrorCode.ATTRIBUTE_INVALID);
             }
-            PropertyAttribute attribute = propertyAttributeRepository.findById(i.getAttributeId())
-                    .orElseThrow(() -> new AppException(ErrorCode.ATTRIBUTE_INVALID));
             PropertyAttributeValue value = PropertyAttributeValue.builder()
                     .id(new PropertyAttributeValueId(property.getPropertyId(), attribute.getId()))
                     .property(property)
@@ -282,13 +852,15 @@ public class PropertyServiceImpl implements PropertyService {
 
 
         //Image
-        Set<PropertyImage> propertyImages = processPropertyImages(request.getPropertyImages(), property);
+        Set<PropertyImage> propertyImages = processPropertyImages(imageRequests, imageUrls, property);
         property.setPropertyImages(propertyImages);
 
         //Amenities
         processAmenities(request.getAmenities(), property);
 
         property = propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.created(property));
+        ownerStatisticsCounter.propertiesCreated(owner.getAccount().getEmail(), 1);
 
         log.info("Property saved: {}", property.getPropertyId());
 
@@ -310,11 +882,18 @@ public class PropertyServiceImpl implements PropertyService {
         }
 
         if (location.getLocationId() != null) {
-            return locationRepository.findById(location.getLocationId())
-                    .orElseGet(() -> locationRepository.save(location));
+            Optional<Location> existing = locationRepository.findById(location.getLocationId());
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+        if (location.getCity() == null || location.getDistrict() == null
+                || location.getWard() == null || location.getCountry() == null) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
         }
 
-        return locationRepository.save(location);
+        // Dùng lại dòng location đã có cùng địa chỉ thay vì tạo dòng mới cho mỗi tin đăng
+        return locationRegistry.intern(location);
     }
 
     @Override
@@ -333,43 +912,116 @@ public class PropertyServiceImpl implements PropertyService {
         return property;
     }
 
+    /**
+     * Tiện ích đã có được nạp bằng một truy vấn theo id và một truy vấn theo tên, tiện ích mới được thêm theo lô.
+     * Liên kết với bất động sản được ghi từ phía {@link Property} khi flush.
+     */
     @Override
     public Set<Amenity> processAmenities(List<AmenityRequest> amenityRequests, Property property) {
         if (amenityRequests == null || amenityRequests.isEmpty()) {
             return new HashSet<>();
         }
 
+        Set<Long> requestedIds = amenityRequests.stream()
+                .map(AmenityRequest::getAmenityId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Amenity> amenitiesById = amenityRepository.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(Amenity::getAmenityId, Function.identity()));
+
+        // Tên tiện ích là duy nhất, tiện ích "mới" trùng tên với tiện ích đã có thì dùng lại
+        Map<String, AmenityRequest> unresolved = new LinkedHashMap<>();
+        for (AmenityRequest request : amenityRequests) {
+            if ((request.getAmenityId() == null || !amenitiesById.containsKey(request.getAmenityId()))
+                    && request.getName() != null && !request.getName().isBlank()) {
+                unresolved.putIfAbsent(amenityNameKey(request.getName()), request);
+            }
+        }
+        Map<String, Amenity> amenitiesByName = new HashMap<>();
+        if (!unresolved.isEmpty()) {
+            amenityRepository.findAllByNameIn(unresolved.values().stream().map(request -> request.getName().trim()).toList())
+                    .forEach(amenity -> amenitiesByName.put(amenityNameKey(amenity.getName()), amenity));
+            List<AmenityRequest> newAmenities = unresolved.entrySet().stream()
+                    .filter(entry -> !amenitiesByName.containsKey(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            insertAmenities(newAmenities).forEach(amenity -> amenitiesByName.put(amenityNameKey(amenity.getName()), amenity));
+        }
+
         Set<Amenity> amenities = new HashSet<>();
         for (AmenityRequest request : amenityRequests) {
-            Amenity amenity = amenityRepository.findById(request.getAmenityId())
-                    .orElseGet(() -> {
-                        log.info("Amenity not existed, creating new one: {}", request.getName());
-                        return amenityRepository.save(amenityMapper.toAmenity(request));
-                    });
-            amenity.getProperty().add(property);
+            Amenity amenity = request.getAmenityId() != null ? amenitiesById.get(request.getAmenityId()) : null;
+            if (amenity == null && request.getName() != null && !request.getName().isBlank()) {
+                amenity = amenitiesByName.get(amenityNameKey(request.getName()));
+            }
+            if (amenity == null) {
+                throw new AppException(ErrorCode.INVALID_REQUEST);
+            }
             amenities.add(amenity);
-            log.info("Amenity added to property: {}", amenity.getAmenityId());
         }
+        property.setAmenities(amenities);
+        log.info("Amenities added to property: {}", amenities.size());
 
         return amenities;
     }
 
+    private List<Amenity> insertAmenities(List<AmenityRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<Amenity> amenities = requests.stream()
+                .map(request -> {
+                    Amenity amenity = amenityMapper.toAmenity(request);
+                    amenity.setAmenityId(null);
+                    amenity.setName(request.getName().trim());
+                    return amenity;
+                })
+                .toList();
+        log.info("Amenities not existed, creating: {}", amenities.stream().map(Amenity::getName).toList());
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_AMENITY, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, amenities.get(i).getName());
+                        ps.setString(2, amenities.get(i).getDescription());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return amenities.size();
+                    }
+                },
+                keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != amenities.size()) {
+            throw new IllegalStateException("Expected " + amenities.size() + " generated keys but got " + keys.size());
+        }
+        for (int i = 0; i < amenities.size(); i++) {
+            amenities.get(i).setAmenityId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        catalogVersion.bumpAfterCommit(CatalogVersion.Catalog.AMENITY);
+        return amenities;
+    }
+
+    private static String amenityNameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
-    public Set<PropertyImage> processPropertyImages(List<PropertyImageRequest> imageRequests, Property property) {
+    public Set<PropertyImage> processPropertyImages(List<PropertyImageRequest> imageRequests, List<String> imageUrls,
+                                                    Property property) {
         if (imageRequests == null || imageRequests.isEmpty()) {
             return new HashSet<>();
         }
 
         Set<PropertyImage> propertyImages = new HashSet<>();
-        for (PropertyImageRequest request : imageRequests) {
-            if (request.getFile() == null) {
-                continue;
-            }
-
-            String url = mediaService.uploadImage(request.getFile());
+        for (int i = 0; i < imageRequests.size(); i++) {
             PropertyImage propertyImage = PropertyImage.builder()
-                    .imageUrl(url)
-                    .isPrimary(request.getIsPrimary())
+                    .imageUrl(imageUrls.get(i))
+                    .isPrimary(imageRequests.get(i).getIsPrimary())
                     .property(property)
                     .build();
             propertyImages.add(propertyImage);
@@ -377,4 +1029,4 @@ public class PropertyServiceImpl implements PropertyService {
 
         return propertyImages;
     }
-}
\ No newline at end of file
+}
@@ -13,6 +13,7 @@ import com.kir.homerentalsystem.mapper.NotificationMapper;
 import com.kir.homerentalsystem.mapper.PropertyViewingMapper;
 import com.kir.homerentalsystem.repository.*;
 import com.kir.homerentalsystem.service.PropertyViewingService;
+import com.kir.homerentalsystem.service.cache.OwnerStatisticsCounter;
 import com.kir.homerentalsystem.util.AuthUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +37,7 @@ public class PropertyViewingServiceImpl implements PropertyViewingService {
     private final NotificationMapper notificationMapper;
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final OwnerStatisticsCounter ownerStatisticsCounter;
 
 
     @Transactional
@@ -65,6 +67,8 @@ public class PropertyViewingServiceImpl implements PropertyViewingService {
         propertyViewing.setStatus(PropertyViewingStatus.REQUESTED.name());
 
         propertyViewingRepository.save(propertyViewing);
+        ownerStatisticsCounter.viewingStatusChanged(property.getOwner().getAccount().getEmail(),
+                null, propertyViewing.getStatus());
 
         Owner owner = property.getOwner();
         if (owner != null) {
@@ -88,4 +92,34 @@ public class PropertyViewingServiceImpl implements PropertyViewingService {
 
         return propertyViewingMapper.toPropertyViewingResponse(propertyViewing);
     }
+
+    /**
+     * Chuyển trạng thái lịch xem nhà. Chủ nhà được xác nhận, hoàn thành hoặc hủy; người thuê chỉ được hủy.
+     * Lịch đã hoàn thành hoặc đã hủy không đổi trạng thái được nữa.
+     */
+    @Transactional
+    @Override
+    public void updatePropertyViewingStatus(Long viewingId, PropertyViewingStatus status) {
+        PropertyViewing propertyViewing = propertyViewingRepository.findById(viewingId)
+                .orElseThrow(() -> new AppException(ErrorCode.PROPERTY_VIEWING_NOT_EXISTED));
+
+        String email = AuthUtil.getEmailFromToken();
+        String ownerEmail = propertyViewing.getProperty().getOwner().getAccount().getEmail();
+        boolean isOwner = ownerEmail.equals(email);
+        boolean isTenant = propertyViewing.getTenant().getAccount().getEmail().equals(email);
+        if (!isOwner && !(isTenant && status == PropertyViewingStatus.CANCELLED)) {
+            throw new AppException(ErrorCode.NOT_AUTHORIZED);
+        }
+
+        String currentStatus = propertyViewing.getStatus();
+        if (!PropertyViewingStatus.REQUESTED.name().equals(currentStatus)
+                && !PropertyViewingStatus.CONFIRMED.name().equals(currentStatus)) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+
+        ownerStatisticsCounter.viewingStatusChanged(ownerEmail, currentStatus, status.name());
+        propertyViewing.setStatus(status.name());
+        log.info("Updating property viewing {} status: {} -> {}", viewingId, currentStatus, status);
+        propertyViewingRepository.save(propertyViewing);
+    }
 }
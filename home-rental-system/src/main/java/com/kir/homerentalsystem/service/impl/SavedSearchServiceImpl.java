@@ -0,0 +1,144 @@
+package com.kir.homerentalsystem.service.impl;
+
+import com.kir.homerentalsystem.dto.request.SavedSearchRequest;
+import com.kir.homerentalsystem.dto.response.SavedSearchResponse;
+import com.kir.homerentalsystem.entity.Account;
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.PropertyCategory;
+import com.kir.homerentalsystem.entity.SavedSearch;
+import com.kir.homerentalsystem.exception.AppException;
+import com.kir.homerentalsystem.exception.ErrorCode;
+import com.kir.homerentalsystem.repository.AccountRepository;
+import com.kir.homerentalsystem.repository.AmenityRepository;
+import com.kir.homerentalsystem.repository.PropertyCategoryRepository;
+import com.kir.homerentalsystem.repository.SavedSearchRepository;
+import com.kir.homerentalsystem.service.SavedSearchService;
+import com.kir.homerentalsystem.service.index.SavedSearchPercolator;
+import com.kir.homerentalsystem.util.AuthUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SavedSearchServiceImpl implements SavedSearchService {
+    private static final int MAX_SAVED_SEARCHES = 20;
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final AccountRepository accountRepository;
+    private final PropertyCategoryRepository propertyCategoryRepository;
+    private final AmenityRepository amenityRepository;
+    private final SavedSearchPercolator savedSearchPercolator;
+
+    @Override
+    @Transactional
+    public SavedSearchResponse createSavedSearch(SavedSearchRequest request) {
+        validateRequest(request);
+
+        String email = AuthUtil.getEmailFromToken();
+        Account account = accountRepository.findByEmail(email)
+                .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_EXISTED));
+        if (savedSearchRepository.countByAccount_Email(email) >= MAX_SAVED_SEARCHES) {
+            throw new AppException(ErrorCode.SAVED_SEARCH_LIMIT_EXCEEDED);
+        }
+
+        PropertyCategory category = null;
+        if (request.getCategoryId() != null) {
+            category = propertyCategoryRepository.findById(request.getCategoryId())
+                    .orElseThrow(() -> new AppException(ErrorCode.PROPERTY_CATEGORY_NOT_EXISTED));
+        }
+
+        Set<Amenity> amenities = new HashSet<>();
+        if (request.getAmenityIds() != null && !request.getAmenityIds().isEmpty()) {
+            Set<Long> amenityIds = new HashSet<>(request.getAmenityIds());
+            amenities.addAll(amenityRepository.findAllById(amenityIds));
+            if (amenities.size() != amenityIds.size()) {
+                throw new AppException(ErrorCode.INVALID_REQUEST);
+            }
+        }
+
+        SavedSearch savedSearch = SavedSearch.builder()
+                .account(account)
+                .name(request.getName().trim())
+                .category(category)
+                .city(trimToNull(request.getCity()))
+                .district(trimToNull(request.getDistrict()))
+                .minPrice(request.getMinPrice())
+                .maxPrice(request.getMaxPrice())
+                .minBedrooms(request.getMinBedrooms())
+                .amenities(amenities)
+                .build();
+        savedSearchRepository.save(savedSearch);
+        savedSearchPercolator.refreshAfterCommit(savedSearch.getSavedSearchId());
+
+        log.info("Saved search {} created for {}", savedSearch.getSavedSearchId(), email);
+        return toResponse(savedSearch);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SavedSearchResponse> getMySavedSearches() {
+        String email = AuthUtil.getEmailFromToken();
+        return savedSearchRepository.findAllByAccount_EmailOrderByCreatedAtDesc(email).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void deleteSavedSearch(Long id) {
+        String email = AuthUtil.getEmailFromToken();
+        SavedSearch savedSearch = savedSearchRepository.findBySavedSearchIdAndAccount_Email(id, email)
+                .orElseThrow(() -> new AppException(ErrorCode.SAVED_SEARCH_NOT_EXISTED));
+        savedSearchRepository.delete(savedSearch);
+        savedSearchPercolator.refreshAfterCommit(id);
+    }
+
+    private void validateRequest(SavedSearchRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        if (isNegative(request.getMinPrice()) || isNegative(request.getMaxPrice())
+                || (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice().compareTo(request.getMaxPrice()) > 0)) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        if (request.getMinBedrooms() != null && request.getMinBedrooms() < 0) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        // Quận trùng tên giữa các thành phố nên bắt buộc đi kèm thành phố
+        if (trimToNull(request.getDistrict()) != null && trimToNull(request.getCity()) == null) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+    }
+
+    private SavedSearchResponse toResponse(SavedSearch savedSearch) {
+        return SavedSearchResponse.builder()
+                .savedSearchId(savedSearch.getSavedSearchId())
+                .name(savedSearch.getName())
+                .categoryId(savedSearch.getCategory() != null ? savedSearch.getCategory().getCategoryId() : null)
+                .city(savedSearch.getCity())
+                .district(savedSearch.getDistrict())
+                .minPrice(savedSearch.getMinPrice())
+                .maxPrice(savedSearch.getMaxPrice())
+                .minBedrooms(savedSearch.getMinBedrooms())
+                .amenityIds(savedSearch.getAmenities().stream().map(Amenity::getAmenityId).sorted().toList())
+                .createdAt(savedSearch.getCreatedAt())
+                .build();
+    }
+
+    private static boolean isNegative(BigDecimal value) {
+        return value != null && value.signum() < 0;
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,295 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.constant.AddressSuggestionType;
+import com.kir.homerentalsystem.dto.response.AddressSuggestionResponse;
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.util.TextUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Gợi ý địa chỉ khi đang gõ (thành phố, quận, phường và địa chỉ bất động sản).
+ * Mỗi loại gợi ý có một cây tiền tố nén (radix trie) trên khóa đã bỏ dấu, mỗi nút giữ sẵn
+ * {@value #TOP_K} gợi ý có nhiều tin đăng nhất trong nhánh nên truy vấn chỉ cần đi hết tiền tố.
+ */
+@Component
+public class AddressAutocompleteIndex implements PropertyIndex {
+    public static final int TOP_K = 10;
+
+    private final Map<AddressSuggestionType, PrefixTrie> tries = new EnumMap<>(AddressSuggestionType.class);
+    private final Map<Long, List<Suggestion>> propertySuggestions = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public AddressAutocompleteIndex() {
+        for (AddressSuggestionType type : AddressSuggestionType.values()) {
+            tries.put(type, new PrefixTrie(type));
+        }
+    }
+
+    @Override
+    public void index(Property property) {
+        List<Suggestion> suggestions = new ArrayList<>();
+        Location location = property.getLocation();
+        if (location != null) {
+            addSuggestion(suggestions, AddressSuggestionType.CITY, location.getCity());
+            addSuggestion(suggestions, AddressSuggestionType.DISTRICT,
+                    join(location.getDistrict(), location.getCity()));
+            addSuggestion(suggestions, AddressSuggestionType.WARD,
+                    join(location.getWard(), location.getDistrict(), location.getCity()));
+        }
+        addSuggestion(suggestions, AddressSuggestionType.ADDRESS, property.getAddress());
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(property.getPropertyId());
+            suggestions.forEach(suggestion -> tries.get(suggestion.type).add(suggestion.text, 1));
+            propertySuggestions.put(property.getPropertyId(), suggestions);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            tries.replaceAll((type, trie) -> new PrefixTrie(type));
+            propertySuggestions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param query Chuỗi đang gõ, có dấu hoặc không dấu
+     * @param type  Loại gợi ý, {@code null} để lấy tất cả các loại
+     * @param limit Số gợi ý tối đa, từ 1 đến {@value #TOP_K}
+     * @return Tối đa {@code limit} gợi ý, nhiều tin đăng nhất trước
+     */
+    public List<AddressSuggestionResponse> suggest(String query, AddressSuggestionType type, int limit) {
+        String prefix = toKey(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Entry> candidates = new ArrayList<>();
+            tries.forEach((trieType, trie) -> {
+                if (type == null || type == trieType) {
+                    candidates.addAll(trie.top(prefix));
+                }
+            });
+            candidates.sort(Entry.RANKING);
+            return candidates.stream()
+                    .limit(Math.min(limit, TOP_K))
+                    .map(entry -> AddressSuggestionResponse.builder()
+                            .text(entry.text)
+                            .type(entry.type.name())
+                            .count(entry.count)
+                            .build())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long propertyId) {
+        List<Suggestion> previous = propertySuggestions.remove(propertyId);
+        if (previous != null) {
+            previous.forEach(suggestion -> tries.get(suggestion.type).add(suggestion.text, -1));
+        }
+    }
+
+    private static void addSuggestion(List<Suggestion> suggestions, AddressSuggestionType type, String text) {
+        if (text != null && !text.isBlank()) {
+            suggestions.add(new Suggestion(type, text.trim()));
+        }
+    }
+
+    private static String join(String... parts) {
+        return String.join(", ", Arrays.stream(parts).filter(part -> part != null && !part.isBlank()).toList());
+    }
+
+    // Khóa tra cứu: bỏ dấu, chữ thường, dấu câu và khoảng trắng thừa gộp thành một dấu cách
+    private static String toKey(String text) {
+        return String.join(" ", TextUtil.tokenize(text));
+    }
+
+    private record Suggestion(AddressSuggestionType type, String text) {
+    }
+
+    private static class Entry {
+        static final Comparator<Entry> RANKING = Comparator.<Entry>comparingLong(entry -> entry.count).reversed()
+                .thenComparingInt(entry -> entry.text.length())
+                .thenComparing(entry -> entry.text);
+
+        final AddressSuggestionType type;
+        final String text;
+        long count;
+
+        Entry(AddressSuggestionType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Cây tiền tố nén: mỗi cạnh mang một chuỗi ký tự, nút được tách khi có khóa rẽ nhánh giữa cạnh.
+     */
+    private static class PrefixTrie {
+        private final AddressSuggestionType type;
+        private final Node root = new Node("");
+
+        PrefixTrie(AddressSuggestionType type) {
+            this.type = type;
+        }
+
+        /**
+         * Cộng {@code delta} vào số tin đăng của gợi ý rồi cập nhật top-K trên đường đi từ nút lá về gốc.
+         */
+        void add(String text, int delta) {
+            String key = toKey(text);
+            if (key.isEmpty()) {
+                return;
+            }
+            List<Node> path = delta > 0 ? insert(key) : find(key);
+            if (path == null) {
+                return;
+            }
+            Node terminal = path.get(path.size() - 1);
+            Entry entry = terminal.entries.get(text);
+            if (entry == null) {
+                if (delta <= 0) {
+                    return;
+                }
+                entry = new Entry(type, text);
+                terminal.entries.put(text, entry);
+            }
+            entry.count += delta;
+            if (entry.count <= 0) {
+                terminal.entries.remove(text);
+            }
+
+            for (int i = path.size() - 1; i >= 0; i--) {
+                Node node = path.get(i);
+                if (i > 0 && node.entries.isEmpty() && node.children.isEmpty()) {
+                    path.get(i - 1).children.remove(node.label.charAt(0));
+                    continue;
+                }
+                node.refreshTop();
+            }
+        }
+
+        List<Entry> top(String prefix) {
+            Node node = root;
+            int i = 0;
+            while (i < prefix.length()) {
+                Node child = node.children.get(prefix.charAt(i));
+                if (child == null) {
+                    return List.of();
+                }
+                int common = commonPrefixLength(child.label, prefix, i);
+                if (i + common == prefix.length()) {
+                    return child.top;
+                }
+                if (common < child.label.length()) {
+                    return List.of();
+                }
+                node = child;
+                i += common;
+            }
+            return node.top;
+        }
+
+        private List<Node> insert(String key) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int i = 0;
+            while (i < key.length()) {
+                char first = key.charAt(i);
+                Node child = node.children.get(first);
+                if (child == null) {
+                    child = new Node(key.substring(i));
+                    node.children.put(first, child);
+                    path.add(child);
+                    return path;
+                }
+                int common = commonPrefixLength(child.label, key, i);
+                if (common < child.label.length()) {
+                    // Tách cạnh: nút trung gian nhận phần chung, nút cũ giữ phần còn lại
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children.put(child.label.charAt(0), child);
+                    middle.top = child.top;
+                    node.children.put(first, middle);
+                    child = middle;
+                }
+                path.add(child);
+                node = child;
+                i += common;
+            }
+            return path;
+        }
+
+        private List<Node> find(String key) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.children.get(key.charAt(i));
+                if (child == null || !key.startsWith(child.label, i)) {
+                    return null;
+                }
+                path.add(child);
+                node = child;
+                i += child.label.length();
+            }
+            return path;
+        }
+
+        private static int commonPrefixLength(String label, String key, int offset) {
+            int length = 0;
+            while (length < label.length() && offset + length < key.length()
+                    && label.charAt(length) == key.charAt(offset + length)) {
+                length++;
+            }
+            return length;
+        }
+    }
+
+    private static class Node {
+        String label;
+        final Map<Character, Node> children = new HashMap<>();
+        // Các gợi ý có khóa kết thúc tại nút này (nhiều cách viết có thể cùng một khóa đã bỏ dấu)
+        final Map<String, Entry> entries = new HashMap<>();
+        List<Entry> top = List.of();
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        // Top-K của nút được gộp từ các gợi ý tại nút và top-K của các nút con
+        void refreshTop() {
+            List<Entry> candidates = new ArrayList<>(entries.values());
+            children.values().forEach(child -> candidates.addAll(child.top));
+            candidates.sort(Entry.RANKING);
+            top = List.copyOf(candidates.subList(0, Math.min(TOP_K, candidates.size())));
+        }
+    }
+}
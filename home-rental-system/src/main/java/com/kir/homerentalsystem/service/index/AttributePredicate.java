@@ -0,0 +1,39 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.exception.AppException;
+import com.kir.homerentalsystem.exception.ErrorCode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * Điều kiện lọc trên một thuộc tính, nhận từ request dạng {@code attributeId:operator:value[:value2]},
+ * ví dụ {@code 1:between:30:60}, {@code 7:gte:2}, {@code 9:eq:true}.
+ */
+@Getter
+@AllArgsConstructor
+public class AttributePredicate {
+    public enum Operator {
+        EQ, GTE, LTE, BETWEEN
+    }
+
+    private final Long attributeId;
+    private final Operator operator;
+    private final String value;
+    private final String secondValue;
+
+    public static AttributePredicate parse(String expression) {
+        String[] parts = expression.split(":", 4);
+        try {
+            Operator operator = Operator.valueOf(parts[1].trim().toUpperCase(Locale.ROOT));
+            if (operator == Operator.BETWEEN && parts.length < 4) {
+                throw new AppException(ErrorCode.INVALID_REQUEST);
+            }
+            return new AttributePredicate(Long.valueOf(parts[0].trim()), operator, parts[2].trim(),
+                    parts.length > 3 ? parts[3].trim() : null);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.kir.homerentalsystem.service.index;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Cây khoảng (treap sắp theo đầu trái, mỗi nút giữ đầu phải lớn nhất của cây con) để tìm
+ * các khoảng giao với một khoảng cho trước trong O(log n + k). Mỗi giá trị chỉ có một khoảng,
+ * thêm lại giá trị đã có sẽ thay khoảng cũ. Các khoảng là đoạn đóng {@code [low, high]}.
+ * <p>
+ * Không đồng bộ, lớp sử dụng tự khóa.
+ */
+public class IntervalTree<T> {
+    private final Map<T, Node<T>> nodes = new HashMap<>();
+    private Node<T> root;
+    private long sequence;
+
+    public void put(T value, long low, long high) {
+        if (low > high) {
+            throw new IllegalArgumentException("low > high");
+        }
+        remove(value);
+        Node<T> node = new Node<>(value, low, high, sequence++, ThreadLocalRandom.current().nextInt());
+        nodes.put(value, node);
+        root = insert(root, node);
+    }
+
+    public boolean remove(T value) {
+        Node<T> node = nodes.remove(value);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node);
+        return true;
+    }
+
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return {@code true} nếu có ít nhất một khoảng giao với {@code [low, high]}, chỉ đi một nhánh từ gốc xuống
+     */
+    public boolean overlaps(long low, long high) {
+        Node<T> node = root;
+        while (node != null) {
+            if (node.low <= high && node.high >= low) {
+                return true;
+            }
+            // Cây con trái có khoảng kết thúc sau low mà không giao thì mọi khoảng bên phải đều bắt đầu sau high
+            node = node.left != null && node.left.maxHigh >= low ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Duyệt các giá trị có khoảng giao với {@code [low, high]}, theo thứ tự đầu trái tăng dần.
+     */
+    public void forEachOverlapping(long low, long high, Consumer<T> action) {
+        forEachOverlapping(root, low, high, action);
+    }
+
+    private static <T> void forEachOverlapping(Node<T> node, long low, long high, Consumer<T> action) {
+        // Cây con không có khoảng nào kết thúc sau low thì bỏ qua cả nhánh
+        if (node == null || node.maxHigh < low) {
+            return;
+        }
+        forEachOverlapping(node.left, low, high, action);
+        if (node.low > high) {
+            return;
+        }
+        if (node.high >= low) {
+            action.accept(node.value);
+        }
+        forEachOverlapping(node.right, low, high, action);
+    }
+
+    private static <T> Node<T> insert(Node<T> node, Node<T> inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted, node) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static <T> Node<T> delete(Node<T> node, Node<T> deleted) {
+        if (node == null) {
+            return null;
+        }
+        int compare = compare(deleted, node);
+        if (compare < 0) {
+            node.left = delete(node.left, deleted);
+        } else if (compare > 0) {
+            node.right = delete(node.right, deleted);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Xoay nút cần xóa xuống phía con có độ ưu tiên thấp hơn cho đến khi thành lá
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = delete(node.right, deleted);
+            } else {
+                node = rotateLeft(node);
+                node.left = delete(node.left, deleted);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static <T> void update(Node<T> node) {
+        long maxHigh = node.high;
+        if (node.left != null) {
+            maxHigh = Math.max(maxHigh, node.left.maxHigh);
+        }
+        if (node.right != null) {
+            maxHigh = Math.max(maxHigh, node.right.maxHigh);
+        }
+        node.maxHigh = maxHigh;
+    }
+
+    // Khóa sắp xếp là (đầu trái, số thứ tự thêm vào) nên không có hai nút trùng khóa
+    private static int compare(Node<?> left, Node<?> right) {
+        int compare = Long.compare(left.low, right.low);
+        return compare != 0 ? compare : Long.compare(left.sequence, right.sequence);
+    }
+
+    private static class Node<T> {
+        final T value;
+        final long low;
+        final long high;
+        final long sequence;
+        final int priority;
+        long maxHigh;
+        Node<T> left;
+        Node<T> right;
+
+        Node(T value, long low, long high, long sequence, int priority) {
+            this.value = value;
+            this.low = low;
+            this.high = high;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.maxHigh = high;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.constant.LeaseStatus;
+import com.kir.homerentalsystem.entity.Lease;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Lịch cho thuê của các bất động sản: khoảng ngày của mọi hợp đồng đang giữ chỗ
+ * ({@code PENDING}, {@code PREBOOKED}, {@code ACTIVE}) được giữ trong {@link IntervalTree},
+ * một cây cho từng bất động sản để kiểm tra trùng lịch khi tạo hợp đồng và một cây chung
+ * để lọc "còn trống trong khoảng ngày" khi tìm kiếm mà không phải join bảng lease.
+ * <p>
+ * Lịch được nạp từ DB ở lần dùng đầu tiên; sau đó mỗi thay đổi trạng thái hợp đồng được áp dụng
+ * sau khi commit và phát cho các instance khác qua kênh {@value #CHANGE_CHANNEL}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LeaseCalendar {
+    private static final Set<String> BOOKED_STATUSES = Set.of(
+            LeaseStatus.PENDING.name(), LeaseStatus.PREBOOKED.name(), LeaseStatus.ACTIVE.name());
+    private static final String CHANGE_CHANNEL = "lease_calendar";
+    private static final String COLUMNS = "l.lease_id, l.property_id, l.start_date, l.end_date, l.status";
+    private static final String SELECT_BOOKED = "SELECT " + COLUMNS + " FROM lease l " +
+            "JOIN property p ON p.property_id = l.property_id " +
+            "WHERE p.deleted_at IS NULL AND l.status IN ('PENDING', 'PREBOOKED', 'ACTIVE')";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM lease l WHERE l.lease_id = ?";
+
+    private static final RowMapper<Booking> BOOKING_MAPPER = (rs, rowNum) -> new Booking(
+            rs.getLong("lease_id"), rs.getLong("property_id"),
+            rs.getDate("start_date").toLocalDate(), rs.getDate("end_date").toLocalDate(),
+            rs.getString("status"));
+
+    private final Map<Long, IntervalTree<Long>> calendars = new HashMap<>();
+    private final IntervalTree<Long> allBookings = new IntervalTree<>();
+    private final Map<Long, Long> leaseProperties = new HashMap<>();
+    private volatile boolean loaded;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    void subscribeChanges() {
+        listenerContainer.addMessageListener((message, pattern) ->
+                        reload(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(CHANGE_CHANNEL));
+    }
+
+    /**
+     * @return {@code true} nếu bất động sản đã có hợp đồng giữ chỗ giao với khoảng ngày {@code [startDate, endDate]}
+     */
+    public boolean isBooked(Long propertyId, LocalDate startDate, LocalDate endDate) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IntervalTree<Long> calendar = calendars.get(propertyId);
+            return calendar != null && calendar.overlaps(startDate.toEpochDay(), endDate.toEpochDay());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Id các bất động sản đã có hợp đồng giữ chỗ giao với khoảng ngày {@code [startDate, endDate]}
+     */
+    public RoaringBitmap bookedProperties(LocalDate startDate, LocalDate endDate) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap booked = new RoaringBitmap();
+            allBookings.forEachOverlapping(startDate.toEpochDay(), endDate.toEpochDay(),
+                    leaseId -> booked.add(leaseProperties.get(leaseId).intValue()));
+            return booked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cập nhật lịch theo trạng thái và khoảng ngày của hợp đồng sau khi transaction hiện tại commit.
+     */
+    public void refreshAfterCommit(Lease lease) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(lease);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(lease);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.getType() != PropertyChangedEvent.Type.DELETED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            IntervalTree<Long> calendar = calendars.remove(event.getPropertyId());
+            if (calendar != null) {
+                leaseProperties.entrySet().removeIf(entry -> {
+                    if (entry.getValue().equals(event.getPropertyId())) {
+                        allBookings.remove(entry.getKey());
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refresh(Lease lease) {
+        apply(lease.getLeaseId(), new Booking(lease.getLeaseId(), lease.getProperty().getPropertyId(),
+                lease.getStartDate(), lease.getEndDate(), lease.getStatus()));
+        try {
+            stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, String.valueOf(lease.getLeaseId()));
+        } catch (Exception e) {
+            log.warn("Cannot publish lease calendar change: {}", e.getMessage());
+        }
+    }
+
+    private void reload(Long leaseId) {
+        apply(leaseId, jdbcTemplate.query(SELECT_BY_ID, BOOKING_MAPPER, leaseId).stream().findFirst().orElse(null));
+    }
+
+    private void apply(Long leaseId, Booking booking) {
+        lock.writeLock().lock();
+        try {
+            // Chưa nạp thì bỏ qua, lần nạp đầu tiên sẽ đọc trạng thái đã commit từ DB
+            if (!loaded) {
+                return;
+            }
+            removeInternal(leaseId);
+            if (booking != null) {
+                addInternal(booking);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            jdbcTemplate.query(SELECT_BOOKED, BOOKING_MAPPER).forEach(this::addInternal);
+            loaded = true;
+            log.info("Lease calendar loaded {} bookings in {} ms",
+                    leaseProperties.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addInternal(Booking booking) {
+        if (!BOOKED_STATUSES.contains(booking.status()) || booking.startDate() == null || booking.endDate() == null
+                || booking.endDate().isBefore(booking.startDate())) {
+            return;
+        }
+        long low = booking.startDate().toEpochDay();
+        long high = booking.endDate().toEpochDay();
+        calendars.computeIfAbsent(booking.propertyId(), k -> new IntervalTree<>()).put(booking.leaseId(), low, high);
+        allBookings.put(booking.leaseId(), low, high);
+        leaseProperties.put(booking.leaseId(), booking.propertyId());
+    }
+
+    private void removeInternal(Long leaseId) {
+        Long propertyId = leaseProperties.remove(leaseId);
+        if (propertyId == null) {
+            return;
+        }
+        allBookings.remove(leaseId);
+        IntervalTree<Long> calendar = calendars.get(propertyId);
+        if (calendar != null) {
+            calendar.remove(leaseId);
+            if (calendar.size() == 0) {
+                calendars.remove(propertyId);
+            }
+        }
+    }
+
+    private record Booking(long leaseId, long propertyId, LocalDate startDate, LocalDate endDate, String status) {
+    }
+}
@@ -0,0 +1,370 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyAttribute;
+import com.kir.homerentalsystem.entity.PropertyAttributeValue;
+import com.kir.homerentalsystem.exception.AppException;
+import com.kir.homerentalsystem.exception.ErrorCode;
+import com.kir.homerentalsystem.util.TextUtil;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục cột theo từng thuộc tính, dữ liệu lấy từ {@link PropertyAttributeValue}:
+ * <ul>
+ *     <li>NUMBER, DATE: mảng giá trị đã sắp xếp, lọc khoảng bằng tìm kiếm nhị phân</li>
+ *     <li>BOOLEAN: bitset các bất động sản có giá trị true / false</li>
+ *     <li>TEXT: bitset theo từng giá trị đã bỏ dấu, chỉ hỗ trợ so sánh bằng</li>
+ * </ul>
+ * Mỗi bất động sản được gán một số thứ tự (ordinal) để kết quả các điều kiện được giao nhau bằng bitset;
+ * ordinal của bất động sản đã xóa được tái sử dụng. Các ô đã ghi của từng bất động sản được giữ lại
+ * để khi cập nhật chỉ xóa đúng các ô đó, và cập nhật không đổi giá trị thuộc tính nào được bỏ qua.
+ */
+@Component
+public class PropertyAttributeIndex implements PropertyIndex {
+    private static final String NUMBER = "NUMBER";
+    private static final String BOOLEAN = "BOOLEAN";
+    private static final String DATE = "DATE";
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<Long, List<Cell>> cells = new HashMap<>();
+    private long[] propertyIds = new long[1024];
+    private int nextOrdinal;
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    private final Map<Long, String> dataTypes = new HashMap<>();
+    private final Map<String, Long> attributeIds = new HashMap<>();
+    private final Map<Long, NumericColumn> numericColumns = new HashMap<>();
+    private final Map<Long, BitSet> trueColumns = new HashMap<>();
+    private final Map<Long, BitSet> falseColumns = new HashMap<>();
+    private final Map<Long, Map<String, BitSet>> textColumns = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        List<Cell> newCells = toCells(property);
+        lock.writeLock().lock();
+        try {
+            if (property.getAttributeValues() != null) {
+                for (PropertyAttributeValue attributeValue : property.getAttributeValues()) {
+                    PropertyAttribute attribute = attributeValue.getAttribute();
+                    if (attribute != null && attribute.getId() != null && attribute.getDataType() != null) {
+                        dataTypes.put(attribute.getId(), attribute.getDataType());
+                        attributeIds.put(attribute.getName(), attribute.getId());
+                    }
+                }
+            }
+            List<Cell> previous = cells.put(property.getPropertyId(), newCells);
+            Integer ordinal = ordinals.get(property.getPropertyId());
+            if (ordinal == null) {
+                ordinal = allocateOrdinal(property.getPropertyId());
+                ordinals.put(property.getPropertyId(), ordinal);
+            } else if (newCells.equals(previous)) {
+                return;
+            } else {
+                clearCells(ordinal, previous);
+            }
+            for (Cell cell : newCells) {
+                put(ordinal, cell);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(propertyId);
+            if (ordinal != null) {
+                clearCells(ordinal, cells.remove(propertyId));
+                freeOrdinals.push(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            cells.clear();
+            propertyIds = new long[1024];
+            nextOrdinal = 0;
+            freeOrdinals.clear();
+            dataTypes.clear();
+            attributeIds.clear();
+            numericColumns.clear();
+            trueColumns.clear();
+            falseColumns.clear();
+            textColumns.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Long> findAttributeId(String attributeName) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(attributeIds.get(attributeName));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Trả về id các bất động sản thỏa mãn đồng thời mọi điều kiện.
+     *
+     * @throws AppException INVALID_REQUEST nếu giá trị sai kiểu hoặc dùng so sánh khoảng cho thuộc tính BOOLEAN, TEXT
+     */
+    public List<Long> match(List<AttributePredicate> predicates) {
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (AttributePredicate predicate : predicates) {
+                BitSet matched = evaluate(predicate);
+                if (result == null) {
+                    result = matched;
+                } else {
+                    result.and(matched);
+                }
+                if (result.isEmpty()) {
+                    return List.of();
+                }
+            }
+            if (result == null) {
+                return List.of();
+            }
+            List<Long> ids = new ArrayList<>(result.cardinality());
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                ids.add(propertyIds[ordinal]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet evaluate(AttributePredicate predicate) {
+        String dataType = dataTypes.get(predicate.getAttributeId());
+        if (dataType == null) {
+            return new BitSet();
+        }
+        if (!NUMBER.equals(dataType) && !DATE.equals(dataType)
+                && predicate.getOperator() != AttributePredicate.Operator.EQ) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        if (BOOLEAN.equals(dataType) && !isBoolean(predicate.getValue())) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        return switch (dataType) {
+            case NUMBER, DATE -> {
+                NumericColumn column = numericColumns.get(predicate.getAttributeId());
+                yield column == null ? new BitSet() : numericRange(column, dataType, predicate);
+            }
+            case BOOLEAN -> copyOf((toBoolean(predicate.getValue()) ? trueColumns : falseColumns)
+                    .get(predicate.getAttributeId()));
+            default -> copyOf(textColumns.getOrDefault(predicate.getAttributeId(), Map.of())
+                    .get(TextUtil.fold(predicate.getValue())));
+        };
+    }
+
+    private BitSet numericRange(NumericColumn column, String dataType, AttributePredicate predicate) {
+        try {
+            double value = toNumber(dataType, predicate.getValue());
+            return switch (predicate.getOperator()) {
+                case EQ -> column.range(value, value);
+                case GTE -> column.range(value, Double.POSITIVE_INFINITY);
+                case LTE -> column.range(Double.NEGATIVE_INFINITY, value);
+                case BETWEEN -> column.range(value, toNumber(dataType, predicate.getSecondValue()));
+            };
+        } catch (RuntimeException e) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+    }
+
+    /**
+     * Chuyển giá trị thuộc tính thành các ô cần ghi, sắp theo id thuộc tính để so sánh được với lần ghi trước.
+     * Giá trị số hoặc ngày không đọc được bị bỏ qua.
+     */
+    private static List<Cell> toCells(Property property) {
+        if (property.getAttributeValues() == null) {
+            return List.of();
+        }
+        List<Cell> result = new ArrayList<>();
+        for (PropertyAttributeValue attributeValue : property.getAttributeValues()) {
+            PropertyAttribute attribute = attributeValue.getAttribute();
+            if (attribute == null || attribute.getId() == null || attribute.getDataType() == null
+                    || attributeValue.getValue() == null) {
+                continue;
+            }
+            String dataType = attribute.getDataType();
+            String value = attributeValue.getValue().trim();
+            switch (dataType) {
+                case NUMBER, DATE -> {
+                    try {
+                        result.add(new Cell(attribute.getId(), dataType, null, toNumber(dataType, value)));
+                    } catch (RuntimeException e) {
+                        // Bỏ qua giá trị sai định dạng
+                    }
+                }
+                case BOOLEAN -> result.add(new Cell(attribute.getId(), dataType,
+                        String.valueOf(toBoolean(value)), 0));
+                default -> result.add(new Cell(attribute.getId(), dataType, TextUtil.fold(value), 0));
+            }
+        }
+        result.sort(Comparator.comparing(Cell::attributeId));
+        return result;
+    }
+
+    private void put(int ordinal, Cell cell) {
+        switch (cell.dataType()) {
+            case NUMBER, DATE -> numericColumns.computeIfAbsent(cell.attributeId(), id -> new NumericColumn())
+                    .put(ordinal, cell.number());
+            case BOOLEAN -> (Boolean.parseBoolean(cell.key()) ? trueColumns : falseColumns)
+                    .computeIfAbsent(cell.attributeId(), id -> new BitSet()).set(ordinal);
+            default -> textColumns.computeIfAbsent(cell.attributeId(), id -> new HashMap<>())
+                    .computeIfAbsent(cell.key(), v -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void clearCells(int ordinal, List<Cell> previous) {
+        if (previous == null) {
+            return;
+        }
+        for (Cell cell : previous) {
+            switch (cell.dataType()) {
+                case NUMBER, DATE -> {
+                    NumericColumn column = numericColumns.get(cell.attributeId());
+                    if (column != null) {
+                        column.remove(ordinal, cell.number());
+                    }
+                }
+                case BOOLEAN -> {
+                    BitSet bits = (Boolean.parseBoolean(cell.key()) ? trueColumns : falseColumns)
+                            .get(cell.attributeId());
+                    if (bits != null) {
+                        bits.clear(ordinal);
+                    }
+                }
+                default -> {
+                    Map<String, BitSet> column = textColumns.get(cell.attributeId());
+                    BitSet bits = column != null ? column.get(cell.key()) : null;
+                    if (bits != null) {
+                        bits.clear(ordinal);
+                        // Giá trị văn bản không còn ai dùng thì bỏ hẳn để bảng không phình theo thời gian
+                        if (bits.isEmpty()) {
+                            column.remove(cell.key());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private int allocateOrdinal(Long propertyId) {
+        Integer free = freeOrdinals.poll();
+        int ordinal;
+        if (free != null) {
+            ordinal = free;
+        } else {
+            if (nextOrdinal == propertyIds.length) {
+                propertyIds = Arrays.copyOf(propertyIds, propertyIds.length * 2);
+            }
+            ordinal = nextOrdinal++;
+        }
+        propertyIds[ordinal] = propertyId;
+        return ordinal;
+    }
+
+    private static double toNumber(String dataType, String value) {
+        if (DATE.equals(dataType)) {
+            return LocalDate.parse(value).toEpochDay();
+        }
+        return Double.parseDouble(value.replace(',', '.'));
+    }
+
+    private static boolean toBoolean(String value) {
+        return "true".equalsIgnoreCase(value) || "1".equals(value);
+    }
+
+    private static boolean isBoolean(String value) {
+        return "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value) || "1".equals(value) || "0".equals(value);
+    }
+
+    private static BitSet copyOf(BitSet bits) {
+        return bits == null ? new BitSet() : (BitSet) bits.clone();
+    }
+
+    /**
+     * Giá trị của một thuộc tính đã ghi cho một bất động sản; {@code key} là chuỗi đã bỏ dấu (TEXT)
+     * hoặc "true"/"false" (BOOLEAN), {@code number} dùng cho NUMBER và DATE.
+     */
+    private record Cell(Long attributeId, String dataType, String key, double number) {
+    }
+
+    /**
+     * Cột số: các cặp (giá trị, ordinal) luôn được giữ sắp xếp trong hai mảng nguyên thủy.
+     * Mỗi lần ghi tìm vị trí bằng tìm kiếm nhị phân rồi dịch mảng, nên truy vấn không bao giờ phải sắp xếp lại.
+     */
+    private static class NumericColumn {
+        private double[] values = new double[16];
+        private int[] ordinals = new int[16];
+        private int size;
+
+        void put(int ordinal, double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            int position = position(value, ordinal);
+            System.arraycopy(values, position, values, position + 1, size - position);
+            System.arraycopy(ordinals, position, ordinals, position + 1, size - position);
+            values[position] = value;
+            ordinals[position] = ordinal;
+            size++;
+        }
+
+        void remove(int ordinal, double value) {
+            int position = position(value, ordinal);
+            if (position == size || ordinals[position] != ordinal || Double.compare(values[position], value) != 0) {
+                return;
+            }
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+            size--;
+        }
+
+        BitSet range(double min, double max) {
+            BitSet result = new BitSet();
+            for (int i = position(min, Integer.MIN_VALUE); i < size && values[i] <= max; i++) {
+                result.set(ordinals[i]);
+            }
+            return result;
+        }
+
+        /**
+         * Vị trí đầu tiên có (giá trị, ordinal) không nhỏ hơn cặp cần tìm.
+         */
+        private int position(double value, int ordinal) {
+            int low = 0, high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int compare = Double.compare(values[mid], value);
+                if (compare < 0 || compare == 0 && ordinals[mid] < ordinal) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
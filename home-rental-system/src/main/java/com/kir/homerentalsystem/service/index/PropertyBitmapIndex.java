@@ -0,0 +1,129 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.Property;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap nén (Roaring) chứa id bất động sản theo từng tiện ích, loại bất động sản
+ * và các cờ {@code isAvailable}, {@code isFeatured}. Lọc nhiều tiện ích cùng lúc
+ * là phép AND trên bitmap thay vì self-join bảng {@code property_amenity}.
+ */
+@Component
+public class PropertyBitmapIndex implements PropertyIndex {
+    private final Map<Long, RoaringBitmap> amenities = new HashMap<>();
+    private final Map<Long, RoaringBitmap> categories = new HashMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap available = new RoaringBitmap();
+    private final RoaringBitmap featured = new RoaringBitmap();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        int id = Math.toIntExact(property.getPropertyId());
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            all.add(id);
+            if (Boolean.TRUE.equals(property.getIsAvailable())) {
+                available.add(id);
+            }
+            if (Boolean.TRUE.equals(property.getIsFeatured())) {
+                featured.add(id);
+            }
+            if (property.getCategory() != null) {
+                categories.computeIfAbsent(property.getCategory().getCategoryId(), k -> new RoaringBitmap()).add(id);
+            }
+            if (property.getAmenities() != null) {
+                for (Amenity amenity : property.getAmenities()) {
+                    amenities.computeIfAbsent(amenity.getAmenityId(), k -> new RoaringBitmap()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(propertyId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            amenities.clear();
+            categories.clear();
+            all.clear();
+            available.clear();
+            featured.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Giao các bitmap ứng với điều kiện được truyền vào (tham số {@code null} được bỏ qua).
+     *
+     * @param amenityIds Bất động sản phải có đủ mọi tiện ích trong danh sách
+     * @param excluded   Bất động sản bị loại khỏi kết quả
+     * @return {@code null} nếu không có điều kiện nào, ngược lại là bitmap kết quả (bản sao)
+     */
+    public RoaringBitmap match(Collection<Long> amenityIds, Long categoryId, Boolean isAvailable, Boolean isFeatured,
+                               RoaringBitmap excluded) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> bitmaps = new ArrayList<>();
+            if (amenityIds != null) {
+                for (Long amenityId : amenityIds) {
+                    bitmaps.add(amenities.getOrDefault(amenityId, new RoaringBitmap()));
+                }
+            }
+            if (categoryId != null) {
+                bitmaps.add(categories.getOrDefault(categoryId, new RoaringBitmap()));
+            }
+            if (isAvailable != null) {
+                bitmaps.add(isAvailable ? available : RoaringBitmap.andNot(all, available));
+            }
+            if (isFeatured != null) {
+                bitmaps.add(isFeatured ? featured : RoaringBitmap.andNot(all, featured));
+            }
+            if (excluded != null) {
+                bitmaps.add(RoaringBitmap.andNot(all, excluded));
+            }
+            if (bitmaps.isEmpty()) {
+                return null;
+            }
+            // Giao từ bitmap nhỏ nhất để tập trung gian co lại nhanh nhất
+            bitmaps.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+            RoaringBitmap result = bitmaps.get(0).clone();
+            for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+                result.and(bitmaps.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(int id) {
+        if (!all.checkedRemove(id)) {
+            return;
+        }
+        available.remove(id);
+        featured.remove(id);
+        categories.values().forEach(bitmap -> bitmap.remove(id));
+        amenities.values().forEach(bitmap -> bitmap.remove(id));
+    }
+}
@@ -0,0 +1,256 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.dto.response.FacetBucket;
+import com.kir.homerentalsystem.dto.response.FacetResponse;
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Property;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Đếm số bất động sản theo loại, quận, tiện ích và khoảng giá.
+ * Bộ đếm cho toàn bộ tin và cho các tin còn trống được cập nhật dần theo từng thay đổi nên truy vấn
+ * chỉ lọc theo trạng thái trống (kể cả không lọc gì) trả về ngay; khi có bộ lọc khác, kết quả được đếm
+ * trong một lần duyệt qua tập id ứng viên.
+ */
+@Component
+public class PropertyFacetIndex implements PropertyIndex {
+    // Mốc chia khoảng giá thuê (VND/tháng)
+    private static final long[] PRICE_BOUNDARIES = {2_000_000, 5_000_000, 10_000_000, 20_000_000};
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<Long, String> amenityNames = new HashMap<>();
+    private final Counts allCounts = new Counts();
+    private final Counts availableCounts = new Counts();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        Entry entry = toEntry(property);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(property.getPropertyId(), entry);
+            if (previous != null) {
+                uncount(previous);
+            }
+            allCounts.add(entry, 1);
+            if (entry.available()) {
+                availableCounts.add(entry, 1);
+            }
+            if (property.getCategory() != null) {
+                categoryNames.put(property.getCategory().getCategoryId(), property.getCategory().getName());
+            }
+            if (property.getAmenities() != null) {
+                property.getAmenities().forEach(amenity -> amenityNames.put(amenity.getAmenityId(), amenity.getName()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(propertyId);
+            if (previous != null) {
+                uncount(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            categoryNames.clear();
+            amenityNames.clear();
+            allCounts.reset();
+            availableCounts.reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void uncount(Entry entry) {
+        allCounts.add(entry, -1);
+        if (entry.available()) {
+            availableCounts.add(entry, -1);
+        }
+    }
+
+    /**
+     * Đếm facet trên tập ứng viên.
+     *
+     * @param candidateIds Tập id cần đếm, {@code null} nghĩa là toàn bộ bất động sản
+     */
+    public FacetResponse count(Collection<Long> candidateIds, BigDecimal minPrice, BigDecimal maxPrice,
+                               Boolean isAvailable) {
+        lock.readLock().lock();
+        try {
+            if (candidateIds == null && minPrice == null && maxPrice == null) {
+                if (isAvailable == null) {
+                    return toResponse(allCounts);
+                }
+                // Tin đã cho thuê = toàn bộ - tin còn trống, chỉ tốn chi phí theo số khóa của bộ đếm
+                return toResponse(isAvailable ? availableCounts : allCounts.minus(availableCounts));
+            }
+            Collection<Entry> candidates = candidateIds == null ? entries.values()
+                    : candidateIds.stream().map(entries::get).filter(Objects::nonNull).toList();
+
+            Counts counts = new Counts();
+            for (Entry entry : candidates) {
+                if ((minPrice == null || (entry.price() != null && entry.price().compareTo(minPrice) >= 0))
+                        && (maxPrice == null || (entry.price() != null && entry.price().compareTo(maxPrice) <= 0))
+                        && (isAvailable == null || isAvailable == entry.available())) {
+                    counts.add(entry, 1);
+                }
+            }
+            return toResponse(counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FacetResponse toResponse(Counts counts) {
+        List<FacetBucket> priceRanges = new ArrayList<>();
+        for (int bucket = 0; bucket < counts.priceRanges.length; bucket++) {
+            if (counts.priceRanges[bucket] > 0) {
+                priceRanges.add(FacetBucket.builder()
+                        .key(priceRangeKey(bucket))
+                        .label(priceRangeLabel(bucket))
+                        .count(counts.priceRanges[bucket])
+                        .build());
+            }
+        }
+        return FacetResponse.builder()
+                .total(counts.total)
+                .categories(toBuckets(counts.categories, categoryNames))
+                .districts(toBuckets(counts.districts, null))
+                .amenities(toBuckets(counts.amenities, amenityNames))
+                .priceRanges(priceRanges)
+                .build();
+    }
+
+    private static <K> List<FacetBucket> toBuckets(Map<K, Long> counts, Map<K, String> labels) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<K, Long>comparingByValue().reversed())
+                .map(e -> FacetBucket.builder()
+                        .key(String.valueOf(e.getKey()))
+                        .label(labels != null ? labels.get(e.getKey()) : String.valueOf(e.getKey()))
+                        .count(e.getValue())
+                        .build())
+                .toList();
+    }
+
+    private static Entry toEntry(Property property) {
+        Location location = property.getLocation();
+        String district = location != null && location.getDistrict() != null
+                ? location.getDistrict() + ", " + location.getCity() : null;
+        long[] amenityIds = property.getAmenities() == null ? new long[0]
+                : property.getAmenities().stream().map(Amenity::getAmenityId).filter(Objects::nonNull)
+                .mapToLong(Long::longValue).distinct().toArray();
+        return new Entry(
+                property.getCategory() != null ? property.getCategory().getCategoryId() : null,
+                district,
+                amenityIds,
+                property.getPricePerMonth(),
+                priceBucket(property.getPricePerMonth()),
+                Boolean.TRUE.equals(property.getIsAvailable()));
+    }
+
+    private static int priceBucket(BigDecimal price) {
+        if (price == null) {
+            return -1;
+        }
+        int bucket = 0;
+        while (bucket < PRICE_BOUNDARIES.length && price.compareTo(BigDecimal.valueOf(PRICE_BOUNDARIES[bucket])) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static String priceRangeKey(int bucket) {
+        String from = bucket == 0 ? "0" : String.valueOf(PRICE_BOUNDARIES[bucket - 1]);
+        String to = bucket == PRICE_BOUNDARIES.length ? "" : String.valueOf(PRICE_BOUNDARIES[bucket]);
+        return from + "-" + to;
+    }
+
+    private static String priceRangeLabel(int bucket) {
+        if (bucket == 0) {
+            return "Dưới " + PRICE_BOUNDARIES[0] / 1_000_000 + " triệu";
+        }
+        if (bucket == PRICE_BOUNDARIES.length) {
+            return "Trên " + PRICE_BOUNDARIES[bucket - 1] / 1_000_000 + " triệu";
+        }
+        return PRICE_BOUNDARIES[bucket - 1] / 1_000_000 + " - " + PRICE_BOUNDARIES[bucket] / 1_000_000 + " triệu";
+    }
+
+    private record Entry(Long categoryId, String district, long[] amenityIds,
+                         BigDecimal price, int priceBucket, boolean available) {
+    }
+
+    private static class Counts {
+        private long total;
+        private final Map<Long, Long> categories = new HashMap<>();
+        private final Map<String, Long> districts = new HashMap<>();
+        private final Map<Long, Long> amenities = new HashMap<>();
+        private final long[] priceRanges = new long[PRICE_BOUNDARIES.length + 1];
+
+        void add(Entry entry, int delta) {
+            total += delta;
+            increment(categories, entry.categoryId(), delta);
+            increment(districts, entry.district(), delta);
+            for (long amenityId : entry.amenityIds()) {
+                increment(amenities, amenityId, delta);
+            }
+            if (entry.priceBucket() >= 0) {
+                priceRanges[entry.priceBucket()] += delta;
+            }
+        }
+
+        Counts minus(Counts other) {
+            Counts result = new Counts();
+            result.total = total - other.total;
+            subtract(result.categories, categories, other.categories);
+            subtract(result.districts, districts, other.districts);
+            subtract(result.amenities, amenities, other.amenities);
+            for (int bucket = 0; bucket < priceRanges.length; bucket++) {
+                result.priceRanges[bucket] = priceRanges[bucket] - other.priceRanges[bucket];
+            }
+            return result;
+        }
+
+        void reset() {
+            total = 0;
+            categories.clear();
+            districts.clear();
+            amenities.clear();
+            Arrays.fill(priceRanges, 0);
+        }
+
+        private static <K> void subtract(Map<K, Long> result, Map<K, Long> counts, Map<K, Long> other) {
+            counts.forEach((key, count) -> {
+                long difference = count - other.getOrDefault(key, 0L);
+                if (difference != 0) {
+                    result.put(key, difference);
+                }
+            });
+        }
+
+        private static <K> void increment(Map<K, Long> counts, K key, int delta) {
+            if (key != null) {
+                counts.merge(key, (long) delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+    }
+}
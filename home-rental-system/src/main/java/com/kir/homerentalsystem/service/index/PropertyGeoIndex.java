@@ -0,0 +1,203 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.dto.request.GeoPoint;
+import com.kir.homerentalsystem.entity.Property;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiPredicate;
+
+/**
+ * Chỉ mục không gian dạng lưới trên tọa độ riêng (latitude, longitude) của bất động sản.
+ * Mỗi ô lưới rộng {@value #CELL_SIZE} độ (~1.1 km), truy vấn chỉ duyệt các ô
+ * giao với vùng tìm kiếm rồi lọc chính xác trên tọa độ.
+ */
+@Component
+public class PropertyGeoIndex implements PropertyIndex {
+    private static final double CELL_SIZE = 0.01;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final Map<Long, double[]> coordinates = new HashMap<>();
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(property.getPropertyId());
+            if (property.getLatitude() == null || property.getLongitude() == null) {
+                return;
+            }
+            double latitude = property.getLatitude().doubleValue();
+            double longitude = property.getLongitude().doubleValue();
+            coordinates.put(property.getPropertyId(), new double[]{latitude, longitude});
+            cells.computeIfAbsent(cellKey(cellIndex(latitude), cellIndex(longitude)), k -> new HashSet<>())
+                    .add(property.getPropertyId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            coordinates.clear();
+            cells.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tìm các bất động sản nằm trong bán kính {@code radiusKm} tính từ một điểm.
+     *
+     * @return Danh sách id, sắp xếp tăng dần theo khoảng cách
+     */
+    public List<Long> withinRadius(double latitude, double longitude, double radiusKm) {
+        // Khung bao chính xác của vòng tròn trên mặt cầu cùng bán kính với haversine, không bỏ sót điểm ở mép
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        double deltaLatitude = Math.toDegrees(angularRadius);
+        double sinLongitude = Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude));
+        double deltaLongitude = sinLongitude >= 1 ? 180 : Math.toDegrees(Math.asin(sinLongitude));
+
+        Map<Long, Double> distances = new HashMap<>();
+        search(latitude - deltaLatitude, longitude - deltaLongitude,
+                latitude + deltaLatitude, longitude + deltaLongitude,
+                (propertyId, point) -> {
+                    double distance = haversineKm(latitude, longitude, point[0], point[1]);
+                    if (distance <= radiusKm) {
+                        distances.put(propertyId, distance);
+                        return true;
+                    }
+                    return false;
+                });
+
+        List<Long> result = new ArrayList<>(distances.keySet());
+        result.sort(Comparator.comparing(distances::get));
+        return result;
+    }
+
+    public List<Long> withinBoundingBox(double minLatitude, double minLongitude,
+                                        double maxLatitude, double maxLongitude) {
+        return search(minLatitude, minLongitude, maxLatitude, maxLongitude, (propertyId, point) -> true);
+    }
+
+    /**
+     * Tìm các bất động sản nằm trong đa giác (thuật toán ray casting trên mặt phẳng lat/lng).
+     */
+    public List<Long> withinPolygon(List<GeoPoint> polygon) {
+        double minLatitude = Double.MAX_VALUE, minLongitude = Double.MAX_VALUE;
+        double maxLatitude = -Double.MAX_VALUE, maxLongitude = -Double.MAX_VALUE;
+        for (GeoPoint point : polygon) {
+            minLatitude = Math.min(minLatitude, point.getLatitude());
+            maxLatitude = Math.max(maxLatitude, point.getLatitude());
+            minLongitude = Math.min(minLongitude, point.getLongitude());
+            maxLongitude = Math.max(maxLongitude, point.getLongitude());
+        }
+        return search(minLatitude, minLongitude, maxLatitude, maxLongitude,
+                (propertyId, point) -> containsPoint(polygon, point[0], point[1]));
+    }
+
+    private List<Long> search(double minLatitude, double minLongitude,
+                              double maxLatitude, double maxLongitude,
+                              BiPredicate<Long, double[]> filter) {
+        int minLatCell = cellIndex(minLatitude), maxLatCell = cellIndex(maxLatitude);
+        int minLngCell = cellIndex(minLongitude), maxLngCell = cellIndex(maxLongitude);
+        long cellCount = (long) (maxLatCell - minLatCell + 1) * (maxLngCell - minLngCell + 1);
+
+        List<Long> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BiPredicate<Long, double[]> accept = (propertyId, point) ->
+                    point[0] >= minLatitude && point[0] <= maxLatitude
+                            && point[1] >= minLongitude && point[1] <= maxLongitude
+                            && filter.test(propertyId, point);
+
+            // Vùng tìm kiếm quá lớn so với số điểm: duyệt thẳng danh sách tọa độ sẽ rẻ hơn duyệt lưới
+            if (cellCount > coordinates.size()) {
+                coordinates.forEach((propertyId, point) -> {
+                    if (accept.test(propertyId, point)) {
+                        result.add(propertyId);
+                    }
+                });
+                return result;
+            }
+
+            for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+                for (int lngCell = minLngCell; lngCell <= maxLngCell; lngCell++) {
+                    Set<Long> cell = cells.get(cellKey(latCell, lngCell));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Long propertyId : cell) {
+                        if (accept.test(propertyId, coordinates.get(propertyId))) {
+                            result.add(propertyId);
+                        }
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long propertyId) {
+        double[] point = coordinates.remove(propertyId);
+        if (point == null) {
+            return;
+        }
+        long key = cellKey(cellIndex(point[0]), cellIndex(point[1]));
+        Set<Long> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(propertyId);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private static boolean containsPoint(List<GeoPoint> polygon, double latitude, double longitude) {
+        boolean inside = false;
+        for (int i = 0, j = polygon.size() - 1; i < polygon.size(); j = i++) {
+            double latI = polygon.get(i).getLatitude(), lngI = polygon.get(i).getLongitude();
+            double latJ = polygon.get(j).getLatitude(), lngJ = polygon.get(j).getLongitude();
+            if ((latI > latitude) != (latJ > latitude)
+                    && longitude < (lngJ - lngI) * (latitude - latI) / (latJ - latI) + lngI) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE);
+    }
+
+    private static long cellKey(int latCell, int lngCell) {
+        return ((long) latCell << 32) | (lngCell & 0xffffffffL);
+    }
+}
@@ -0,0 +1,18 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Property;
+
+/**
+ * Chỉ mục trong bộ nhớ được {@link PropertyIndexer} nạp khi khởi động
+ * và cập nhật theo {@link com.kir.homerentalsystem.event.PropertyChangedEvent}.
+ */
+public interface PropertyIndex {
+    /**
+     * Thêm mới hoặc thay thế dữ liệu của một bất động sản trong chỉ mục.
+     */
+    void index(Property property);
+
+    void remove(Long propertyId);
+
+    void clear();
+}
@@ -0,0 +1,89 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import com.kir.homerentalsystem.repository.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Nạp toàn bộ bất động sản vào các {@link PropertyIndex} khi ứng dụng khởi động,
+ * sau đó đồng bộ từng thay đổi sau khi transaction ghi đã commit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PropertyIndexer {
+    private static final int BATCH_SIZE = 500;
+
+    private final PropertyRepository propertyRepository;
+    private final List<PropertyIndex> indexes;
+    private final PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        indexes.forEach(PropertyIndex::clear);
+
+        int page = 0;
+        boolean hasNext = true;
+        while (hasNext) {
+            PageRequest pageRequest = PageRequest.of(page++, BATCH_SIZE, Sort.by("propertyId"));
+            Boolean next = readOnlyTransaction().execute(status -> {
+                Slice<Property> properties = propertyRepository.findAll(pageRequest);
+                properties.forEach(this::indexAll);
+                return properties.hasNext();
+            });
+            hasNext = Boolean.TRUE.equals(next);
+        }
+        log.info("Property indexes rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        switch (event.getType()) {
+            // Đọc lại bản ghi đã commit để có đủ các quan hệ lazy (tiện ích, thuộc tính) khi đánh chỉ mục
+            case CREATED, UPDATED -> readOnlyTransaction().executeWithoutResult(status -> indexAll(
+                    propertyRepository.findById(event.getPropertyId()).orElse(event.getProperty())));
+            case DELETED -> indexes.forEach(index -> {
+                try {
+                    index.remove(event.getPropertyId());
+                } catch (Exception e) {
+                    log.error("Failed to remove property {} from {}", event.getPropertyId(),
+                            index.getClass().getSimpleName(), e);
+                }
+            });
+        }
+    }
+
+    private void indexAll(Property property) {
+        for (PropertyIndex index : indexes) {
+            try {
+                index.index(property);
+            } catch (Exception e) {
+                log.error("Failed to index property {} into {}", property.getPropertyId(),
+                        index.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    // REQUIRES_NEW: listener chạy sau commit, không được tham gia vào transaction vừa kết thúc
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return template;
+    }
+}
@@ -0,0 +1,182 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.util.TextUtil;
+import com.tdunning.math.stats.TDigest;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Phân phối giá thuê theo (thành phố, quận, loại bất động sản), lưu bằng t-digest.
+ * <p>
+ * Mỗi tin đăng được cộng vào mọi tổ hợp của ba tiêu chí, trong đó tiêu chí bỏ trống là {@code null}
+ * (ví dụ cả thành phố, hoặc một loại trên toàn quốc), nên mọi truy vấn chỉ là một lần tra bảng.
+ * Thêm mới chỉ cần đưa giá vào digest; khi xóa hoặc đổi giá, digest của tổ hợp được đánh dấu
+ * và dựng lại ở lần đọc tiếp theo từ bảng đếm theo mức giá (t-digest không hỗ trợ xóa phần tử,
+ * còn giá thuê thường lặp lại nên số mức giá khác nhau ít hơn nhiều so với số tin).
+ * Cập nhật không đổi nhóm và giá (ví dụ chỉ đổi trạng thái hợp đồng) được bỏ qua.
+ */
+@Component
+public class PropertyPriceIndex implements PropertyIndex {
+    private static final double COMPRESSION = 100;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<GroupKey, Rollup> rollups = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        Location location = property.getLocation();
+        if (property.getPricePerMonth() == null || location == null || property.getCategory() == null) {
+            remove(property.getPropertyId());
+            return;
+        }
+        Entry entry = new Entry(new GroupKey(TextUtil.fold(location.getCity()).trim(),
+                TextUtil.fold(location.getDistrict()).trim(),
+                property.getCategory().getCategoryId()),
+                property.getPricePerMonth().doubleValue());
+
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(property.getPropertyId(), entry);
+            if (entry.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                removeFromRollups(previous);
+            }
+            for (GroupKey key : entry.group().rollupKeys()) {
+                rollups.computeIfAbsent(key, k -> new Rollup()).add(entry.price());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(propertyId);
+            if (previous != null) {
+                removeFromRollups(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            rollups.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lấy digest của tổ hợp tiêu chí, tham số {@code null} nghĩa là không lọc theo tiêu chí đó.
+     *
+     * @return Bản sao digest của tổ hợp, {@code null} nếu không có dữ liệu
+     */
+    public TDigest digest(String city, String district, Long categoryId) {
+        GroupKey key = new GroupKey(city != null ? TextUtil.fold(city).trim() : null,
+                district != null ? TextUtil.fold(district).trim() : null,
+                categoryId);
+
+        lock.readLock().lock();
+        try {
+            Rollup rollup = rollups.get(key);
+            return rollup != null ? rollup.snapshot() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeFromRollups(Entry entry) {
+        for (GroupKey key : entry.group().rollupKeys()) {
+            Rollup rollup = rollups.get(key);
+            if (rollup != null && rollup.remove(entry.price())) {
+                rollups.remove(key);
+            }
+        }
+    }
+
+    private record Entry(GroupKey group, double price) {
+    }
+
+    private record GroupKey(String city, String district, Long categoryId) {
+        /**
+         * Tám tổ hợp của ba tiêu chí mà tin đăng thuộc về, kể cả nhóm toàn bộ (cả ba đều {@code null}).
+         */
+        GroupKey[] rollupKeys() {
+            GroupKey[] keys = new GroupKey[8];
+            for (int mask = 0; mask < 8; mask++) {
+                keys[mask] = new GroupKey((mask & 1) != 0 ? city : null,
+                        (mask & 2) != 0 ? district : null,
+                        (mask & 4) != 0 ? categoryId : null);
+            }
+            return keys;
+        }
+    }
+
+    private static class Rollup {
+        private final Map<Double, Integer> counts = new HashMap<>();
+        private long size;
+        private TDigest digest = TDigest.createMergingDigest(COMPRESSION);
+        private boolean dirty;
+
+        // Ghi chỉ diễn ra dưới write lock nên không tranh chấp với snapshot()
+        void add(double price) {
+            counts.merge(price, 1, Integer::sum);
+            size++;
+            if (!dirty) {
+                digest.add(price);
+            }
+        }
+
+        /**
+         * @return {@code true} nếu tổ hợp không còn phần tử nào
+         */
+        boolean remove(double price) {
+            Integer count = counts.get(price);
+            if (count != null) {
+                if (count == 1) {
+                    counts.remove(price);
+                } else {
+                    counts.put(price, count - 1);
+                }
+                size--;
+                dirty = true;
+            }
+            return size == 0;
+        }
+
+        // Được gọi dưới read lock; đọc digest cũng có thể nén lại buffer bên trong nên cần đồng bộ riêng.
+        // Trả về bản sao để người gọi đọc thoải mái mà không giữ khóa, chi phí chỉ phụ thuộc số centroid.
+        synchronized TDigest snapshot() {
+            if (dirty) {
+                TDigest rebuilt = TDigest.createMergingDigest(COMPRESSION);
+                // Không dùng add(giá, trọng số): một điểm quá nặng phá vỡ giới hạn kích thước centroid của MergingDigest
+                counts.forEach((price, count) -> {
+                    for (int i = 0; i < count; i++) {
+                        rebuilt.add(price);
+                    }
+                });
+                digest = rebuilt;
+                dirty = false;
+            }
+            TDigest copy = TDigest.createMergingDigest(COMPRESSION);
+            copy.add(digest);
+            return copy;
+        }
+    }
+}
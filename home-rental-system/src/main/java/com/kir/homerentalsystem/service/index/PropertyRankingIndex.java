@@ -0,0 +1,239 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.Review;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Xếp hạng "phù hợp nhất" cho danh sách bất động sản công khai.
+ * Điểm được tính sẵn cho từng bất động sản từ: tin nổi bật, độ mới, số ảnh, giá so với trung vị của quận
+ * và đánh giá của người thuê; thứ tự được giữ trong một tập đã sắp xếp nên lấy một trang chỉ là cắt mảng.
+ * <p>
+ * Độ mới được cộng theo thang log (mỗi {@value #RECENCY_HALF_LIFE_DAYS} ngày tương đương nhân đôi điểm),
+ * nên thứ tự giữa các bất động sản không đổi theo thời gian và không cần tính lại định kỳ.
+ */
+@Component
+public class PropertyRankingIndex implements PropertyIndex {
+    private static final double RECENCY_HALF_LIFE_DAYS = 30;
+    private static final double FEATURED_WEIGHT = 1.0;
+    private static final double PHOTO_WEIGHT = 0.3;
+    private static final double PRICE_WEIGHT = 0.5;
+    private static final double RATING_WEIGHT = 0.2;
+    // Số đánh giá "ảo" ở mức trung bình, tránh một đánh giá 5 sao đẩy tin mới lên đầu
+    private static final int RATING_PRIOR = 5;
+    private static final double NEUTRAL_RATING = 3;
+
+    private final Map<Long, Features> features = new HashMap<>();
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final NavigableSet<Long> ranking = new TreeSet<>(this::compareByScore);
+    private final Map<String, Set<Long>> districtMembers = new HashMap<>();
+    private final Map<String, Double> districtMedians = new HashMap<>();
+    private long[] rankedIds = new long[0];
+    private boolean dirty;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        Features feature = toFeatures(property);
+        lock.writeLock().lock();
+        try {
+            String previousDistrict = removeInternal(property.getPropertyId());
+            features.put(property.getPropertyId(), feature);
+            if (feature.district() != null) {
+                districtMembers.computeIfAbsent(feature.district(), k -> new HashSet<>()).add(property.getPropertyId());
+                refreshDistrict(feature.district());
+            } else {
+                rescore(property.getPropertyId());
+            }
+            if (previousDistrict != null && !previousDistrict.equals(feature.district())) {
+                refreshDistrict(previousDistrict);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            String previousDistrict = removeInternal(propertyId);
+            if (previousDistrict != null) {
+                refreshDistrict(previousDistrict);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            features.clear();
+            scores.clear();
+            ranking.clear();
+            districtMembers.clear();
+            districtMedians.clear();
+            rankedIds = new long[0];
+            dirty = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return features.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lấy id của một trang theo thứ tự điểm giảm dần.
+     */
+    public List<Long> page(long offset, int size) {
+        lock.writeLock().lock();
+        try {
+            if (dirty) {
+                rankedIds = ranking.stream().mapToLong(Long::longValue).toArray();
+                dirty = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lock.readLock().lock();
+        try {
+            int from = (int) Math.min(offset, rankedIds.length);
+            int to = Math.min(from + size, rankedIds.length);
+            List<Long> ids = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                ids.add(rankedIds[i]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String removeInternal(Long propertyId) {
+        Features previous = features.remove(propertyId);
+        if (previous == null) {
+            return null;
+        }
+        ranking.remove(propertyId);
+        scores.remove(propertyId);
+        dirty = true;
+        if (previous.district() != null) {
+            Set<Long> members = districtMembers.get(previous.district());
+            if (members != null) {
+                members.remove(propertyId);
+                if (members.isEmpty()) {
+                    districtMembers.remove(previous.district());
+                    districtMedians.remove(previous.district());
+                }
+            }
+        }
+        return previous.district();
+    }
+
+    /**
+     * Tính lại trung vị giá của quận; nếu trung vị đổi thì chấm lại điểm cho mọi bất động sản trong quận.
+     */
+    private void refreshDistrict(String district) {
+        Set<Long> members = districtMembers.get(district);
+        if (members == null) {
+            return;
+        }
+        double[] prices = members.stream()
+                .map(features::get)
+                .filter(feature -> feature.price() != null)
+                .mapToDouble(Features::price)
+                .sorted()
+                .toArray();
+        Double median = prices.length == 0 ? null : prices.length % 2 == 1
+                ? prices[prices.length / 2]
+                : (prices[prices.length / 2 - 1] + prices[prices.length / 2]) / 2;
+        Double previousMedian = median == null ? districtMedians.remove(district) : districtMedians.put(district, median);
+        if (Objects.equals(previousMedian, median)) {
+            members.stream().filter(id -> !scores.containsKey(id)).toList().forEach(this::rescore);
+        } else {
+            members.forEach(this::rescore);
+        }
+    }
+
+    private void rescore(Long propertyId) {
+        Features feature = features.get(propertyId);
+        if (scores.containsKey(propertyId)) {
+            ranking.remove(propertyId);
+        }
+        scores.put(propertyId, score(feature, feature.district() != null ? districtMedians.get(feature.district()) : null));
+        ranking.add(propertyId);
+        dirty = true;
+    }
+
+    private static double score(Features feature, Double districtMedian) {
+        double score = feature.epochDays() * Math.log(2) / RECENCY_HALF_LIFE_DAYS;
+        if (feature.featured()) {
+            score += FEATURED_WEIGHT;
+        }
+        score += PHOTO_WEIGHT * Math.log1p(feature.photoCount());
+        if (feature.price() != null && districtMedian != null && districtMedian > 0) {
+            // Rẻ hơn trung vị của quận được cộng điểm, đắt hơn bị trừ
+            double relative = (districtMedian - feature.price()) / districtMedian;
+            score += PRICE_WEIGHT * Math.max(-1, Math.min(1, relative));
+        }
+        if (feature.reviewCount() > 0) {
+            double rating = (feature.ratingSum() + NEUTRAL_RATING * RATING_PRIOR) / (feature.reviewCount() + RATING_PRIOR);
+            score += RATING_WEIGHT * (rating - NEUTRAL_RATING);
+        }
+        return score;
+    }
+
+    private int compareByScore(Long left, Long right) {
+        int compare = Double.compare(scores.get(right), scores.get(left));
+        return compare != 0 ? compare : Long.compare(right, left);
+    }
+
+    private static Features toFeatures(Property property) {
+        LocalDateTime lastChanged = property.getUpdatedAt() != null ? property.getUpdatedAt() : property.getCreatedAt();
+        double epochDays = lastChanged == null ? 0 : lastChanged.toEpochSecond(ZoneOffset.UTC) / 86_400.0;
+
+        Location location = property.getLocation();
+        String district = location != null && location.getDistrict() != null
+                ? location.getDistrict() + ", " + location.getCity() : null;
+
+        int reviewCount = 0;
+        long ratingSum = 0;
+        if (property.getReviews() != null) {
+            for (Review review : property.getReviews()) {
+                if (review.getRating() != null && !Boolean.FALSE.equals(review.getIsPublic())) {
+                    reviewCount++;
+                    ratingSum += review.getRating();
+                }
+            }
+        }
+
+        return new Features(
+                Boolean.TRUE.equals(property.getIsFeatured()),
+                epochDays,
+                property.getPropertyImages() != null ? property.getPropertyImages().size() : 0,
+                property.getPricePerMonth() != null ? property.getPricePerMonth().doubleValue() : null,
+                district,
+                reviewCount,
+                ratingSum);
+    }
+
+    private record Features(boolean featured, double epochDays, int photoCount, Double price,
+                            String district, int reviewCount, long ratingSum) {
+    }
+}
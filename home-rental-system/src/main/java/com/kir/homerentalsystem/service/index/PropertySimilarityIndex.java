@@ -0,0 +1,309 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyAttribute;
+import com.kir.homerentalsystem.entity.PropertyAttributeValue;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Tìm bất động sản tương tự theo nội dung. Mỗi bất động sản được mã hóa thành một vector gồm các nhóm:
+ * <ul>
+ *     <li>loại bất động sản: one-hot, mỗi loại một chiều riêng</li>
+ *     <li>giá thuê: theo thang log</li>
+ *     <li>thuộc tính số (diện tích, số phòng...): log của giá trị, mỗi thuộc tính một chiều riêng</li>
+ *     <li>tiện ích: mỗi tiện ích một chiều, chuẩn hóa theo số tiện ích</li>
+ *     <li>tọa độ: điểm trên mặt cầu đơn vị nên khoảng cách Euclid xấp xỉ khoảng cách địa lý</li>
+ * </ul>
+ * Id loại, thuộc tính và tiện ích được đánh số liên tiếp khi lần đầu xuất hiện nên hai đặc trưng khác nhau
+ * không bao giờ dùng chung một chiều. Khi một nhóm hết chỗ, sức chứa của nhóm được nhân đôi và các vector
+ * được dựng lại từ đặc trưng đã lưu (chỉ xảy ra khi có loại, thuộc tính hoặc tiện ích mới).
+ * <p>
+ * Các vector nằm liền nhau trong một mảng float; truy vấn top-K quét toàn bộ mảng với vòng lặp
+ * không rẽ nhánh mà JIT có thể vector hóa, đủ nhanh với vài trăm nghìn tin đăng.
+ */
+@Component
+public class PropertySimilarityIndex implements PropertyIndex {
+    private static final int INITIAL_CATEGORY_SLOTS = 8;
+    private static final int INITIAL_NUMERIC_SLOTS = 16;
+    private static final int INITIAL_AMENITY_SLOTS = 32;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Trọng số của từng nhóm đặc trưng; khác loại bất động sản bị phạt nặng nhất
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float PRICE_WEIGHT = 1.0f;
+    private static final float NUMERIC_WEIGHT = 0.5f;
+    private static final float AMENITY_WEIGHT = 0.5f;
+    // Bán kính Trái Đất ~6371 km, trọng số 50 nghĩa là cách nhau khoảng 10 km tương đương giá gấp ~1,1 lần
+    private static final float LOCATION_WEIGHT = 50.0f;
+    private static final String NUMBER = "NUMBER";
+
+    private final Map<Long, Integer> categoryOrdinals = new HashMap<>();
+    private final Map<Long, Integer> attributeOrdinals = new HashMap<>();
+    private final Map<Long, Integer> amenityOrdinals = new HashMap<>();
+    private int categorySlots;
+    private int numericSlots;
+    private int amenitySlots;
+    private int dimensions;
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<Long, Features> features = new HashMap<>();
+    private long[] propertyIds;
+    private float[] vectors;
+    private int size;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public PropertySimilarityIndex() {
+        reset();
+    }
+
+    @Override
+    public void index(Property property) {
+        lock.writeLock().lock();
+        try {
+            Features feature = toFeatures(property);
+            features.put(property.getPropertyId(), feature);
+            Integer ordinal = ordinals.get(property.getPropertyId());
+            if (ordinal == null) {
+                ordinal = size++;
+                ensureCapacity(size);
+                ordinals.put(property.getPropertyId(), ordinal);
+                propertyIds[ordinal] = property.getPropertyId();
+            }
+            if (!growSlots()) {
+                encode(feature, vectors, ordinal * dimensions);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(propertyId);
+            if (ordinal == null) {
+                return;
+            }
+            features.remove(propertyId);
+            // Dời phần tử cuối vào chỗ trống để mảng luôn liền mạch
+            int last = --size;
+            if (ordinal != last) {
+                propertyIds[ordinal] = propertyIds[last];
+                System.arraycopy(vectors, last * dimensions, vectors, ordinal * dimensions, dimensions);
+                ordinals.put(propertyIds[ordinal], ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Id của tối đa {@code limit} bất động sản gần nhất, gần nhất trước; rỗng nếu bất động sản chưa được đánh chỉ mục
+     */
+    public List<Long> similarTo(Long propertyId, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer target = ordinals.get(propertyId);
+            if (target == null || limit <= 0) {
+                return List.of();
+            }
+            float[] query = Arrays.copyOfRange(vectors, target * dimensions, (target + 1) * dimensions);
+
+            // Max-heap theo khoảng cách, giữ K ứng viên gần nhất
+            PriorityQueue<Neighbor> nearest = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingDouble(Neighbor::distance).reversed());
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (ordinal == target) {
+                    continue;
+                }
+                float distance = squaredDistance(query, vectors, ordinal * dimensions);
+                if (nearest.size() < limit) {
+                    nearest.add(new Neighbor(propertyIds[ordinal], distance));
+                } else if (distance < nearest.peek().distance()) {
+                    nearest.poll();
+                    nearest.add(new Neighbor(propertyIds[ordinal], distance));
+                }
+            }
+
+            List<Neighbor> sorted = new ArrayList<>(nearest);
+            sorted.sort(Comparator.comparingDouble(Neighbor::distance).thenComparingLong(Neighbor::propertyId));
+            return sorted.stream().map(Neighbor::propertyId).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static float squaredDistance(float[] query, float[] vectors, int offset) {
+        float sum = 0;
+        for (int i = 0; i < query.length; i++) {
+            float diff = query[i] - vectors[offset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    private void reset() {
+        categoryOrdinals.clear();
+        attributeOrdinals.clear();
+        amenityOrdinals.clear();
+        ordinals.clear();
+        features.clear();
+        categorySlots = INITIAL_CATEGORY_SLOTS;
+        numericSlots = INITIAL_NUMERIC_SLOTS;
+        amenitySlots = INITIAL_AMENITY_SLOTS;
+        dimensions = computeDimensions();
+        propertyIds = new long[INITIAL_CAPACITY];
+        vectors = new float[INITIAL_CAPACITY * dimensions];
+        size = 0;
+    }
+
+    // Bố cục vector: [loại][giá][thuộc tính số][tiện ích][tọa độ x, y, z]
+    private int computeDimensions() {
+        return categorySlots + 1 + numericSlots + amenitySlots + 3;
+    }
+
+    /**
+     * Nới sức chứa các nhóm nếu đã có ordinal vượt quá, rồi dựng lại toàn bộ vector theo bố cục mới.
+     *
+     * @return {@code true} nếu đã dựng lại (mọi vector, kể cả vector vừa thêm, đã được ghi)
+     */
+    private boolean growSlots() {
+        int newCategorySlots = grow(categorySlots, categoryOrdinals.size());
+        int newNumericSlots = grow(numericSlots, attributeOrdinals.size());
+        int newAmenitySlots = grow(amenitySlots, amenityOrdinals.size());
+        if (newCategorySlots == categorySlots && newNumericSlots == numericSlots && newAmenitySlots == amenitySlots) {
+            return false;
+        }
+        categorySlots = newCategorySlots;
+        numericSlots = newNumericSlots;
+        amenitySlots = newAmenitySlots;
+        dimensions = computeDimensions();
+        vectors = new float[propertyIds.length * dimensions];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            encode(features.get(propertyIds[ordinal]), vectors, ordinal * dimensions);
+        }
+        return true;
+    }
+
+    private static int grow(int slots, int required) {
+        while (slots < required) {
+            slots *= 2;
+        }
+        return slots;
+    }
+
+    private void encode(Features feature, float[] target, int offset) {
+        Arrays.fill(target, offset, offset + dimensions, 0);
+        if (feature.category() >= 0) {
+            target[offset + feature.category()] = CATEGORY_WEIGHT;
+        }
+        int priceOffset = offset + categorySlots;
+        target[priceOffset] = feature.price();
+        int numericOffset = priceOffset + 1;
+        for (int i = 0; i < feature.attributes().length; i++) {
+            target[numericOffset + feature.attributes()[i]] = feature.attributeValues()[i];
+        }
+        int amenityOffset = numericOffset + numericSlots;
+        if (feature.amenities().length > 0) {
+            float weight = AMENITY_WEIGHT / (float) Math.sqrt(feature.amenities().length);
+            for (int amenity : feature.amenities()) {
+                target[amenityOffset + amenity] = weight;
+            }
+        }
+        System.arraycopy(feature.location(), 0, target, amenityOffset + amenitySlots, 3);
+    }
+
+    private Features toFeatures(Property property) {
+        int category = -1;
+        if (property.getCategory() != null && property.getCategory().getCategoryId() != null) {
+            category = ordinal(categoryOrdinals, property.getCategory().getCategoryId());
+        }
+
+        float price = 0;
+        if (property.getPricePerMonth() != null) {
+            // Tính theo triệu đồng để log giữ được độ phân giải ở mức giá phổ biến
+            price = PRICE_WEIGHT * (float) Math.log1p(Math.max(0, property.getPricePerMonth().doubleValue()) / 1_000_000);
+        }
+
+        Map<Integer, Float> numeric = new TreeMap<>();
+        if (property.getAttributeValues() != null) {
+            for (PropertyAttributeValue attributeValue : property.getAttributeValues()) {
+                PropertyAttribute attribute = attributeValue.getAttribute();
+                if (attribute == null || attribute.getId() == null || !NUMBER.equals(attribute.getDataType())
+                        || attributeValue.getValue() == null) {
+                    continue;
+                }
+                try {
+                    double value = Double.parseDouble(attributeValue.getValue().trim());
+                    numeric.put(ordinal(attributeOrdinals, attribute.getId()),
+                            NUMERIC_WEIGHT * (float) Math.log1p(Math.max(0, value)));
+                } catch (NumberFormatException ignored) {
+                    // Giá trị không phải số thì bỏ qua
+                }
+            }
+        }
+        int[] attributes = numeric.keySet().stream().mapToInt(Integer::intValue).toArray();
+        float[] attributeValues = new float[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            attributeValues[i] = numeric.get(attributes[i]);
+        }
+
+        int[] amenities = new int[0];
+        if (property.getAmenities() != null) {
+            amenities = property.getAmenities().stream()
+                    .map(Amenity::getAmenityId)
+                    .filter(Objects::nonNull)
+                    .mapToInt(amenityId -> ordinal(amenityOrdinals, amenityId))
+                    .distinct()
+                    .toArray();
+        }
+
+        float[] point = new float[3];
+        if (property.getLatitude() != null && property.getLongitude() != null) {
+            double latitude = Math.toRadians(property.getLatitude().doubleValue());
+            double longitude = Math.toRadians(property.getLongitude().doubleValue());
+            point[0] = LOCATION_WEIGHT * (float) (Math.cos(latitude) * Math.cos(longitude));
+            point[1] = LOCATION_WEIGHT * (float) (Math.cos(latitude) * Math.sin(longitude));
+            point[2] = LOCATION_WEIGHT * (float) Math.sin(latitude);
+        }
+        return new Features(category, price, attributes, attributeValues, amenities, point);
+    }
+
+    private static int ordinal(Map<Long, Integer> ordinals, Long id) {
+        return ordinals.computeIfAbsent(id, k -> ordinals.size());
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > propertyIds.length) {
+            int newLength = Math.max(capacity, propertyIds.length * 2);
+            propertyIds = Arrays.copyOf(propertyIds, newLength);
+            vectors = Arrays.copyOf(vectors, newLength * dimensions);
+        }
+    }
+
+    /**
+     * Đặc trưng đã rút gọn của một bất động sản, giữ lại để dựng lại vector khi bố cục thay đổi.
+     */
+    private record Features(int category, float price, int[] attributes, float[] attributeValues,
+                            int[] amenities, float[] location) {
+    }
+
+    private record Neighbor(long propertyId, float distance) {
+    }
+}
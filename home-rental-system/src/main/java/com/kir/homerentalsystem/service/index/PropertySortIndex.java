@@ -0,0 +1,104 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.constant.PropertySortKey;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.exception.AppException;
+import com.kir.homerentalsystem.exception.ErrorCode;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Giá thuê và thời điểm tạo của từng bất động sản, dùng để lọc giá và sắp xếp tập ứng viên lấy từ các chỉ mục
+ * khác ngay trong bộ nhớ. Nhờ vậy database chỉ nhận đúng các id của trang cần trả về
+ * thay vì toàn bộ tập ứng viên trong một mệnh đề {@code IN}.
+ */
+@Component
+public class PropertySortIndex implements PropertyIndex {
+    private final Map<Long, SortValues> values = new ConcurrentHashMap<>();
+
+    @Override
+    public void index(Property property) {
+        LocalDateTime createdAt = property.getCreatedAt();
+        values.put(property.getPropertyId(), new SortValues(property.getPricePerMonth(),
+                createdAt != null ? createdAt.toInstant(ZoneOffset.UTC).toEpochMilli() : null));
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        values.remove(propertyId);
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+    }
+
+    /**
+     * Giữ lại các id có giá nằm trong khoảng, không đổi thứ tự. Id chưa có trong chỉ mục bị loại khi có điều kiện giá.
+     */
+    public List<Long> filterByPrice(List<Long> ids, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return ids;
+        }
+        return ids.stream()
+                .filter(id -> {
+                    SortValues value = values.get(id);
+                    if (value == null || value.price() == null) {
+                        return false;
+                    }
+                    return (minPrice == null || value.price().compareTo(minPrice) >= 0)
+                            && (maxPrice == null || value.price().compareTo(maxPrice) <= 0);
+                })
+                .toList();
+    }
+
+    /**
+     * Sắp xếp tập id theo {@code sort}, hòa thì theo id tăng dần để phân trang ổn định.
+     *
+     * @throws AppException nếu sắp xếp theo cột không thuộc {@link PropertySortKey}
+     */
+    public List<Long> sort(List<Long> ids, Sort sort) {
+        Comparator<Long> comparator = null;
+        for (Sort.Order order : sort) {
+            PropertySortKey key = PropertySortKey.fromField(order.getProperty());
+            if (key == null) {
+                throw new AppException(ErrorCode.INVALID_REQUEST);
+            }
+            Comparator<Long> next = comparatorFor(key);
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        if (comparator == null) {
+            return ids;
+        }
+        return ids.stream().sorted(comparator.thenComparing(Comparator.naturalOrder())).toList();
+    }
+
+    private Comparator<Long> comparatorFor(PropertySortKey key) {
+        return switch (key) {
+            case PROPERTY_ID -> Comparator.naturalOrder();
+            case PRICE_PER_MONTH -> Comparator.comparing(id -> valueOf(id).price(),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case CREATED_AT -> Comparator.comparing(id -> valueOf(id).createdAt(),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+        };
+    }
+
+    private SortValues valueOf(Long propertyId) {
+        return values.getOrDefault(propertyId, SortValues.EMPTY);
+    }
+
+    private record SortValues(BigDecimal price, Long createdAt) {
+        static final SortValues EMPTY = new SortValues(null, null);
+    }
+}
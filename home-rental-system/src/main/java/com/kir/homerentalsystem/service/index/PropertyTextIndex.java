@@ -0,0 +1,156 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.util.TextUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục đảo (inverted index) trên tiêu đề, mô tả và địa chỉ của bất động sản.
+ * Từ khóa được bỏ dấu tiếng Việt trước khi đánh chỉ mục, kết quả xếp hạng theo BM25.
+ * Từ cuối cùng của truy vấn được khớp theo tiền tố để hỗ trợ tìm kiếm khi đang gõ.
+ */
+@Component
+public class PropertyTextIndex implements PropertyIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int ADDRESS_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // term -> (propertyId -> tần suất có trọng số)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // propertyId -> (term -> tần suất có trọng số), dùng khi xóa hoặc cập nhật
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Property property) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, property.getTitle(), TITLE_WEIGHT);
+        addTerms(terms, property.getAddress(), ADDRESS_WEIGHT);
+        addTerms(terms, property.getDescription(), DESCRIPTION_WEIGHT);
+        int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(property.getPropertyId());
+            documents.put(property.getPropertyId(), terms);
+            documentLengths.put(property.getPropertyId(), length);
+            totalLength += length;
+            terms.forEach((term, frequency) -> postings
+                    .computeIfAbsent(term, t -> new HashMap<>())
+                    .put(property.getPropertyId(), frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tìm kiếm theo từ khóa, mọi từ trong truy vấn đều phải xuất hiện.
+     *
+     * @param query Chuỗi tìm kiếm (có dấu hoặc không dấu)
+     * @return Danh sách id bất động sản, sắp xếp giảm dần theo điểm BM25
+     */
+    public List<Long> search(String query) {
+        List<String> tokens = TextUtil.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        boolean prefixLastToken = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / documents.size();
+            Map<Long, Double> scores = null;
+
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                Map<String, Map<Long, Integer>> matches = (prefixLastToken && i == tokens.size() - 1)
+                        ? postings.subMap(token, true, token + Character.MAX_VALUE, false)
+                        : postings.containsKey(token) ? Map.of(token, postings.get(token)) : Map.of();
+
+                Map<Long, Double> tokenScores = new HashMap<>();
+                matches.values().forEach(posting -> {
+                    double idf = Math.log(1 + (documents.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+                    posting.forEach((propertyId, frequency) -> {
+                        double norm = K1 * (1 - B + B * documentLengths.get(propertyId) / averageLength);
+                        tokenScores.merge(propertyId, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                    });
+                });
+
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((propertyId, score) -> score + tokenScores.get(propertyId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()));
+            return ranked.stream().map(Map.Entry::getKey).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : TextUtil.tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void removeInternal(Long propertyId) {
+        Map<String, Integer> terms = documents.remove(propertyId);
+        if (terms == null) {
+            return;
+        }
+        totalLength -= documentLengths.remove(propertyId);
+        terms.keySet().forEach(term -> {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(propertyId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Phiên bản (thời điểm cập nhật cuối) của từng bất động sản, dùng làm ETag
+ * để trả 304 mà không phải nạp entity hay bản đọc.
+ * <p>
+ * Mỗi thay đổi được phát qua kênh {@value #VERSION_CHANNEL} để các instance khác cập nhật bản sao của mình,
+ * tránh instance chưa nhận thay đổi trả 304 kèm dữ liệu cũ.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PropertyVersionIndex implements PropertyIndex {
+    private static final String VERSION_CHANNEL = "property_version";
+    private static final String DELETED = "deleted";
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+            Long propertyId = Long.valueOf(parts[0]);
+            if (DELETED.equals(parts[1])) {
+                versions.remove(propertyId);
+            } else {
+                versions.merge(propertyId, Long.parseLong(parts[1]), Math::max);
+            }
+        }, new ChannelTopic(VERSION_CHANNEL));
+    }
+
+    @Override
+    public void index(Property property) {
+        Long version = versionOf(property);
+        if (version == null) {
+            versions.remove(property.getPropertyId());
+            return;
+        }
+        versions.put(property.getPropertyId(), version);
+    }
+
+    @Override
+    public void remove(Long propertyId) {
+        versions.remove(propertyId);
+    }
+
+    @Override
+    public void clear() {
+        versions.clear();
+    }
+
+    /**
+     * Phát phiên bản mới cho các instance khác; instance hiện tại đã được {@link PropertyIndexer} cập nhật.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        String version;
+        if (event.getType() == PropertyChangedEvent.Type.DELETED) {
+            version = DELETED;
+        } else {
+            Long lastChanged = versionOf(event.getProperty());
+            if (lastChanged == null) {
+                return;
+            }
+            version = String.valueOf(lastChanged);
+        }
+        try {
+            redisTemplate.convertAndSend(VERSION_CHANNEL, event.getPropertyId() + ":" + version);
+        } catch (Exception e) {
+            log.warn("Cannot publish version of property {}: {}", event.getPropertyId(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return ETag dạng strong, {@code null} nếu bất động sản chưa có trong chỉ mục
+     */
+    public String eTag(Long propertyId) {
+        Long version = versions.get(propertyId);
+        return version == null ? null : "\"property-" + propertyId + "-" + version + "\"";
+    }
+
+    private static Long versionOf(Property property) {
+        LocalDateTime lastChanged = property.getUpdatedAt() != null ? property.getUpdatedAt() : property.getCreatedAt();
+        return lastChanged == null ? null : lastChanged.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,187 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.constant.AttributeName;
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyAttributeValue;
+import com.kir.homerentalsystem.entity.SavedSearch;
+import com.kir.homerentalsystem.util.TextUtil;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục ngược của các tìm kiếm đã lưu: thay vì chạy lại từng tìm kiếm khi có tin đăng mới,
+ * tin đăng được đối chiếu với các tìm kiếm. Tìm kiếm được chia nhóm theo (loại bất động sản, thành phố, quận),
+ * tiêu chí bỏ trống thì nằm ở nhóm "bất kỳ"; trong mỗi nhóm khoảng giá được giữ trong {@link IntervalTree}.
+ * Một tin đăng chỉ cần tra tối đa 6 nhóm, mỗi nhóm một truy vấn điểm trên cây khoảng,
+ * số phòng ngủ và tiện ích được kiểm tra trên các ứng viên còn lại.
+ */
+@Component
+public class SavedSearchIndex {
+    private final Map<Long, Query> queries = new HashMap<>();
+    private final Map<PartitionKey, IntervalTree<Long>> partitions = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Match(Long savedSearchId, Long accountId, String email, String name) {
+    }
+
+    public void put(SavedSearch savedSearch) {
+        Query query = toQuery(savedSearch);
+        lock.writeLock().lock();
+        try {
+            removeInternal(savedSearch.getSavedSearchId());
+            queries.put(query.savedSearchId(), query);
+            partitions.computeIfAbsent(query.partition(), k -> new IntervalTree<>())
+                    .put(query.savedSearchId(), query.minPrice(), query.maxPrice());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long savedSearchId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(savedSearchId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            queries.clear();
+            partitions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Các tìm kiếm đã lưu khớp với bất động sản, rỗng nếu bất động sản không còn trống hoặc chưa có giá
+     */
+    public List<Match> match(Property property) {
+        if (!Boolean.TRUE.equals(property.getIsAvailable()) || property.getPricePerMonth() == null) {
+            return List.of();
+        }
+        long price = toLong(property.getPricePerMonth());
+        Long categoryId = property.getCategory() != null ? property.getCategory().getCategoryId() : null;
+        Location location = property.getLocation();
+        String city = location != null ? fold(location.getCity()) : null;
+        String district = location != null ? fold(location.getDistrict()) : null;
+        Integer bedrooms = bedrooms(property);
+        Set<Long> amenityIds = new HashSet<>();
+        if (property.getAmenities() != null) {
+            property.getAmenities().stream().map(Amenity::getAmenityId).forEach(amenityIds::add);
+        }
+
+        List<PartitionKey> keys = new ArrayList<>(6);
+        for (Long category : categoryId != null ? Arrays.asList(categoryId, null) : Collections.<Long>singletonList(null)) {
+            keys.add(new PartitionKey(category, null, null));
+            if (city != null) {
+                keys.add(new PartitionKey(category, city, null));
+                if (district != null) {
+                    keys.add(new PartitionKey(category, city, district));
+                }
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>();
+            for (PartitionKey key : keys) {
+                IntervalTree<Long> tree = partitions.get(key);
+                if (tree == null) {
+                    continue;
+                }
+                tree.forEachOverlapping(price, price, savedSearchId -> {
+                    Query query = queries.get(savedSearchId);
+                    if ((query.minBedrooms() == null || (bedrooms != null && bedrooms >= query.minBedrooms()))
+                            && amenityIds.containsAll(query.amenityIds())) {
+                        matches.add(new Match(query.savedSearchId(), query.accountId(), query.email(), query.name()));
+                    }
+                });
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long savedSearchId) {
+        Query previous = queries.remove(savedSearchId);
+        if (previous == null) {
+            return;
+        }
+        IntervalTree<Long> tree = partitions.get(previous.partition());
+        if (tree != null) {
+            tree.remove(savedSearchId);
+            if (tree.size() == 0) {
+                partitions.remove(previous.partition());
+            }
+        }
+    }
+
+    private static Query toQuery(SavedSearch savedSearch) {
+        // Quận chỉ có nghĩa khi đi kèm thành phố
+        String city = fold(savedSearch.getCity());
+        String district = city != null ? fold(savedSearch.getDistrict()) : null;
+        Long categoryId = savedSearch.getCategory() != null ? savedSearch.getCategory().getCategoryId() : null;
+        Set<Long> amenityIds = new HashSet<>();
+        if (savedSearch.getAmenities() != null) {
+            savedSearch.getAmenities().stream().map(Amenity::getAmenityId).forEach(amenityIds::add);
+        }
+        return new Query(savedSearch.getSavedSearchId(),
+                savedSearch.getAccount().getAccountId(),
+                savedSearch.getAccount().getEmail(),
+                savedSearch.getName(),
+                new PartitionKey(categoryId, city, district),
+                savedSearch.getMinPrice() != null ? toLong(savedSearch.getMinPrice()) : Long.MIN_VALUE,
+                savedSearch.getMaxPrice() != null ? toLong(savedSearch.getMaxPrice()) : Long.MAX_VALUE,
+                savedSearch.getMinBedrooms(),
+                Set.copyOf(amenityIds));
+    }
+
+    private static Integer bedrooms(Property property) {
+        if (property.getAttributeValues() == null) {
+            return null;
+        }
+        for (PropertyAttributeValue attributeValue : property.getAttributeValues()) {
+            if (attributeValue.getAttribute() != null
+                    && AttributeName.BEDROOMS.equals(attributeValue.getAttribute().getName())
+                    && attributeValue.getValue() != null) {
+                try {
+                    return new BigDecimal(attributeValue.getValue().trim()).intValue();
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String fold(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return TextUtil.fold(text).trim();
+    }
+
+    // Giá tính theo đồng nên làm tròn về số nguyên không làm sai kết quả so sánh
+    private static long toLong(BigDecimal price) {
+        return price.setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private record PartitionKey(Long categoryId, String city, String district) {
+    }
+
+    private record Query(Long savedSearchId, Long accountId, String email, String name, PartitionKey partition,
+                         long minPrice, long maxPrice, Integer minBedrooms, Set<Long> amenityIds) {
+    }
+}
@@ -0,0 +1,229 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.constant.NotificationTitle;
+import com.kir.homerentalsystem.constant.NotificationType;
+import com.kir.homerentalsystem.dto.request.SendSimpleEmailRequest;
+import com.kir.homerentalsystem.entity.Notification;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.SavedSearch;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import com.kir.homerentalsystem.mapper.NotificationMapper;
+import com.kir.homerentalsystem.repository.AccountRepository;
+import com.kir.homerentalsystem.repository.NotificationRepository;
+import com.kir.homerentalsystem.repository.PropertyRepository;
+import com.kir.homerentalsystem.repository.SavedSearchRepository;
+import com.kir.homerentalsystem.service.kafka.producer.EmailProducer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Đối chiếu bất động sản vừa tạo hoặc cập nhật với {@link SavedSearchIndex} rồi gửi thông báo
+ * (WebSocket {@code /queue/notifications} và email) cho người thuê có tìm kiếm khớp.
+ * Mỗi cặp (tìm kiếm, bất động sản) chỉ được thông báo một lần; thay đổi tìm kiếm đã lưu
+ * được đồng bộ giữa các instance qua kênh {@value #CHANGE_CHANNEL}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SavedSearchPercolator {
+    private static final int BATCH_SIZE = 500;
+    private static final String CHANGE_CHANNEL = "saved_search_changed";
+    private static final String NOTIFIED_KEY_PREFIX = "saved_search_notified_";
+    private static final Duration NOTIFIED_TTL = Duration.ofDays(30);
+
+    private final SavedSearchIndex savedSearchIndex;
+    private final SavedSearchRepository savedSearchRepository;
+    private final PropertyRepository propertyRepository;
+    private final AccountRepository accountRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationMapper notificationMapper;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final EmailProducer emailProducer;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${front-end.property-detail-url}")
+    private String propertyDetailUrl;
+
+    @PostConstruct
+    void subscribeChanges() {
+        listenerContainer.addMessageListener((message, pattern) ->
+                        reload(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(CHANGE_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        savedSearchIndex.clear();
+
+        int page = 0;
+        boolean hasNext = true;
+        while (hasNext) {
+            PageRequest pageRequest = PageRequest.of(page++, BATCH_SIZE, Sort.by("savedSearchId"));
+            Boolean next = transaction(true).execute(status -> {
+                Slice<SavedSearch> savedSearches = savedSearchRepository.findAll(pageRequest);
+                savedSearches.forEach(savedSearchIndex::put);
+                return savedSearches.hasNext();
+            });
+            hasNext = Boolean.TRUE.equals(next);
+        }
+        log.info("Saved search index rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Nạp lại tìm kiếm đã lưu vào chỉ mục sau khi transaction hiện tại commit và báo cho các instance khác.
+     */
+    public void refreshAfterCommit(Long savedSearchId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(savedSearchId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(savedSearchId);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.getType() == PropertyChangedEvent.Type.DELETED) {
+            return;
+        }
+        try {
+            // Đọc lại bản ghi đã commit để có đủ vị trí, tiện ích, thuộc tính khi đối chiếu
+            Percolation percolation = transaction(true).execute(status -> propertyRepository
+                    .findById(event.getPropertyId())
+                    .map(property -> new Percolation(property, savedSearchIndex.match(property)))
+                    .orElse(null));
+            if (percolation != null) {
+                notifyMatches(percolation.property(), percolation.matches(),
+                        event.getType() == PropertyChangedEvent.Type.CREATED);
+            }
+        } catch (Exception e) {
+            log.error("Failed to percolate property {} against saved searches", event.getPropertyId(), e);
+        }
+    }
+
+    private void notifyMatches(Property property, List<SavedSearchIndex.Match> matches, boolean created) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        // Người thuê có nhiều tìm kiếm cùng khớp chỉ nhận một thông báo
+        Map<Long, List<SavedSearchIndex.Match>> byAccount = matches.stream()
+                .filter(match -> markNotified(match.savedSearchId(), property.getPropertyId(), created))
+                .collect(Collectors.groupingBy(SavedSearchIndex.Match::accountId, LinkedHashMap::new,
+                        Collectors.toList()));
+        if (byAccount.isEmpty()) {
+            return;
+        }
+
+        List<Notification> notifications = new ArrayList<>(byAccount.size());
+        byAccount.forEach((accountId, accountMatches) -> notifications.add(Notification.builder()
+                .account(accountRepository.getReferenceById(accountId))
+                .title(NotificationTitle.SAVED_SEARCH_MATCH)
+                .message("Tin đăng \"" + property.getTitle() + "\" phù hợp với tìm kiếm đã lưu: "
+                        + searchNames(accountMatches) + ".")
+                .isRead(false)
+                .notificationType(NotificationType.SAVED_SEARCH_MATCH.name())
+                .build()));
+        transaction(false).executeWithoutResult(status -> notificationRepository.saveAll(notifications));
+
+        int i = 0;
+        for (List<SavedSearchIndex.Match> accountMatches : byAccount.values()) {
+            String email = accountMatches.get(0).email();
+            Notification notification = notifications.get(i++);
+            try {
+                messagingTemplate.convertAndSendToUser(email, "/queue/notifications",
+                        notificationMapper.toNotificationResponse(notification));
+                emailProducer.sendNotificationEmail(SendSimpleEmailRequest.builder()
+                        .to(email)
+                        .subject(NotificationTitle.SAVED_SEARCH_MATCH + " - Home Rental System")
+                        .text(emailContent(property, accountMatches))
+                        .build());
+            } catch (Exception e) {
+                log.warn("Cannot deliver saved search notification to {}: {}", email, e.getMessage());
+            }
+        }
+        log.info("Property {} matched {} saved searches of {} tenants",
+                property.getPropertyId(), matches.size(), byAccount.size());
+    }
+
+    /**
+     * @return {@code true} nếu cặp (tìm kiếm, bất động sản) chưa từng được thông báo.
+     * Không kết nối được Redis thì chỉ thông báo cho tin đăng mới để tránh gửi lặp khi tin được cập nhật.
+     */
+    private boolean markNotified(Long savedSearchId, Long propertyId, boolean created) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(NOTIFIED_KEY_PREFIX + savedSearchId + "_" + propertyId, "1", NOTIFIED_TTL));
+        } catch (Exception e) {
+            log.warn("Cannot check saved search notification in Redis: {}", e.getMessage());
+            return created;
+        }
+    }
+
+    private String emailContent(Property property, List<SavedSearchIndex.Match> matches) {
+        return "<p>Xin chào,</p>"
+                + "<p>Tin đăng <b>" + HtmlUtils.htmlEscape(property.getTitle()) + "</b>"
+                + (property.getAddress() != null ? " tại " + HtmlUtils.htmlEscape(property.getAddress()) : "")
+                + " phù hợp với tìm kiếm đã lưu của bạn: " + HtmlUtils.htmlEscape(searchNames(matches)) + ".</p>"
+                + "<p><a href=\"" + propertyDetailUrl + property.getPropertyId() + "\">Xem chi tiết</a></p>";
+    }
+
+    private static String searchNames(List<SavedSearchIndex.Match> matches) {
+        return matches.stream().map(SavedSearchIndex.Match::name).collect(Collectors.joining(", "));
+    }
+
+    private void refresh(Long savedSearchId) {
+        reload(savedSearchId);
+        try {
+            stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, String.valueOf(savedSearchId));
+        } catch (Exception e) {
+            log.warn("Cannot publish saved search change: {}", e.getMessage());
+        }
+    }
+
+    private void reload(Long savedSearchId) {
+        transaction(true).executeWithoutResult(status -> savedSearchRepository.findById(savedSearchId)
+                .ifPresentOrElse(savedSearchIndex::put, () -> savedSearchIndex.remove(savedSearchId)));
+    }
+
+    // REQUIRES_NEW: listener chạy sau commit, không được tham gia vào transaction vừa kết thúc
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    private record Percolation(Property property, List<SavedSearchIndex.Match> matches) {
+    }
+}
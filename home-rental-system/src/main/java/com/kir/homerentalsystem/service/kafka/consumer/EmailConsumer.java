@@ -19,4 +19,9 @@ public class EmailConsumer {
     public void sendOtpEmail(SendSimpleEmailRequest request){
         emailService.sendSimpleEmail(request.getTo(), request.getSubject(), request.getText());
     }
+
+    @KafkaListener(topics = "${kafka.topics.notify}", groupId = "renHome")
+    public void sendNotificationEmail(SendSimpleEmailRequest request){
+        emailService.sendSimpleEmail(request.getTo(), request.getSubject(), request.getText());
+    }
 }
\ No newline at end of file
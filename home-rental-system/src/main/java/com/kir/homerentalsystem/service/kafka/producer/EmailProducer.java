@@ -14,7 +14,14 @@ public class EmailProducer {
     @Value("${kafka.topics.otp}")
     private String otpTopic;
 
+    @Value("${kafka.topics.notify}")
+    private String notifyTopic;
+
     public void sendOtpEmail(SendSimpleEmailRequest request){
         kafkaTemplate.send(otpTopic, request);
     }
+
+    public void sendNotificationEmail(SendSimpleEmailRequest request){
+        kafkaTemplate.send(notifyTopic, request);
+    }
 }
@@ -0,0 +1,152 @@
+package com.kir.homerentalsystem.service.projection;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kir.homerentalsystem.dto.response.PropertyResponse;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyRead;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import com.kir.homerentalsystem.exception.AppException;
+import com.kir.homerentalsystem.exception.ErrorCode;
+import com.kir.homerentalsystem.mapper.PropertyMapper;
+import com.kir.homerentalsystem.repository.PropertyReadRepository;
+import com.kir.homerentalsystem.repository.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Giữ bảng {@code property_read} đồng bộ với dữ liệu gốc. Mỗi {@link PropertyChangedEvent}
+ * (tạo, cập nhật, xóa bất động sản, thay đổi ảnh, tiện ích hay hợp đồng thuê) dựng lại đúng một dòng,
+ * nhờ đó các API công khai chỉ cần đọc một dòng hoặc một khoảng dòng thay vì join nhiều bảng.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PropertyReadProjector {
+    private static final int BATCH_SIZE = 500;
+    private static final long RETRY_INTERVAL_MS = 30_000;
+    private static final long CATCH_UP_INTERVAL_MS = 60 * 60_000;
+
+    // Các bất động sản dựng bản đọc bị lỗi, được thử lại định kỳ thay vì chờ đến lần khởi động sau
+    private final Set<Long> failedIds = ConcurrentHashMap.newKeySet();
+
+    private final PropertyRepository propertyRepository;
+    private final PropertyReadRepository propertyReadRepository;
+    private final PropertyMapper propertyMapper;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Bù các thay đổi bị lỡ (ví dụ khi projector lỗi hoặc dữ liệu được sửa trực tiếp trong DB):
+     * chỉ dựng lại các dòng còn thiếu hoặc cũ hơn bản ghi gốc, và xóa các dòng không còn bản ghi gốc.
+     * Chạy khi khởi động và định kỳ mỗi giờ.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = CATCH_UP_INTERVAL_MS, initialDelay = CATCH_UP_INTERVAL_MS)
+    public void catchUp() {
+        long start = System.currentTimeMillis();
+        List<Long> staleIds = propertyReadRepository.findStalePropertyIds();
+        for (int from = 0; from < staleIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = staleIds.subList(from, Math.min(from + BATCH_SIZE, staleIds.size()));
+            newTransaction().executeWithoutResult(status ->
+                    propertyRepository.findAllById(batch).forEach(this::project));
+        }
+        Integer removed = newTransaction().execute(status -> propertyReadRepository.deleteOrphans());
+        log.info("Property read model caught up in {} ms: {} projected, {} removed",
+                System.currentTimeMillis() - start, staleIds.size(), removed);
+    }
+
+    // Chạy trước các listener xóa cache để cache không kịp nạp lại bản đọc cũ
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        Long propertyId = event.getPropertyId();
+        try {
+            newTransaction().executeWithoutResult(status -> {
+                switch (event.getType()) {
+                    case CREATED, UPDATED -> reproject(propertyId);
+                    case DELETED -> propertyReadRepository.deleteById(propertyId);
+                }
+            });
+        } catch (Exception e) {
+            // Thay đổi không làm đổi updated_at (ví dụ hợp đồng) thì catchUp không nhận ra, nên phải thử lại theo id
+            log.error("Failed to project property {}, will retry", propertyId, e);
+            failedIds.add(propertyId);
+        }
+    }
+
+    /**
+     * Thử lại các bản đọc bị lỗi; bất động sản đã bị xóa thì bản đọc của nó bị xóa theo.
+     */
+    @Scheduled(fixedDelay = RETRY_INTERVAL_MS, initialDelay = RETRY_INTERVAL_MS)
+    public void retryFailed() {
+        for (Long propertyId : List.copyOf(failedIds)) {
+            failedIds.remove(propertyId);
+            try {
+                newTransaction().executeWithoutResult(status -> reproject(propertyId));
+            } catch (Exception e) {
+                log.warn("Retry of property {} projection failed: {}", propertyId, e.getMessage());
+                failedIds.add(propertyId);
+            }
+        }
+    }
+
+    public PropertyResponse toResponse(PropertyRead row) {
+        try {
+            return objectMapper.readValue(row.getDocument(), PropertyResponse.class);
+        } catch (JsonProcessingException e) {
+            log.error("Cannot read document of property {}", row.getPropertyId(), e);
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+        }
+    }
+
+    private void reproject(Long propertyId) {
+        propertyRepository.findWithDetailsByPropertyId(propertyId)
+                .ifPresentOrElse(this::project, () -> propertyReadRepository.deleteById(propertyId));
+    }
+
+    private void project(Property property) {
+        PropertyResponse response = propertyMapper.toPropertyResponse(property);
+        String document;
+        try {
+            document = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize property " + property.getPropertyId(), e);
+        }
+        propertyReadRepository.save(PropertyRead.builder()
+                .propertyId(property.getPropertyId())
+                .ownerEmail(property.getOwner().getAccount().getEmail())
+                .categoryId(property.getCategory() != null ? property.getCategory().getCategoryId() : null)
+                .title(property.getTitle())
+                .address(property.getAddress())
+                .pricePerMonth(property.getPricePerMonth())
+                .securityDeposit(property.getSecurityDeposit())
+                .isAvailable(property.getIsAvailable())
+                .isFeatured(property.getIsFeatured())
+                .createdAt(property.getCreatedAt())
+                .updatedAt(property.getUpdatedAt())
+                .document(document)
+                .build());
+    }
+
+    // REQUIRES_NEW: listener chạy sau commit, không được tham gia vào transaction vừa kết thúc
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
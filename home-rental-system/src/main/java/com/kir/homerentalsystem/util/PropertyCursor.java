@@ -0,0 +1,61 @@
+package com.kir.homerentalsystem.util;
+
+import com.kir.homerentalsystem.constant.PropertySortKey;
+import com.kir.homerentalsystem.entity.PropertyRead;
+import com.kir.homerentalsystem.exception.AppException;
+import com.kir.homerentalsystem.exception.ErrorCode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Vị trí của bản ghi cuối cùng trong một trang phân trang theo cursor (keyset).
+ * Được mã hóa thành chuỗi Base64 để client chỉ việc gửi lại nguyên vẹn.
+ */
+@Getter
+@AllArgsConstructor
+public class PropertyCursor {
+    private static final String SEPARATOR = "|";
+
+    private final PropertySortKey sortKey;
+    private final Sort.Direction direction;
+    private final Comparable<?> lastValue;
+    private final Long lastId;
+
+    public static PropertyCursor after(PropertyRead property, PropertySortKey sortKey, Sort.Direction direction) {
+        Comparable<?> value = switch (sortKey) {
+            case PROPERTY_ID -> property.getPropertyId();
+            case PRICE_PER_MONTH -> property.getPricePerMonth();
+            case CREATED_AT -> property.getCreatedAt();
+        };
+        return new PropertyCursor(sortKey, direction, value, property.getPropertyId());
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, sortKey.name(), direction.name(),
+                lastValue instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(lastValue),
+                String.valueOf(lastId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PropertyCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            PropertySortKey sortKey = PropertySortKey.valueOf(parts[0]);
+            Comparable<?> value = switch (sortKey) {
+                case PROPERTY_ID -> Long.valueOf(parts[2]);
+                case PRICE_PER_MONTH -> new BigDecimal(parts[2]);
+                case CREATED_AT -> LocalDateTime.parse(parts[2]);
+            };
+            return new PropertyCursor(sortKey, Sort.Direction.valueOf(parts[1]), value, Long.valueOf(parts[3]));
+        } catch (RuntimeException e) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.kir.homerentalsystem.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Lớp tiện ích chuẩn hóa văn bản tiếng Việt phục vụ tìm kiếm.
+ */
+public class TextUtil {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Bỏ dấu và chuyển về chữ thường, ví dụ "Quận 1" → "quan 1".
+     *
+     * @param text Chuỗi cần chuẩn hóa
+     * @return Chuỗi đã bỏ dấu, chữ thường; chuỗi rỗng nếu đầu vào null
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tách chuỗi thành các từ đã được chuẩn hóa bằng {@link #fold(String)}.
+     *
+     * @param text Chuỗi cần tách
+     * @return Danh sách từ theo đúng thứ tự xuất hiện
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,158 @@
+package com.kir.homerentalsystem.repository;
+
+import com.kir.homerentalsystem.entity.*;
+import com.kir.homerentalsystem.mapper.AmenityMapperImpl;
+import com.kir.homerentalsystem.mapper.PropertyImageMapperImpl;
+import com.kir.homerentalsystem.mapper.PropertyMapper;
+import com.kir.homerentalsystem.mapper.PropertyMapperImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// VALUE là từ khóa của H2 nhưng là tên cột của property_attribute_value
+@DataJpaTest(properties = {
+        "spring.test.database.replace=none",
+        "spring.datasource.url=jdbc:h2:mem:query-count;NON_KEYWORDS=VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({PropertyMapperImpl.class, AmenityMapperImpl.class, PropertyImageMapperImpl.class})
+// Role dùng id kiểu String với IDENTITY nên Hibernate không tạo được bảng này trên H2, tạo tay cho đủ quan hệ
+@Sql(statements = {
+        "CREATE TABLE IF NOT EXISTS role (role_id VARCHAR(255) PRIMARY KEY, name VARCHAR(20) NOT NULL UNIQUE, " +
+                "description VARCHAR(255), created_at TIMESTAMP, updated_at TIMESTAMP)",
+        "INSERT INTO role (role_id, name) VALUES ('2', 'OWNER')"
+})
+class PropertyRepositoryQueryCountTests {
+    // to-many: attributeValues (+ attribute), propertyImages, amenities, mỗi loại tối đa một lô
+    private static final long MAX_FETCH_STATEMENTS = 4;
+    // Nhiều hơn trang lớn nhất để cả hai trang đều đầy và đều chạy câu COUNT
+    private static final int PROPERTY_COUNT = 25;
+    private static final int OWNER_COUNT = 5;
+    private static final int CATEGORY_COUNT = 3;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PropertyMapper propertyMapper;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        Role role = entityManager.find(Role.class, "2");
+
+        List<Owner> owners = new ArrayList<>();
+        for (int i = 0; i < OWNER_COUNT; i++) {
+            Account account = entityManager.persist(Account.builder()
+                    .email("owner" + i + "@example.com")
+                    .password("secret")
+                    .firstName("Chủ")
+                    .lastName("Nhà " + i)
+                    .role(role)
+                    .build());
+            owners.add(entityManager.persist(Owner.builder().account(account).build()));
+        }
+
+        List<PropertyCategory> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            categories.add(entityManager.persist(PropertyCategory.builder().name("Loại " + i).build()));
+        }
+
+        List<Amenity> amenities = List.of(
+                entityManager.persist(Amenity.builder().name("Wifi").build()),
+                entityManager.persist(Amenity.builder().name("Máy lạnh").build()),
+                entityManager.persist(Amenity.builder().name("Chỗ đậu xe").build()));
+
+        List<PropertyAttribute> attributes = List.of(
+                entityManager.persist(PropertyAttribute.builder().name("Diện tích").dataType("NUMBER").build()),
+                entityManager.persist(PropertyAttribute.builder().name("Số phòng ngủ").dataType("NUMBER").build()));
+
+        for (int i = 0; i < PROPERTY_COUNT; i++) {
+            Location location = entityManager.persist(Location.builder()
+                    .city("Hồ Chí Minh")
+                    .district("Quận " + (i % 12 + 1))
+                    .ward("Phường " + i)
+                    .country("Việt Nam")
+                    .latitude(BigDecimal.valueOf(10.7 + i * 0.001))
+                    .longitude(BigDecimal.valueOf(106.6 + i * 0.001))
+                    .build());
+
+            Property property = Property.builder()
+                    .owner(owners.get(i % OWNER_COUNT))
+                    .category(categories.get(i % CATEGORY_COUNT))
+                    .location(location)
+                    .title("Căn hộ " + i)
+                    .address(i + " Nguyễn Huệ")
+                    .pricePerMonth(BigDecimal.valueOf(5_000_000L + i * 100_000L))
+                    .isAvailable(true)
+                    .isFeatured(false)
+                    .amenities(new HashSet<>(amenities.subList(0, 1 + i % amenities.size())))
+                    .attributeValues(new HashSet<>())
+                    .propertyImages(new HashSet<>())
+                    .build();
+            entityManager.persist(property);
+
+            for (int j = 0; j < 2; j++) {
+                entityManager.persist(PropertyImage.builder()
+                        .property(property)
+                        .imageUrl("https://example.com/" + i + "/" + j + ".jpg")
+                        .isPrimary(j == 0)
+                        .build());
+            }
+            for (PropertyAttribute attribute : attributes) {
+                PropertyAttributeValue value = new PropertyAttributeValue();
+                value.setId(new PropertyAttributeValueId());
+                value.setProperty(property);
+                value.setAttribute(attribute);
+                value.setValue(String.valueOf(i + 1));
+                entityManager.persist(value);
+            }
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void pageOfPropertiesIsMappedWithConstantNumberOfQueries() {
+        long smallPage = fetchStatementsForPage(2);
+        long largePage = fetchStatementsForPage(20);
+
+        assertThat(largePage).isEqualTo(smallPage);
+        assertThat(largePage).isLessThanOrEqualTo(MAX_FETCH_STATEMENTS);
+    }
+
+    private long fetchStatementsForPage(int size) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        List<?> responses = propertyRepository.findAll(PageRequest.of(0, size, Sort.by("propertyId")))
+                .map(propertyMapper::toPropertyResponse)
+                .getContent();
+        assertThat(responses).hasSize(size);
+
+        // Bỏ qua câu truy vấn phân trang và câu COUNT, chỉ đếm các lệnh nạp quan hệ phát sinh thêm
+        return statistics.getPrepareStatementCount() - statistics.getQueryExecutionCount();
+    }
+}
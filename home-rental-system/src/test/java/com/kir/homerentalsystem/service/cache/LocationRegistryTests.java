@@ -0,0 +1,50 @@
+package com.kir.homerentalsystem.service.cache;
+
+import com.kir.homerentalsystem.entity.Location;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocationRegistryTests {
+
+    @Test
+    void keyIgnoresAccentsCaseAndExtraSpaces() {
+        Location a = location("Việt Nam", "Hồ Chí Minh", "Quận 1", "Phường Bến Nghé", null);
+        Location b = location("viet nam", "  ho chi  minh ", "QUẬN 1", "phuong ben nghe", null);
+
+        assertThat(LocationRegistry.key(a)).isEqualTo(LocationRegistry.key(b));
+    }
+
+    @Test
+    void listingsAtTheSameAddressShareOneKeyWhateverTheirCoordinates() {
+        Location a = location("Việt Nam", "Hồ Chí Minh", "Quận 1", "Phường Bến Nghé", "700000");
+        a.setLatitude(new BigDecimal("10.77600000"));
+        a.setLongitude(new BigDecimal("106.70100000"));
+        Location b = location("Việt Nam", "Hồ Chí Minh", "Quận 1", "Phường Bến Nghé", "700000");
+        b.setLatitude(new BigDecimal("10.78100000"));
+        b.setLongitude(new BigDecimal("106.69800000"));
+
+        assertThat(LocationRegistry.key(a)).isEqualTo(LocationRegistry.key(b));
+    }
+
+    @Test
+    void differentWardOrPostalCodeGivesDifferentKey() {
+        Location base = location("Việt Nam", "Hồ Chí Minh", "Quận 1", "Phường Bến Nghé", "700000");
+
+        assertThat(LocationRegistry.key(base))
+                .isNotEqualTo(LocationRegistry.key(location("Việt Nam", "Hồ Chí Minh", "Quận 1", "Phường Đa Kao", "700000")))
+                .isNotEqualTo(LocationRegistry.key(location("Việt Nam", "Hồ Chí Minh", "Quận 1", "Phường Bến Nghé", null)));
+    }
+
+    private static Location location(String country, String city, String district, String ward, String postalCode) {
+        return Location.builder()
+                .country(country)
+                .city(city)
+                .district(district)
+                .ward(ward)
+                .postalCode(postalCode)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.kir.homerentalsystem.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Mockito không giữ được tham số kiểu của ValueOperations và RedisScript
+@SuppressWarnings("unchecked")
+class OwnerStatisticsCounterTests {
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private JdbcTemplate jdbcTemplate;
+    private OwnerStatisticsCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        counter = new OwnerStatisticsCounter(redisTemplate, jdbcTemplate);
+    }
+
+    @Test
+    void incrementsAlsoPassTheReconcileMarkerForJournaling() {
+        counter.viewingStatusChanged("owner@example.com", "CONFIRMED", "CANCELLED");
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("owner_stats_owner@example.com", "owner_stats_reconcile")), eq("openViewings"), eq("-1"));
+    }
+
+    @Test
+    void transitionsBetweenOpenViewingStatusesAreNoOps() {
+        counter.viewingStatusChanged("owner@example.com", "REQUESTED", "CONFIRMED");
+        counter.viewingStatusChanged("owner@example.com", "COMPLETED", "CANCELLED");
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void reconcileSwapsEachOwnerWithTheJournalOfItsRound() throws Exception {
+        when(valueOperations.setIfAbsent(eq("owner_stats_reconcile"), anyString(), any(Duration.class))).thenReturn(true);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString("email")).thenReturn("owner@example.com");
+        when(row.getLong("total")).thenReturn(3L);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        counter.reconcileAll();
+
+        ArgumentCaptor<String> round = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).setIfAbsent(eq("owner_stats_reconcile"), round.capture(), any(Duration.class));
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(any(RedisScript.class), keys.capture(), any(Object[].class));
+        assertThat(keys.getValue()).containsExactly("owner_stats_owner@example.com",
+                "owner_stats_owner@example.com:" + round.getValue());
+        verify(redisTemplate, never()).opsForHash();
+    }
+
+    @Test
+    void reconcileReleasesOnlyItsOwnMarker() {
+        when(valueOperations.setIfAbsent(eq("owner_stats_reconcile"), anyString(), any(Duration.class))).thenReturn(true);
+        when(valueOperations.get("owner_stats_reconcile")).thenReturn("another-round");
+
+        counter.reconcileAll();
+
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void reconcileIsSkippedWhileAnotherInstanceIsReconciling() {
+        when(valueOperations.setIfAbsent(eq("owner_stats_reconcile"), anyString(), any(Duration.class))).thenReturn(false);
+
+        counter.reconcileAll();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
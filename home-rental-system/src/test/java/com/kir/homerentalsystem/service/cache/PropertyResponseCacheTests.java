@@ -0,0 +1,132 @@
+package com.kir.homerentalsystem.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kir.homerentalsystem.dto.response.PropertyResponse;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Mockito không giữ được tham số kiểu của RedisTemplate, ValueOperations và RedisScript
+@SuppressWarnings("unchecked")
+class PropertyResponseCacheTests {
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 6, 1, 9, 30, 15);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOperations;
+    private RedisMessageListenerContainer listenerContainer;
+    private PropertyResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        listenerContainer = mock(RedisMessageListenerContainer.class);
+        cache = new PropertyResponseCache(redisTemplate, listenerContainer, objectMapper);
+        cache.subscribeEvictions();
+    }
+
+    @Test
+    void loadsOnceThenServesFromLocalTier() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> response(1L, loads));
+        PropertyResponse second = cache.get(1L, () -> response(1L, loads));
+
+        assertThat(second.getTitle()).isEqualTo("Căn hộ 1");
+        assertThat(loads).hasValue(1);
+        verify(valueOperations, times(1)).get("property_response_1");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("property_response_1",
+                        "property_response_version_1")),
+                anyString(), eq(String.valueOf(UPDATED_AT.atZone(ZoneId.systemDefault()).toEpochSecond())), anyString());
+    }
+
+    @Test
+    void remoteHitSkipsTheLoader() throws Exception {
+        when(valueOperations.get("property_response_2"))
+                .thenReturn(objectMapper.writeValueAsString(response(2L, new AtomicInteger())));
+        AtomicInteger loads = new AtomicInteger();
+
+        PropertyResponse response = cache.get(2L, () -> response(2L, loads));
+
+        assertThat(response.getPropertyId()).isEqualTo(2L);
+        assertThat(loads).hasValue(0);
+        assertThat(cache.getStats().getRemoteHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void redisOutageFallsBackToTheLoader() {
+        when(valueOperations.get(anyString())).thenThrow(new IllegalStateException("down"));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(3L, () -> response(3L, loads)).getPropertyId()).isEqualTo(3L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void changeEvictsBothTiersWithTheNewVersionAndBroadcasts() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(4L, () -> response(4L, loads));
+
+        cache.onPropertyChanged(PropertyChangedEvent.updated(
+                Property.builder().propertyId(4L).updatedAt(UPDATED_AT.plusMinutes(1)).build()));
+        cache.get(4L, () -> response(4L, loads));
+
+        assertThat(loads).hasValue(2);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("property_response_4",
+                        "property_response_version_4")),
+                eq(String.valueOf(UPDATED_AT.plusMinutes(1).atZone(ZoneId.systemDefault()).toEpochSecond())),
+                anyString());
+        verify(redisTemplate).convertAndSend("property_response_evict", "4");
+    }
+
+    @Test
+    void deletionPinsTheHighestVersionSoNoLoadCanBeCachedAgain() {
+        cache.onPropertyChanged(PropertyChangedEvent.deleted(5L));
+
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), eq(String.valueOf(Long.MAX_VALUE)), anyString());
+    }
+
+    @Test
+    void evictionFromAnotherInstanceDropsTheLocalEntry() {
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), any(ChannelTopic.class));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(6L, () -> response(6L, loads));
+
+        listener.getValue().onMessage(new DefaultMessage(
+                "property_response_evict".getBytes(StandardCharsets.UTF_8), "6".getBytes(StandardCharsets.UTF_8)), null);
+        cache.get(6L, () -> response(6L, loads));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static PropertyResponse response(Long id, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return PropertyResponse.builder()
+                .propertyId(id)
+                .title("Căn hộ " + id)
+                .updatedAt(UPDATED_AT)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.kir.homerentalsystem.service.cache;
+
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PropertySearchCacheTests {
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10, Sort.by("propertyId"));
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+    private PropertySearchCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        listenerContainer = mock(RedisMessageListenerContainer.class);
+        cache = new PropertySearchCache(redisTemplate, listenerContainer);
+        cache.subscribeEpoch();
+    }
+
+    @Test
+    void equivalentFiltersShareOneKey() {
+        String key = cache.key("  Căn Hộ   Quận 1 ", null, 2, null,
+                new BigDecimal("30.00"), null, new BigDecimal("5000000"), null, true, FIRST_PAGE);
+        String same = cache.key("căn hộ quận 1", "  ", 2, null,
+                new BigDecimal("30"), null, new BigDecimal("5E+6"), null, true, FIRST_PAGE);
+
+        assertThat(same).isEqualTo(key);
+    }
+
+    @Test
+    void pageAndSortArePartOfTheKey() {
+        String first = key(FIRST_PAGE);
+
+        assertThat(key(PageRequest.of(1, 10, Sort.by("propertyId")))).isNotEqualTo(first);
+        assertThat(key(PageRequest.of(0, 20, Sort.by("propertyId")))).isNotEqualTo(first);
+        assertThat(key(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "propertyId")))).isNotEqualTo(first);
+    }
+
+    @Test
+    void propertyChangeStartsANewEpochAndIsBroadcast() {
+        String key = key(FIRST_PAGE);
+        cache.put(key, List.of(1L, 2L), 2);
+        assertThat(cache.get(key)).isEqualTo(new PropertySearchCache.SearchResult(List.of(1L, 2L), 2));
+
+        cache.onPropertyChanged(PropertyChangedEvent.deleted(1L));
+
+        assertThat(key(FIRST_PAGE)).isNotEqualTo(key);
+        assertThat(cache.get(key(FIRST_PAGE))).isNull();
+        verify(redisTemplate).convertAndSend(anyString(), any());
+    }
+
+    @Test
+    void epochFromAnotherInstanceInvalidatesLocalEntries() {
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), any(ChannelTopic.class));
+        String key = key(FIRST_PAGE);
+        cache.put(key, List.of(1L), 1);
+
+        listener.getValue().onMessage(new DefaultMessage(
+                "property_search_epoch".getBytes(StandardCharsets.UTF_8), "7".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(cache.get(key(FIRST_PAGE))).isNull();
+    }
+
+    @Test
+    void redisFailureStillInvalidatesLocally() {
+        when(redisTemplate.convertAndSend(anyString(), any())).thenThrow(new IllegalStateException("down"));
+        String key = key(FIRST_PAGE);
+
+        cache.onPropertyChanged(PropertyChangedEvent.deleted(1L));
+
+        assertThat(key(FIRST_PAGE)).isNotEqualTo(key);
+    }
+
+    @Test
+    void storedIdsCannotBeModifiedByTheCaller() {
+        List<Long> ids = new ArrayList<>(List.of(1L, 2L));
+        cache.put(key(FIRST_PAGE), ids, 2);
+        ids.add(3L);
+
+        assertThat(cache.get(key(FIRST_PAGE)).ids()).containsExactly(1L, 2L);
+    }
+
+    private String key(Pageable pageable) {
+        return cache.key("căn hộ", null, null, null, null, null, null, null, null, pageable);
+    }
+}
@@ -0,0 +1,79 @@
+package com.kir.homerentalsystem.service.impl;
+
+import com.cloudinary.Api;
+import com.cloudinary.Cloudinary;
+import com.cloudinary.api.ApiResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MediaServiceImplTests {
+    private Api api;
+    private MediaServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        api = mock(Api.class);
+        Cloudinary cloudinary = mock(Cloudinary.class);
+        when(cloudinary.api()).thenReturn(api);
+        service = new MediaServiceImpl(cloudinary);
+    }
+
+    @Test
+    void partialFailuresOfABatchAreReturned() throws Exception {
+        ApiResponse response = response(Map.of("a", "deleted", "b", "not_found", "c", "error"));
+        when(api.deleteResources(anyIterable(), anyMap())).thenReturn(response);
+
+        List<String> failed = service.deleteImages(List.of(url("a"), url("b"), url("c"), url("d")));
+
+        // "c" bị lỗi, "d" không có trong kết quả nên cũng chưa chắc đã xóa
+        assertThat(failed).containsExactly(url("c"), url("d"));
+    }
+
+    @Test
+    void failedCallMarksTheWholeBatch() throws Exception {
+        when(api.deleteResources(anyIterable(), anyMap())).thenThrow(new IllegalStateException("rate limited"));
+
+        assertThat(service.deleteImages(List.of(url("a"), url("b")))).containsExactly(url("a"), url("b"));
+    }
+
+    @Test
+    void deletesInBatchesOfAtMostOneHundred() throws Exception {
+        when(api.deleteResources(anyIterable(), anyMap())).thenAnswer(invocation -> {
+            Iterable<String> publicIds = invocation.getArgument(0);
+            Map<String, String> deleted = new HashMap<>();
+            publicIds.forEach(id -> deleted.put(id, "deleted"));
+            return response(deleted);
+        });
+        List<String> urls = IntStream.range(0, 250).mapToObj(i -> url("img" + i)).toList();
+
+        assertThat(service.deleteImages(urls)).isEmpty();
+        verify(api, times(3)).deleteResources(anyIterable(), anyMap());
+        verify(api).deleteResources(argThat((Iterable<String> ids) -> ids instanceof List<?> list && list.size() == 50),
+                anyMap());
+    }
+
+    @Test
+    void emptyInputDoesNotCallCloudinary() {
+        assertThat(service.deleteImages(List.of())).isEmpty();
+        verifyNoInteractions(api);
+    }
+
+    private static ApiResponse response(Map<String, String> deleted) {
+        ApiResponse response = mock(ApiResponse.class);
+        when(response.get("deleted")).thenReturn(deleted);
+        return response;
+    }
+
+    private static String url(String publicId) {
+        return "https://res.cloudinary.com/demo/image/upload/v1/" + publicId + ".jpg";
+    }
+}
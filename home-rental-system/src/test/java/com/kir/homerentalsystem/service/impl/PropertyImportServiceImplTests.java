@@ -0,0 +1,231 @@
+package com.kir.homerentalsystem.service.impl;
+
+import com.kir.homerentalsystem.dto.response.ImportRowError;
+import com.kir.homerentalsystem.dto.response.PropertyImportResponse;
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.CategoryAttribute;
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Owner;
+import com.kir.homerentalsystem.entity.PropertyAttribute;
+import com.kir.homerentalsystem.entity.PropertyCategory;
+import com.kir.homerentalsystem.event.PropertyChangedEvent;
+import com.kir.homerentalsystem.exception.AppException;
+import com.kir.homerentalsystem.exception.ErrorCode;
+import com.kir.homerentalsystem.repository.AmenityRepository;
+import com.kir.homerentalsystem.repository.CategoryAttributeRepository;
+import com.kir.homerentalsystem.repository.OwnerRepository;
+import com.kir.homerentalsystem.repository.PropertyCategoryRepository;
+import com.kir.homerentalsystem.service.PropertyService;
+import com.kir.homerentalsystem.service.cache.LocationRegistry;
+import com.kir.homerentalsystem.service.cache.OwnerStatisticsCounter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PropertyImportServiceImplTests {
+    private static final String EMAIL = "owner@example.com";
+    private static final long APARTMENT = 1L;
+    private static final long BEDROOMS = 100L;
+    private static final long FURNISHED = 101L;
+
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private OwnerStatisticsCounter ownerStatisticsCounter;
+    private PropertyImportServiceImpl service;
+    private final List<Object[]> insertedProperties = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(EMAIL, null));
+
+        OwnerRepository ownerRepository = mock(OwnerRepository.class);
+        when(ownerRepository.findByAccount_Email(EMAIL)).thenReturn(Optional.of(Owner.builder().ownerId(7L).build()));
+
+        PropertyCategory apartment = PropertyCategory.builder().categoryId(APARTMENT).build();
+        PropertyCategoryRepository categoryRepository = mock(PropertyCategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(apartment));
+        CategoryAttributeRepository categoryAttributeRepository = mock(CategoryAttributeRepository.class);
+        when(categoryAttributeRepository.findAll()).thenReturn(List.of(
+                categoryAttribute(apartment, BEDROOMS, "Số phòng ngủ", "NUMBER", true, null),
+                categoryAttribute(apartment, FURNISHED, "Nội thất", "BOOLEAN", false, "false")));
+        AmenityRepository amenityRepository = mock(AmenityRepository.class);
+        when(amenityRepository.findAll()).thenReturn(List.of(
+                Amenity.builder().amenityId(10L).build(), Amenity.builder().amenityId(11L).build()));
+
+        // Mỗi địa chỉ nhận một location id mới, không cần DB
+        AtomicLong locationIds = new AtomicLong(500);
+        LocationRegistry locationRegistry = mock(LocationRegistry.class);
+        when(locationRegistry.intern(any(Location.class))).thenAnswer(invocation -> {
+            Location location = invocation.getArgument(0);
+            location.setLocationId(locationIds.incrementAndGet());
+            return location;
+        });
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        // Giả lập khóa sinh tự động cho từng dòng của batch INSERT property
+        jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicLong propertyIds = new AtomicLong(1_000);
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(invocation -> {
+            BatchPreparedStatementSetter setter = invocation.getArgument(1);
+            KeyHolder keyHolder = invocation.getArgument(2);
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                keyHolder.getKeyList().add(Map.of("GENERATED_KEY", propertyIds.incrementAndGet()));
+            }
+            return new int[setter.getBatchSize()];
+        });
+
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        ownerStatisticsCounter = mock(OwnerStatisticsCounter.class);
+        service = new PropertyImportServiceImpl(ownerRepository, categoryRepository, categoryAttributeRepository,
+                amenityRepository, mock(PropertyService.class), jdbcTemplate, transactionTemplate, eventPublisher,
+                ownerStatisticsCounter, locationRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validRowsAreImportedAndInvalidRowsAreReported() throws IOException {
+        MockMultipartFile file = workbook(
+                List.of("title", "pricePerMonth", "categoryId", "city", "district", "ward", "amenityIds", "Số phòng ngủ"),
+                List.of("Căn hộ Quận 1", 6_000_000, 1, "Hồ Chí Minh", "Quận 1", "Bến Nghé", "10, 11", 2),
+                List.of("Giá âm", -1, 1, "Hồ Chí Minh", "Quận 1", "Bến Nghé", "", 2),
+                List.of("Sai danh mục", 5_000_000, 9, "Hồ Chí Minh", "Quận 3", "Võ Thị Sáu", "", 1),
+                List.of("Sai tiện ích", 5_000_000, 1, "Hồ Chí Minh", "Quận 3", "Võ Thị Sáu", "99", 1),
+                List.of("Sai kiểu số", 5_000_000, 1, "Hồ Chí Minh", "Quận 3", "Võ Thị Sáu", "", "hai"),
+                List.of("Căn hộ Quận 7", 4_500_000, 1, "Hồ Chí Minh", "Quận 7", "Tân Phong", "", 1));
+
+        PropertyImportResponse response = service.importProperties(file);
+
+        assertThat(response.getTotalRows()).isEqualTo(6);
+        assertThat(response.getImportedRows()).isEqualTo(2);
+        assertThat(response.getPropertyIds()).containsExactly(1_001L, 1_002L);
+        assertThat(response.getErrors()).extracting(ImportRowError::getRow).containsExactly(3, 4, 5, 6);
+        assertThat(response.getErrors().get(0).getMessage()).contains("pricePerMonth");
+        assertThat(response.getErrors().get(2).getMessage()).contains("99");
+        verify(eventPublisher, times(2)).publishEvent(any(PropertyChangedEvent.class));
+        verify(ownerStatisticsCounter).propertiesCreated(EMAIL, 2);
+    }
+
+    @Test
+    void attributeDefaultsAndAmenityLinksAreWritten() throws IOException {
+        MockMultipartFile file = workbook(
+                List.of("title", "pricePerMonth", "categoryId", "city", "district", "ward", "amenityIds", "Số phòng ngủ"),
+                List.of("Căn hộ Quận 1", 6_000_000, 1, "Hồ Chí Minh", "Quận 1", "Bến Nghé", "10;11", 2));
+
+        service.importProperties(file);
+
+        verify(jdbcTemplate).batchUpdate(contains("property_attribute_value"), argThat((List<Object[]> rows) ->
+                rows.size() == 2
+                        && rows.stream().anyMatch(row -> row[1].equals(BEDROOMS) && row[2].equals("2"))
+                        && rows.stream().anyMatch(row -> row[1].equals(FURNISHED) && row[2].equals("false"))));
+        verify(jdbcTemplate).batchUpdate(contains("property_amenity"), argThat((List<Object[]> rows) ->
+                rows.size() == 2 && rows.stream().allMatch(row -> row[0].equals(1_001L))));
+    }
+
+    @Test
+    void missingRequiredAttributeRejectsTheRow() throws IOException {
+        MockMultipartFile file = workbook(
+                List.of("title", "pricePerMonth", "categoryId", "city", "district", "ward"),
+                List.of("Căn hộ Quận 1", 6_000_000, 1, "Hồ Chí Minh", "Quận 1", "Bến Nghé"));
+
+        PropertyImportResponse response = service.importProperties(file);
+
+        assertThat(response.getImportedRows()).isZero();
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).contains("Số phòng ngủ"));
+    }
+
+    @Test
+    void failedBatchIsReportedPerRow() throws IOException {
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenThrow(new IllegalStateException("deadlock"));
+        MockMultipartFile file = workbook(
+                List.of("title", "pricePerMonth", "categoryId", "city", "district", "ward", "Số phòng ngủ"),
+                List.of("Căn hộ Quận 1", 6_000_000, 1, "Hồ Chí Minh", "Quận 1", "Bến Nghé", 2),
+                List.of("Căn hộ Quận 7", 4_500_000, 1, "Hồ Chí Minh", "Quận 7", "Tân Phong", 1));
+
+        PropertyImportResponse response = service.importProperties(file);
+
+        assertThat(response.getImportedRows()).isZero();
+        assertThat(response.getErrors()).extracting(ImportRowError::getRow).containsExactly(2, 3);
+        verify(ownerStatisticsCounter).propertiesCreated(EMAIL, 0);
+    }
+
+    @Test
+    void unreadableFileIsRejected() {
+        MockMultipartFile file = new MockMultipartFile("file", "properties.xlsx", null, "not a workbook".getBytes());
+
+        assertThatThrownBy(() -> service.importProperties(file))
+                .isInstanceOf(AppException.class)
+                .extracting(e -> ((AppException) e).getErrorCode())
+                .isEqualTo(ErrorCode.IMPORT_FILE_INVALID);
+    }
+
+    private static CategoryAttribute categoryAttribute(PropertyCategory category, long attributeId, String name,
+                                                       String dataType, boolean required, String defaultValue) {
+        CategoryAttribute categoryAttribute = new CategoryAttribute();
+        categoryAttribute.setCategory(category);
+        categoryAttribute.setAttribute(PropertyAttribute.builder().id(attributeId).name(name).dataType(dataType).build());
+        categoryAttribute.setIsRequired(required);
+        categoryAttribute.setDefaultValue(defaultValue);
+        return categoryAttribute;
+    }
+
+    @SafeVarargs
+    private static MockMultipartFile workbook(List<String> header, List<?>... rows) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < header.size(); i++) {
+                headerRow.createCell(i).setCellValue(header.get(i));
+            }
+            for (int r = 0; r < rows.length; r++) {
+                Row row = sheet.createRow(r + 1);
+                for (int i = 0; i < rows[r].size(); i++) {
+                    Object value = rows[r].get(i);
+                    // Ô rỗng được bỏ qua như khi người dùng để trống trong Excel
+                    if (value instanceof Number number) {
+                        row.createCell(i).setCellValue(number.doubleValue());
+                    } else if (!value.toString().isEmpty()) {
+                        row.createCell(i).setCellValue(value.toString());
+                    }
+                }
+            }
+            workbook.write(out);
+            return new MockMultipartFile("file", "properties.xlsx", null, out.toByteArray());
+        }
+    }
+}
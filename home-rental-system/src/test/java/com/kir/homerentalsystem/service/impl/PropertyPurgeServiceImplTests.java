@@ -0,0 +1,67 @@
+package com.kir.homerentalsystem.service.impl;
+
+import com.kir.homerentalsystem.service.MediaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PropertyPurgeServiceImplTests {
+    private static final List<String> IMAGES = List.of("https://res.cloudinary.com/demo/image/upload/v1/a.jpg");
+
+    private JdbcTemplate jdbcTemplate;
+    private MediaService mediaService;
+    private PropertyPurgeServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        mediaService = mock(MediaService.class);
+        when(jdbcTemplate.queryForList(startsWith("SELECT property_id"), eq(Long.class), anyInt()))
+                .thenReturn(List.of(7L));
+        when(jdbcTemplate.queryForList(startsWith("SELECT image_url"), eq(String.class), eq(7L))).thenReturn(IMAGES);
+        service = new PropertyPurgeServiceImpl(jdbcTemplate, mediaService);
+    }
+
+    @Test
+    void rowsAreKeptUntilEveryImageIsDeleted() {
+        when(mediaService.deleteImages(IMAGES)).thenReturn(IMAGES);
+
+        service.purgeDeletedProperties();
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void childRowsAreDeletedInChunksBeforeTheProperty() {
+        when(mediaService.deleteImages(IMAGES)).thenReturn(List.of());
+        // Lần đầu xóa đủ một lô nên phải chạy lại cho tới khi ít hơn kích thước lô
+        when(jdbcTemplate.update(startsWith("DELETE FROM review"), eq(7L), eq(1000))).thenReturn(1000, 3);
+
+        service.purgeDeletedProperties();
+
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM lease"), eq(7L), eq(1000));
+        order.verify(jdbcTemplate, times(2)).update(startsWith("DELETE FROM review"), eq(7L), eq(1000));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM property WHERE"), eq(7L), eq(1000));
+        order.verify(jdbcTemplate).update(startsWith("UPDATE property SET purged_at"), eq(7L));
+    }
+
+    @Test
+    void failureOfOnePropertyDoesNotStopTheRun() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT property_id"), eq(Long.class), anyInt()))
+                .thenReturn(List.of(7L, 8L));
+        when(mediaService.deleteImages(IMAGES)).thenThrow(new IllegalStateException("cloudinary down"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT image_url"), eq(String.class), eq(8L))).thenReturn(List.of());
+        when(mediaService.deleteImages(List.of())).thenReturn(List.of());
+
+        service.purgeDeletedProperties();
+
+        verify(jdbcTemplate).update(startsWith("UPDATE property SET purged_at"), eq(8L));
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE property SET purged_at"), eq(7L));
+    }
+}
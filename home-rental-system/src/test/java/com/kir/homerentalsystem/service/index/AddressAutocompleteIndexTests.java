@@ -0,0 +1,84 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.constant.AddressSuggestionType;
+import com.kir.homerentalsystem.dto.response.AddressSuggestionResponse;
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Property;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AddressAutocompleteIndexTests {
+    private AddressAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AddressAutocompleteIndex();
+        index.index(listing(1L, "Hồ Chí Minh", "Quận 1", "Bến Nghé", "12 Lê Lợi"));
+        index.index(listing(2L, "Hồ Chí Minh", "Quận 1", "Bến Thành", "45 Lê Thánh Tôn"));
+        index.index(listing(3L, "Hồ Chí Minh", "Quận 10", "Phường 12", "Ba Tháng Hai, số 8"));
+        index.index(listing(4L, "Hà Nội", "Ba Đình", "Kim Mã", "20 Kim Mã"));
+    }
+
+    @Test
+    void prefixMatchesWithoutAccentsAndRanksByListingCount() {
+        assertThat(texts(index.suggest("quan 1", AddressSuggestionType.DISTRICT, 10)))
+                .containsExactly("Quận 1, Hồ Chí Minh", "Quận 10, Hồ Chí Minh");
+        assertThat(index.suggest("Hồ", AddressSuggestionType.CITY, 10))
+                .extracting(AddressSuggestionResponse::getCount)
+                .containsExactly(3L);
+    }
+
+    @Test
+    void typeFilterAndAllTypes() {
+        assertThat(texts(index.suggest("ba", AddressSuggestionType.DISTRICT, 10))).containsExactly("Ba Đình, Hà Nội");
+        assertThat(texts(index.suggest("ba", null, 10)))
+                .containsExactlyInAnyOrder("Ba Đình, Hà Nội", "Ba Tháng Hai, số 8");
+    }
+
+    @Test
+    void limitIsRespectedAndNonPositiveLimitReturnsNothing() {
+        assertThat(index.suggest("h", null, 1)).hasSize(1);
+        assertThat(index.suggest("h", null, 0)).isEmpty();
+        assertThat(index.suggest("h", null, -5)).isEmpty();
+        assertThat(index.suggest("   ", null, 5)).isEmpty();
+    }
+
+    @Test
+    void removeAndReindexUpdateCounts() {
+        index.remove(3L);
+        assertThat(texts(index.suggest("quan 1", AddressSuggestionType.DISTRICT, 10)))
+                .containsExactly("Quận 1, Hồ Chí Minh");
+
+        index.index(listing(2L, "Hồ Chí Minh", "Quận 3", "Võ Thị Sáu", "45 Lê Thánh Tôn"));
+        assertThat(index.suggest("quan", AddressSuggestionType.DISTRICT, 10))
+                .extracting(AddressSuggestionResponse::getCount)
+                .containsExactly(1L, 1L);
+    }
+
+    @Test
+    void topSuggestionsAreCappedPerNode() {
+        index.clear();
+        for (long id = 1; id <= 30; id++) {
+            index.index(listing(id, "Hồ Chí Minh", "Quận " + id, "Phường 1", null));
+        }
+
+        assertThat(index.suggest("quan", AddressSuggestionType.DISTRICT, AddressAutocompleteIndex.TOP_K))
+                .hasSize(AddressAutocompleteIndex.TOP_K);
+    }
+
+    private static List<String> texts(List<AddressSuggestionResponse> suggestions) {
+        return suggestions.stream().map(AddressSuggestionResponse::getText).toList();
+    }
+
+    private static Property listing(long id, String city, String district, String ward, String address) {
+        return Property.builder()
+                .propertyId(id)
+                .address(address)
+                .location(Location.builder().city(city).district(district).ward(ward).build())
+                .build();
+    }
+}
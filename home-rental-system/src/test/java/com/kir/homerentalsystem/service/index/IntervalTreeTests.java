@@ -0,0 +1,117 @@
+package com.kir.homerentalsystem.service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IntervalTreeTests {
+
+    @Test
+    void closedIntervalsOverlapAtTheirEndpoints() {
+        IntervalTree<Long> tree = new IntervalTree<>();
+        tree.put(1L, 10, 20);
+
+        assertThat(tree.overlaps(20, 30)).isTrue();
+        assertThat(tree.overlaps(0, 10)).isTrue();
+        assertThat(tree.overlaps(21, 30)).isFalse();
+        assertThat(tree.overlaps(0, 9)).isFalse();
+    }
+
+    @Test
+    void overlappingValuesAreVisitedInOrderOfLowEnd() {
+        IntervalTree<Long> tree = new IntervalTree<>();
+        tree.put(1L, 30, 40);
+        tree.put(2L, 0, 5);
+        tree.put(3L, 10, 100);
+        tree.put(4L, 35, 36);
+        tree.put(5L, 50, 60);
+
+        assertThat(overlapping(tree, 33, 37)).containsExactly(3L, 1L, 4L);
+        assertThat(overlapping(tree, 6, 9)).isEmpty();
+        assertThat(overlapping(tree, 101, 200)).isEmpty();
+    }
+
+    @Test
+    void putReplacesTheIntervalOfAnExistingValue() {
+        IntervalTree<Long> tree = new IntervalTree<>();
+        tree.put(1L, 0, 10);
+        tree.put(1L, 100, 110);
+
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.overlaps(0, 10)).isFalse();
+        assertThat(overlapping(tree, 105, 105)).containsExactly(1L);
+    }
+
+    @Test
+    void removedIntervalsNoLongerOverlap() {
+        IntervalTree<Long> tree = new IntervalTree<>();
+        tree.put(1L, 0, 1_000);
+        tree.put(2L, 10, 20);
+
+        assertThat(tree.remove(1L)).isTrue();
+        assertThat(tree.remove(1L)).isFalse();
+        assertThat(tree.size()).isEqualTo(1);
+        // Khoảng dài nhất đã bị xóa nên maxHigh của gốc phải giảm theo
+        assertThat(tree.overlaps(500, 600)).isFalse();
+        assertThat(overlapping(tree, 15, 500)).containsExactly(2L);
+    }
+
+    @Test
+    void rejectsIntervalsWithLowAfterHigh() {
+        IntervalTree<Long> tree = new IntervalTree<>();
+
+        assertThatThrownBy(() -> tree.put(1L, 5, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void matchesBruteForceAfterRandomInsertsAndRemovals() {
+        // Nhiều phép thêm/xóa để đi qua đủ các phép xoay, kiểm tra maxHigh còn đúng sau mỗi lần
+        Random random = new Random(42);
+        IntervalTree<Long> tree = new IntervalTree<>();
+        Map<Long, long[]> expected = new HashMap<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            long value = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                assertThat(tree.remove(value)).isEqualTo(expected.remove(value) != null);
+            } else {
+                long low = random.nextInt(10_000);
+                long high = low + random.nextInt(random.nextInt(10) == 0 ? 5_000 : 100);
+                tree.put(value, low, high);
+                expected.put(value, new long[]{low, high});
+            }
+
+            long low = random.nextInt(10_000);
+            long high = low + random.nextInt(200);
+            Set<Long> bruteForce = new HashSet<>();
+            expected.forEach((id, interval) -> {
+                if (interval[0] <= high && interval[1] >= low) {
+                    bruteForce.add(id);
+                }
+            });
+            assertThat(tree.size()).isEqualTo(expected.size());
+            assertThat(new HashSet<>(overlapping(tree, low, high))).isEqualTo(bruteForce);
+            assertThat(tree.overlaps(low, high)).isEqualTo(!bruteForce.isEmpty());
+        }
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        IntervalTree<Long> tree = new IntervalTree<>();
+        tree.put(1L, 0, 10);
+        tree.put(2L, 5, 15);
+        tree.clear();
+
+        assertThat(tree.size()).isZero();
+        assertThat(tree.overlaps(Long.MIN_VALUE, Long.MAX_VALUE)).isFalse();
+    }
+
+    private static List<Long> overlapping(IntervalTree<Long> tree, long low, long high) {
+        List<Long> values = new ArrayList<>();
+        tree.forEachOverlapping(low, high, values::add);
+        return values;
+    }
+}
@@ -0,0 +1,138 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyAttribute;
+import com.kir.homerentalsystem.entity.PropertyAttributeValue;
+import com.kir.homerentalsystem.entity.PropertyAttributeValueId;
+import com.kir.homerentalsystem.exception.AppException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PropertyAttributeIndexTests {
+    private static final PropertyAttribute AREA = attribute(1L, "Diện tích", "NUMBER");
+    private static final PropertyAttribute AVAILABLE_FROM = attribute(2L, "Ngày trống", "DATE");
+    private static final PropertyAttribute FURNISHED = attribute(3L, "Nội thất", "BOOLEAN");
+    private static final PropertyAttribute DIRECTION = attribute(4L, "Hướng", "TEXT");
+
+    private PropertyAttributeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyAttributeIndex();
+        index.index(listing(1L, value(AREA, "30"), value(FURNISHED, "true"), value(DIRECTION, "Đông Nam")));
+        index.index(listing(2L, value(AREA, "45,5"), value(FURNISHED, "0"), value(AVAILABLE_FROM, "2024-07-01")));
+        index.index(listing(3L, value(AREA, "60"), value(FURNISHED, "1"), value(DIRECTION, "Tây")));
+    }
+
+    @Test
+    void numericRangesUseTheSortedColumn() {
+        assertThat(index.match(List.of(predicate("1:gte:45")))).containsExactly(2L, 3L);
+        assertThat(index.match(List.of(predicate("1:lte:45.5")))).containsExactly(1L, 2L);
+        assertThat(index.match(List.of(predicate("1:between:31:59")))).containsExactly(2L);
+        assertThat(index.match(List.of(predicate("1:eq:60")))).containsExactly(3L);
+        assertThat(index.match(List.of(predicate("2:lte:2024-07-31")))).containsExactly(2L);
+    }
+
+    @Test
+    void predicatesAreIntersected() {
+        assertThat(index.match(List.of(predicate("1:gte:30"), predicate("3:eq:true")))).containsExactly(1L, 3L);
+        assertThat(index.match(List.of(predicate("3:eq:true"), predicate("4:eq:dong nam")))).containsExactly(1L);
+        assertThat(index.match(List.of(predicate("4:eq:Bắc")))).isEmpty();
+    }
+
+    @Test
+    void rangeOperatorsOnBooleanOrTextAreRejected() {
+        assertThatThrownBy(() -> index.match(List.of(predicate("3:gte:true")))).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> index.match(List.of(predicate("4:lte:Tây")))).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> index.match(List.of(predicate("3:eq:maybe")))).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> index.match(List.of(predicate("1:gte:abc")))).isInstanceOf(AppException.class);
+    }
+
+    @Test
+    void reindexReplacesOnlyThatListingsValues() {
+        index.index(listing(1L, value(AREA, "80"), value(FURNISHED, "false")));
+
+        assertThat(index.match(List.of(predicate("1:gte:70")))).containsExactly(1L);
+        assertThat(index.match(List.of(predicate("1:lte:40")))).isEmpty();
+        assertThat(index.match(List.of(predicate("3:eq:false")))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.match(List.of(predicate("4:eq:dong nam")))).isEmpty();
+        assertThat(index.match(List.of(predicate("4:eq:tay")))).containsExactly(3L);
+    }
+
+    @Test
+    void removedOrdinalsAreReused() {
+        index.remove(2L);
+        index.index(listing(4L, value(AREA, "45")));
+
+        assertThat(index.match(List.of(predicate("1:between:40:50")))).containsExactly(4L);
+        assertThat(index.match(List.of(predicate("3:eq:false")))).isEmpty();
+        assertThat(index.match(List.of(predicate("2:gte:2024-01-01")))).isEmpty();
+    }
+
+    @Test
+    void attributeIdsAreFoundByName() {
+        assertThat(index.findAttributeId("Diện tích")).contains(1L);
+        assertThat(index.findAttributeId("Số tầng")).isEmpty();
+    }
+
+    @Test
+    void numericColumnMatchesBruteForceUnderChurn() {
+        index.clear();
+        Random random = new Random(11);
+        int[] areas = new int[300];
+        for (int round = 0; round < 3_000; round++) {
+            int id = random.nextInt(areas.length);
+            if (random.nextInt(5) == 0) {
+                index.remove((long) id);
+                areas[id] = 0;
+            } else {
+                areas[id] = 10 + random.nextInt(90);
+                index.index(listing(id, value(AREA, String.valueOf(areas[id]))));
+            }
+        }
+
+        for (int min = 10; min < 100; min += 7) {
+            List<Long> expected = new ArrayList<>();
+            for (int id = 0; id < areas.length; id++) {
+                if (areas[id] >= min && areas[id] <= min + 15) {
+                    expected.add((long) id);
+                }
+            }
+            assertThat(index.match(List.of(predicate("1:between:" + min + ":" + (min + 15)))))
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    private static AttributePredicate predicate(String expression) {
+        return AttributePredicate.parse(expression);
+    }
+
+    private static PropertyAttribute attribute(Long id, String name, String dataType) {
+        return PropertyAttribute.builder().id(id).name(name).dataType(dataType).build();
+    }
+
+    private static PropertyAttributeValue value(PropertyAttribute attribute, String value) {
+        return PropertyAttributeValue.builder()
+                .id(new PropertyAttributeValueId(null, attribute.getId()))
+                .attribute(attribute)
+                .value(value)
+                .build();
+    }
+
+    private static Property listing(long id, PropertyAttributeValue... values) {
+        Set<PropertyAttributeValue> attributeValues = new HashSet<>();
+        for (PropertyAttributeValue value : values) {
+            attributeValues.add(value);
+        }
+        return Property.builder().propertyId(id).attributeValues(attributeValues).build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyBitmapIndexTests {
+    private static final long WIFI = 1L;
+    private static final long POOL = 2L;
+    private static final long PARKING = 3L;
+    private static final long APARTMENT = 10L;
+    private static final long HOUSE = 20L;
+
+    private PropertyBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyBitmapIndex();
+        index.index(property(1L, APARTMENT, true, false, WIFI, POOL));
+        index.index(property(2L, APARTMENT, false, true, WIFI));
+        index.index(property(3L, HOUSE, true, true, WIFI, POOL, PARKING));
+        index.index(property(4L, HOUSE, true, false));
+    }
+
+    @Test
+    void returnsNullWithoutAnyCondition() {
+        assertThat(index.match(null, null, null, null, null)).isNull();
+    }
+
+    @Test
+    void propertyMustHaveEveryRequestedAmenity() {
+        assertThat(ids(index.match(List.of(WIFI, POOL), null, null, null, null))).containsExactly(1, 3);
+        assertThat(ids(index.match(List.of(WIFI, 99L), null, null, null, null))).isEmpty();
+    }
+
+    @Test
+    void conditionsAreIntersected() {
+        assertThat(ids(index.match(List.of(WIFI), APARTMENT, true, null, null))).containsExactly(1);
+        assertThat(ids(index.match(null, HOUSE, null, true, null))).containsExactly(3);
+    }
+
+    @Test
+    void falseFlagsMatchPropertiesWithoutTheFlag() {
+        assertThat(ids(index.match(null, null, false, null, null))).containsExactly(2);
+        assertThat(ids(index.match(null, null, null, false, null))).containsExactly(1, 4);
+    }
+
+    @Test
+    void excludedPropertiesAreRemoved() {
+        RoaringBitmap booked = RoaringBitmap.bitmapOf(1, 4);
+
+        assertThat(ids(index.match(null, null, null, null, booked))).containsExactly(2, 3);
+        assertThat(ids(index.match(List.of(POOL), null, null, null, booked))).containsExactly(3);
+    }
+
+    @Test
+    void resultIsACopy() {
+        RoaringBitmap result = index.match(null, APARTMENT, null, null, null);
+        result.add(100);
+
+        assertThat(ids(index.match(null, APARTMENT, null, null, null))).containsExactly(1, 2);
+    }
+
+    @Test
+    void reindexAndRemoveUpdateEveryBitmap() {
+        index.index(property(1L, HOUSE, false, false, PARKING));
+        index.remove(3L);
+
+        assertThat(ids(index.match(List.of(POOL), null, null, null, null))).isEmpty();
+        assertThat(ids(index.match(null, HOUSE, null, null, null))).containsExactly(1, 4);
+        assertThat(ids(index.match(null, null, false, null, null))).containsExactly(1, 2);
+        assertThat(ids(index.match(null, null, null, true, null))).containsExactly(2);
+    }
+
+    @Test
+    void emptyAmenityListIsNotACondition() {
+        assertThat(index.match(List.of(), null, null, null, null)).isNull();
+        assertThat(ids(index.match(List.of(), HOUSE, null, null, null))).containsExactly(3, 4);
+    }
+
+    @Test
+    void unknownCategoryMatchesNothing() {
+        assertThat(ids(index.match(null, 99L, null, null, null))).isEmpty();
+    }
+
+    @Test
+    void clearedIndexHasNoCandidates() {
+        index.clear();
+
+        assertThat(ids(index.match(null, null, true, null, null))).isEmpty();
+        assertThat(ids(index.match(null, null, false, null, null))).isEmpty();
+    }
+
+    private static int[] ids(RoaringBitmap bitmap) {
+        return bitmap.toArray();
+    }
+
+    private static Property property(Long id, long categoryId, boolean available, boolean featured, Long... amenityIds) {
+        Set<Amenity> amenities = Set.of(amenityIds).stream()
+                .map(amenityId -> Amenity.builder().amenityId(amenityId).build())
+                .collect(Collectors.toSet());
+        return Property.builder()
+                .propertyId(id)
+                .category(PropertyCategory.builder().categoryId(categoryId).build())
+                .isAvailable(available)
+                .isFeatured(featured)
+                .amenities(amenities)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.dto.response.FacetBucket;
+import com.kir.homerentalsystem.dto.response.FacetResponse;
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyFacetIndexTests {
+    private static final PropertyCategory APARTMENT = PropertyCategory.builder().categoryId(1L).name("Căn hộ").build();
+    private static final PropertyCategory HOUSE = PropertyCategory.builder().categoryId(2L).name("Nhà riêng").build();
+
+    private PropertyFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyFacetIndex();
+        index.index(listing(1L, APARTMENT, "Quận 1", 4_000_000, true, 10L, 11L));
+        index.index(listing(2L, APARTMENT, "Quận 1", 8_000_000, false, 10L));
+        index.index(listing(3L, HOUSE, "Quận 7", 15_000_000, true));
+        index.index(listing(4L, HOUSE, "Quận 7", 25_000_000, false, 11L));
+    }
+
+    @Test
+    void unfilteredCountsCoverAllListings() {
+        FacetResponse facets = index.count(null, null, null, null);
+
+        assertThat(facets.getTotal()).isEqualTo(4);
+        assertThat(counts(facets.getCategories())).containsExactlyInAnyOrder("1=2", "2=2");
+        assertThat(counts(facets.getDistricts())).containsExactlyInAnyOrder("Quận 1, Hồ Chí Minh=2", "Quận 7, Hồ Chí Minh=2");
+        assertThat(counts(facets.getAmenities())).containsExactlyInAnyOrder("10=2", "11=2");
+        assertThat(counts(facets.getPriceRanges()))
+                .containsExactly("2000000-5000000=1", "5000000-10000000=1", "10000000-20000000=1", "20000000-=1");
+        assertThat(facets.getCategories()).extracting(FacetBucket::getLabel).contains("Căn hộ", "Nhà riêng");
+    }
+
+    @Test
+    void availabilityCountsAreSplit() {
+        FacetResponse available = index.count(null, null, null, true);
+        FacetResponse rented = index.count(null, null, null, false);
+
+        assertThat(available.getTotal()).isEqualTo(2);
+        assertThat(counts(available.getAmenities())).containsExactlyInAnyOrder("10=1", "11=1");
+        assertThat(rented.getTotal()).isEqualTo(2);
+        assertThat(counts(rented.getCategories())).containsExactlyInAnyOrder("1=1", "2=1");
+        assertThat(counts(rented.getPriceRanges())).containsExactly("5000000-10000000=1", "20000000-=1");
+    }
+
+    @Test
+    void candidatesAndPriceFiltersAreCountedDirectly() {
+        FacetResponse facets = index.count(List.of(1L, 2L, 3L, 99L), new BigDecimal("5000000"), null, null);
+
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(counts(facets.getCategories())).containsExactlyInAnyOrder("1=1", "2=1");
+    }
+
+    @Test
+    void reindexAndRemoveKeepCountersInStep() {
+        index.index(listing(2L, APARTMENT, "Quận 1", 8_000_000, true, 10L));
+        index.remove(3L);
+
+        assertThat(index.count(null, null, null, null).getTotal()).isEqualTo(3);
+        assertThat(counts(index.count(null, null, null, true).getDistricts())).containsExactly("Quận 1, Hồ Chí Minh=2");
+        assertThat(counts(index.count(null, null, null, false).getDistricts())).containsExactly("Quận 7, Hồ Chí Minh=1");
+    }
+
+    @Test
+    void maintainedCountersMatchAFullScanUnderChurn() {
+        index.clear();
+        Random random = new Random(3);
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id < 200; id++) {
+            ids.add(id);
+        }
+        for (int round = 0; round < 2_000; round++) {
+            long id = random.nextInt(ids.size());
+            if (random.nextInt(6) == 0) {
+                index.remove(id);
+            } else {
+                index.index(listing(id, random.nextBoolean() ? APARTMENT : HOUSE, "Quận " + random.nextInt(5),
+                        random.nextInt(30) * 1_000_000L, random.nextBoolean(), (long) random.nextInt(4)));
+            }
+        }
+
+        // Truyền đủ tập id ép chỉ mục đếm bằng cách duyệt thay vì dùng bộ đếm duy trì sẵn
+        for (Boolean available : Arrays.asList(null, true, false)) {
+            assertThat(index.count(null, null, null, available))
+                    .usingRecursiveComparison()
+                    .ignoringCollectionOrder()
+                    .isEqualTo(index.count(ids, null, null, available));
+        }
+    }
+
+    private static List<String> counts(List<FacetBucket> buckets) {
+        return buckets.stream().map(bucket -> bucket.getKey() + "=" + bucket.getCount()).toList();
+    }
+
+    private static Property listing(long id, PropertyCategory category, String district, long price, boolean available,
+                                    Long... amenityIds) {
+        return Property.builder()
+                .propertyId(id)
+                .category(category)
+                .location(Location.builder().city("Hồ Chí Minh").district(district).build())
+                .pricePerMonth(BigDecimal.valueOf(price))
+                .isAvailable(available)
+                .amenities(Arrays.stream(amenityIds)
+                        .map(amenityId -> Amenity.builder().amenityId(amenityId).name("Tiện ích " + amenityId).build())
+                        .collect(Collectors.toSet()))
+                .build();
+    }
+}
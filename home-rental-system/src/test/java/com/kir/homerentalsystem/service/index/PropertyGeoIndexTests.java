@@ -0,0 +1,113 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.dto.request.GeoPoint;
+import com.kir.homerentalsystem.entity.Property;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyGeoIndexTests {
+    private static final double BEN_THANH_LAT = 10.7725, BEN_THANH_LNG = 106.6980;
+
+    private PropertyGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyGeoIndex();
+        index.index(property(1L, BEN_THANH_LAT, BEN_THANH_LNG));
+        index.index(property(2L, 10.7798, 106.6990));   // Nhà thờ Đức Bà, ~0.8 km
+        index.index(property(3L, 10.8494, 106.7537));   // Thủ Đức, ~10 km
+        index.index(property(4L, 21.0285, 105.8542));   // Hà Nội
+    }
+
+    @Test
+    void radiusSearchIsSortedByDistance() {
+        assertThat(index.withinRadius(10.7790, 106.6990, 2)).containsExactly(2L, 1L);
+        assertThat(index.withinRadius(BEN_THANH_LAT, BEN_THANH_LNG, 15)).containsExactly(1L, 2L, 3L);
+        assertThat(index.withinRadius(BEN_THANH_LAT, BEN_THANH_LNG, 0.1)).containsExactly(1L);
+    }
+
+    @Test
+    void boundingBoxIsInclusive() {
+        assertThat(index.withinBoundingBox(10.7725, 106.6980, 10.7798, 106.6990))
+                .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.withinBoundingBox(20, 105, 22, 107)).containsExactly(4L);
+    }
+
+    @Test
+    void polygonExcludesPointsInsideItsBoundingBoxButOutsideTheShape() {
+        // Tam giác có đỉnh ở Bến Thành: bao hình chữ nhật chứa Thủ Đức nhưng Thủ Đức nằm ngoài tam giác
+        List<GeoPoint> triangle = List.of(
+                new GeoPoint(10.7700, 106.6950),
+                new GeoPoint(10.8600, 106.6950),
+                new GeoPoint(10.7700, 106.7600));
+
+        assertThat(index.withinPolygon(triangle)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void listingsWithoutCoordinatesAreNotIndexed() {
+        index.index(Property.builder().propertyId(5L).build());
+
+        assertThat(index.withinBoundingBox(-90, -180, 90, 180)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void reindexMovesAndRemoveDropsTheListing() {
+        index.index(property(3L, 10.7730, 106.6985));
+        index.remove(2L);
+
+        assertThat(index.withinRadius(BEN_THANH_LAT, BEN_THANH_LNG, 1)).containsExactly(1L, 3L);
+        assertThat(index.withinRadius(10.8494, 106.7537, 1)).isEmpty();
+    }
+
+    @Test
+    void gridSearchMatchesBruteForce() {
+        index.clear();
+        Random random = new Random(7);
+        List<double[]> points = new ArrayList<>();
+        for (long id = 0; id < 2_000; id++) {
+            double latitude = 10.70 + random.nextDouble() * 0.2;
+            double longitude = 106.60 + random.nextDouble() * 0.2;
+            points.add(new double[]{latitude, longitude});
+            index.index(property(id, latitude, longitude));
+        }
+
+        for (int query = 0; query < 50; query++) {
+            double latitude = 10.70 + random.nextDouble() * 0.2;
+            double longitude = 106.60 + random.nextDouble() * 0.2;
+            double radiusKm = 0.2 + random.nextDouble() * 3;
+
+            List<Long> expected = new ArrayList<>();
+            for (int id = 0; id < points.size(); id++) {
+                if (haversineKm(latitude, longitude, points.get(id)[0], points.get(id)[1]) <= radiusKm) {
+                    expected.add((long) id);
+                }
+            }
+            assertThat(index.withinRadius(latitude, longitude, radiusKm)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    private static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * 6371.0088 * Math.asin(Math.sqrt(a));
+    }
+
+    private static Property property(Long id, double latitude, double longitude) {
+        return Property.builder()
+                .propertyId(id)
+                .latitude(BigDecimal.valueOf(latitude))
+                .longitude(BigDecimal.valueOf(longitude))
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyCategory;
+import com.tdunning.math.stats.TDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PropertyPriceIndexTests {
+    private static final long APARTMENT = 1L;
+    private static final long HOUSE = 2L;
+
+    private PropertyPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyPriceIndex();
+        index.index(listing(1L, "Hồ Chí Minh", "Quận 1", APARTMENT, 8_000_000));
+        index.index(listing(2L, "Hồ Chí Minh", "Quận 1", APARTMENT, 10_000_000));
+        index.index(listing(3L, "Hồ Chí Minh", "Quận 7", APARTMENT, 6_000_000));
+        index.index(listing(4L, "Hồ Chí Minh", "Quận 7", HOUSE, 15_000_000));
+        index.index(listing(5L, "Hà Nội", "Ba Đình", APARTMENT, 9_000_000));
+    }
+
+    @Test
+    void everyCombinationOfCriteriaIsAvailable() {
+        assertThat(index.digest("Hồ Chí Minh", "Quận 1", APARTMENT).size()).isEqualTo(2);
+        assertThat(index.digest("Hồ Chí Minh", "Quận 7", null).size()).isEqualTo(2);
+        assertThat(index.digest("Hồ Chí Minh", null, APARTMENT).size()).isEqualTo(3);
+        assertThat(index.digest("Hồ Chí Minh", null, null).size()).isEqualTo(4);
+        assertThat(index.digest(null, null, APARTMENT).size()).isEqualTo(4);
+        assertThat(index.digest(null, "Quận 7", null).size()).isEqualTo(2);
+        assertThat(index.digest(null, null, null).size()).isEqualTo(5);
+        assertThat(index.digest("Đà Nẵng", null, null)).isNull();
+    }
+
+    @Test
+    void namesAreMatchedWithoutAccents() {
+        TDigest digest = index.digest("ho chi minh", "QUAN 1", APARTMENT);
+
+        assertThat(digest.getMin()).isEqualTo(8_000_000);
+        assertThat(digest.getMax()).isEqualTo(10_000_000);
+    }
+
+    @Test
+    void priceChangeAndRemovalRebuildTheDistribution() {
+        index.index(listing(2L, "Hồ Chí Minh", "Quận 1", APARTMENT, 20_000_000));
+        assertThat(index.digest("Hồ Chí Minh", "Quận 1", APARTMENT).getMax()).isEqualTo(20_000_000);
+        assertThat(index.digest(null, null, null).size()).isEqualTo(5);
+
+        index.remove(1L);
+        TDigest district = index.digest("Hồ Chí Minh", "Quận 1", APARTMENT);
+        assertThat(district.size()).isEqualTo(1);
+        assertThat(district.getMin()).isEqualTo(20_000_000);
+
+        index.remove(2L);
+        assertThat(index.digest("Hồ Chí Minh", "Quận 1", null)).isNull();
+        assertThat(index.digest("Hồ Chí Minh", null, null).size()).isEqualTo(2);
+    }
+
+    @Test
+    void movingToAnotherGroupUpdatesBothGroups() {
+        index.index(listing(3L, "Hồ Chí Minh", "Quận 1", APARTMENT, 6_000_000));
+
+        assertThat(index.digest("Hồ Chí Minh", "Quận 1", APARTMENT).size()).isEqualTo(3);
+        assertThat(index.digest("Hồ Chí Minh", "Quận 7", APARTMENT)).isNull();
+        assertThat(index.digest("Hồ Chí Minh", null, APARTMENT).size()).isEqualTo(3);
+    }
+
+    @Test
+    void unchangedReindexKeepsTheDigest() {
+        index.index(listing(1L, "Hồ Chí Minh", "Quận 1", APARTMENT, 8_000_000));
+        index.index(listing(1L, "Hồ Chí Minh", "Quận 1", APARTMENT, 8_000_000));
+
+        assertThat(index.digest(null, null, null).size()).isEqualTo(5);
+    }
+
+    @Test
+    void repeatedPricesKeepQuantilesAccurate() {
+        index.clear();
+        for (long id = 1; id <= 1_000; id++) {
+            index.index(listing(id, "Hồ Chí Minh", "Quận 1", APARTMENT, id <= 500 ? 5_000_000 : 7_000_000));
+        }
+        // Xóa bớt để buộc digest dựng lại từ bảng đếm
+        for (long id = 1; id <= 200; id++) {
+            index.remove(id);
+        }
+
+        TDigest digest = index.digest("Hồ Chí Minh", null, null);
+        assertThat(digest.size()).isEqualTo(800);
+        assertThat(digest.quantile(0.25)).isCloseTo(5_000_000, within(1.0));
+        assertThat(digest.quantile(0.75)).isCloseTo(7_000_000, within(1.0));
+    }
+
+    @Test
+    void listingsWithoutPriceOrLocationAreDropped() {
+        index.index(Property.builder().propertyId(1L).build());
+
+        assertThat(index.digest(null, null, null).size()).isEqualTo(4);
+    }
+
+    private static Property listing(long id, String city, String district, long categoryId, long price) {
+        return Property.builder()
+                .propertyId(id)
+                .pricePerMonth(BigDecimal.valueOf(price))
+                .category(PropertyCategory.builder().categoryId(categoryId).build())
+                .location(Location.builder().city(city).district(district).build())
+                .build();
+    }
+}
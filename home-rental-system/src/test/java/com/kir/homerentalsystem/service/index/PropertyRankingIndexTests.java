@@ -0,0 +1,130 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Location;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyImage;
+import com.kir.homerentalsystem.entity.Review;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyRankingIndexTests {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+    private PropertyRankingIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyRankingIndex();
+    }
+
+    @Test
+    void featuredOutranksSlightlyNewerButNotMuchNewerListings() {
+        index.index(listing(1L).isFeatured(true).build());
+        // 30 ngày mới hơn ~ +0.69 điểm, chưa bằng tin nổi bật (+1)
+        index.index(listing(2L).createdAt(NOW.plusDays(30)).build());
+        // 60 ngày mới hơn ~ +1.39 điểm, vượt tin nổi bật
+        index.index(listing(3L).createdAt(NOW.plusDays(60)).build());
+
+        assertThat(index.page(0, 10)).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void cheaperThanDistrictMedianRanksHigher() {
+        index.index(listing(1L).pricePerMonth(BigDecimal.valueOf(9_000_000)).build());
+        index.index(listing(2L).pricePerMonth(BigDecimal.valueOf(5_000_000)).build());
+        index.index(listing(3L).pricePerMonth(BigDecimal.valueOf(7_000_000)).build());
+
+        assertThat(index.page(0, 10)).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void medianIsPerDistrict() {
+        // Cùng giá nhưng ở quận 1 là rẻ nhất, ở quận 7 là đắt nhất
+        index.index(listing(1L, "Quận 1").pricePerMonth(BigDecimal.valueOf(6_000_000)).build());
+        index.index(listing(2L, "Quận 1").pricePerMonth(BigDecimal.valueOf(12_000_000)).build());
+        index.index(listing(3L, "Quận 7").pricePerMonth(BigDecimal.valueOf(6_000_000)).build());
+        index.index(listing(4L, "Quận 7").pricePerMonth(BigDecimal.valueOf(3_000_000)).build());
+
+        assertThat(index.page(0, 10).indexOf(1L)).isLessThan(index.page(0, 10).indexOf(3L));
+    }
+
+    @Test
+    void photosAndGoodReviewsAddScore() {
+        index.index(listing(1L).build());
+        index.index(listing(2L).propertyImages(images(2L, 4)).build());
+        index.index(listing(3L).reviews(reviews(5, 5, 5, 5, 5)).build());
+        index.index(listing(4L).reviews(reviews(1, 1, 1, 1, 1)).build());
+
+        assertThat(index.page(0, 10)).containsExactly(2L, 3L, 1L, 4L);
+    }
+
+    @Test
+    void hiddenReviewsAreIgnored() {
+        Set<Review> hidden = reviews(1, 1, 1);
+        hidden.forEach(review -> review.setIsPublic(false));
+        index.index(listing(1L).reviews(hidden).build());
+        index.index(listing(2L).build());
+
+        // Điểm bằng nhau nên id lớn hơn đứng trước
+        assertThat(index.page(0, 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void pagesAreSlicesOfTheRanking() {
+        IntStream.rangeClosed(1, 7).forEach(i -> index.index(listing(i).createdAt(NOW.plusDays(i)).build()));
+
+        assertThat(index.size()).isEqualTo(7);
+        assertThat(index.page(0, 3)).containsExactly(7L, 6L, 5L);
+        assertThat(index.page(6, 3)).containsExactly(1L);
+        assertThat(index.page(9, 3)).isEmpty();
+    }
+
+    @Test
+    void reindexAndRemoveUpdateTheRanking() {
+        index.index(listing(1L).build());
+        index.index(listing(2L).build());
+        assertThat(index.page(0, 10)).containsExactly(2L, 1L);
+
+        index.index(listing(1L).isFeatured(true).build());
+        assertThat(index.page(0, 10)).containsExactly(1L, 2L);
+
+        index.remove(1L);
+        assertThat(index.page(0, 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    private static Property.PropertyBuilder listing(long id) {
+        return listing(id, "Quận 1");
+    }
+
+    private static Property.PropertyBuilder listing(long id, String district) {
+        return Property.builder()
+                .propertyId(id)
+                .createdAt(NOW)
+                .isFeatured(false)
+                .location(Location.builder().city("Hồ Chí Minh").district(district).build());
+    }
+
+    private static Set<PropertyImage> images(long propertyId, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> PropertyImage.builder().imageUrl("https://example.com/" + propertyId + "/" + i).build())
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static Set<Review> reviews(int... ratings) {
+        Set<Review> reviews = new HashSet<>();
+        for (int i = 0; i < ratings.length; i++) {
+            reviews.add(Review.builder().reviewId((long) i).rating(ratings[i]).build());
+        }
+        return reviews;
+    }
+}
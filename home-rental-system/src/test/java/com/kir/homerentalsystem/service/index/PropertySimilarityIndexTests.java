@@ -0,0 +1,107 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Amenity;
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.entity.PropertyCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertySimilarityIndexTests {
+    private static final long APARTMENT = 1L;
+    private static final long HOUSE = 2L;
+
+    private PropertySimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertySimilarityIndex();
+    }
+
+    @Test
+    void sameCategoryIsPreferred() {
+        index.index(listing(1L, APARTMENT, 6_000_000, 10.77, 106.70));
+        index.index(listing(2L, HOUSE, 6_000_000, 10.77, 106.70));
+        index.index(listing(3L, APARTMENT, 7_000_000, 10.77, 106.70));
+
+        assertThat(index.similarTo(1L, 2)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void closerPriceAndCloserLocationRankHigher() {
+        index.index(listing(1L, APARTMENT, 6_000_000, 10.77, 106.70));
+        index.index(listing(2L, APARTMENT, 6_500_000, 10.77, 106.70));
+        index.index(listing(3L, APARTMENT, 15_000_000, 10.77, 106.70));
+        index.index(listing(4L, APARTMENT, 6_000_000, 21.03, 105.85));
+
+        assertThat(index.similarTo(1L, 3)).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void sharedAmenitiesBringListingsCloser() {
+        index.index(listing(1L, APARTMENT, 6_000_000, 10.77, 106.70, 10L, 11L, 12L));
+        index.index(listing(2L, APARTMENT, 6_000_000, 10.77, 106.70, 10L, 11L, 12L));
+        index.index(listing(3L, APARTMENT, 6_000_000, 10.77, 106.70, 20L, 21L));
+
+        assertThat(index.similarTo(1L, 1)).containsExactly(2L);
+    }
+
+    @Test
+    void excludesItselfAndRespectsLimit() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(listing(id, APARTMENT, 5_000_000 + id * 100_000, 10.77, 106.70));
+        }
+
+        assertThat(index.similarTo(3L, 10)).hasSize(4).doesNotContain(3L);
+        assertThat(index.similarTo(3L, 2)).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(index.similarTo(3L, 0)).isEmpty();
+        assertThat(index.similarTo(99L, 3)).isEmpty();
+    }
+
+    @Test
+    void removeKeepsRemainingVectorsIntact() {
+        index.index(listing(1L, APARTMENT, 6_000_000, 10.77, 106.70));
+        index.index(listing(2L, HOUSE, 9_000_000, 21.03, 105.85));
+        index.index(listing(3L, APARTMENT, 6_100_000, 10.77, 106.70));
+
+        // Phần tử cuối (3) được dời vào chỗ của 1
+        index.remove(1L);
+
+        assertThat(index.similarTo(3L, 5)).containsExactly(2L);
+        assertThat(index.similarTo(1L, 5)).isEmpty();
+    }
+
+    @Test
+    void growingFeatureSlotsKeepsExistingNeighbours() {
+        index.index(listing(1L, APARTMENT, 6_000_000, 10.77, 106.70, 1L));
+        index.index(listing(2L, APARTMENT, 6_000_000, 10.77, 106.70, 1L));
+        // Nhiều loại và tiện ích mới buộc chỉ mục nới bố cục vector và dựng lại
+        for (long id = 100; id < 140; id++) {
+            index.index(listing(id, 1_000 + id, 20_000_000, 21.03, 105.85, id, id + 1000));
+        }
+
+        assertThat(index.similarTo(1L, 1)).containsExactly(2L);
+        assertThat(index.similarTo(139L, 41)).hasSize(41).endsWith(1L, 2L);
+    }
+
+    private static Property listing(long id, long categoryId, long price, double latitude, double longitude,
+                                    Long... amenityIds) {
+        Set<Amenity> amenities = Arrays.stream(amenityIds)
+                .map(amenityId -> Amenity.builder().amenityId(amenityId).build())
+                .collect(Collectors.toSet());
+        return Property.builder()
+                .propertyId(id)
+                .category(PropertyCategory.builder().categoryId(categoryId).build())
+                .pricePerMonth(BigDecimal.valueOf(price))
+                .latitude(BigDecimal.valueOf(latitude))
+                .longitude(BigDecimal.valueOf(longitude))
+                .amenities(amenities)
+                .build();
+    }
+}
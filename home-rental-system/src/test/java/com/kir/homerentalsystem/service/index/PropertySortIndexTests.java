@@ -0,0 +1,77 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Property;
+import com.kir.homerentalsystem.exception.AppException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PropertySortIndexTests {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private PropertySortIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertySortIndex();
+        index.index(property(1L, 7_000_000, NOW.minusDays(3)));
+        index.index(property(2L, 5_000_000, NOW.minusDays(1)));
+        index.index(property(3L, 9_000_000, NOW.minusDays(2)));
+        index.index(property(4L, 5_000_000, NOW));
+    }
+
+    @Test
+    void unsortedKeepsCandidateOrder() {
+        assertThat(index.sort(List.of(3L, 1L, 4L), Sort.unsorted())).containsExactly(3L, 1L, 4L);
+    }
+
+    @Test
+    void sortsByPriceWithIdAsTieBreaker() {
+        assertThat(index.sort(List.of(4L, 3L, 2L, 1L), Sort.by("pricePerMonth")))
+                .containsExactly(2L, 4L, 1L, 3L);
+        assertThat(index.sort(List.of(4L, 3L, 2L, 1L), Sort.by(Sort.Direction.DESC, "pricePerMonth")))
+                .containsExactly(3L, 1L, 2L, 4L);
+    }
+
+    @Test
+    void sortsByCreatedAtAndPropertyId() {
+        assertThat(index.sort(List.of(1L, 2L, 3L, 4L), Sort.by(Sort.Direction.DESC, "createdAt")))
+                .containsExactly(4L, 2L, 3L, 1L);
+        assertThat(index.sort(List.of(3L, 1L, 4L, 2L), Sort.by("propertyId")))
+                .containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void filtersByPriceAndDropsUnknownIds() {
+        assertThat(index.filterByPrice(List.of(4L, 3L, 2L, 1L, 99L),
+                BigDecimal.valueOf(5_000_000), BigDecimal.valueOf(7_000_000)))
+                .containsExactly(4L, 2L, 1L);
+        assertThat(index.filterByPrice(List.of(99L), null, null)).containsExactly(99L);
+    }
+
+    @Test
+    void removedPropertyNoLongerMatchesPrice() {
+        index.remove(2L);
+        assertThat(index.filterByPrice(List.of(1L, 2L), null, BigDecimal.valueOf(8_000_000))).containsExactly(1L);
+    }
+
+    @Test
+    void rejectsColumnsWithoutSortKey() {
+        assertThatThrownBy(() -> index.sort(List.of(1L), Sort.by("title"))).isInstanceOf(AppException.class);
+    }
+
+    private static Property property(long id, long price, LocalDateTime createdAt) {
+        return Property.builder()
+                .propertyId(id)
+                .pricePerMonth(BigDecimal.valueOf(price))
+                .createdAt(createdAt)
+                .build();
+    }
+}
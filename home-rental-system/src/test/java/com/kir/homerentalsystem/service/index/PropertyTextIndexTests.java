@@ -0,0 +1,86 @@
+package com.kir.homerentalsystem.service.index;
+
+import com.kir.homerentalsystem.entity.Property;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyTextIndexTests {
+    private PropertyTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyTextIndex();
+        index.index(property(1L, "Căn hộ cao cấp Quận 1", "12 Nguyễn Huệ", "Gần chợ Bến Thành"));
+        index.index(property(2L, "Phòng trọ giá rẻ", "45 Nguyễn Trãi", "Phù hợp sinh viên"));
+        index.index(property(3L, "Nhà phố Thủ Đức", "7 Võ Văn Ngân", "Căn hộ tầng trệt"));
+    }
+
+    @Test
+    void searchIgnoresVietnameseDiacritics() {
+        assertThat(index.search("phong tro")).containsExactly(2L);
+        assertThat(index.search("Phòng Trọ ")).containsExactly(2L);
+    }
+
+    @Test
+    void everyTokenMustMatch() {
+        assertThat(index.search("nguyen hue ")).containsExactly(1L);
+        assertThat(index.search("nguyen sinh vien ")).containsExactly(2L);
+        assertThat(index.search("nguyen thu duc ")).isEmpty();
+    }
+
+    @Test
+    void lastTokenMatchesAsPrefixWhileTyping() {
+        assertThat(index.search("nguy")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("phong nguyen tr")).containsExactly(2L);
+    }
+
+    @Test
+    void completedTokenIsNotMatchedAsPrefix() {
+        // Có dấu cách ở cuối nghĩa là người dùng đã gõ xong từ, "nguy" không còn khớp "nguyen"
+        assertThat(index.search("nguy ")).isEmpty();
+        assertThat(index.search("nguy hue")).isEmpty();
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        // "can ho" nằm trong tiêu đề của 1 nhưng chỉ trong mô tả của 3
+        assertThat(index.search("can ho ")).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void reindexedAndRemovedPropertiesAreNotFoundByOldTerms() {
+        index.index(property(2L, "Biệt thự ven sông", "45 Nguyễn Trãi", null));
+        index.remove(1L);
+
+        assertThat(index.search("phong tro ")).isEmpty();
+        assertThat(index.search("biet thu ")).containsExactly(2L);
+        assertThat(index.search("nguyen ")).containsExactly(2L);
+    }
+
+    @Test
+    void clearedIndexFindsNothingUntilReindexed() {
+        index.clear();
+        assertThat(index.search("nguyen ")).isEmpty();
+
+        index.index(property(3L, "Nhà phố Thủ Đức", "7 Võ Văn Ngân", null));
+        assertThat(index.search("nguyen ")).isEmpty();
+        assertThat(index.search("thu duc ")).containsExactly(3L);
+    }
+
+    @Test
+    void blankQueryReturnsNothing() {
+        assertThat(index.search("  ")).isEmpty();
+        assertThat(index.search("!!!")).isEmpty();
+    }
+
+    private static Property property(Long id, String title, String address, String description) {
+        return Property.builder()
+                .propertyId(id)
+                .title(title)
+                .address(address)
+                .description(description)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.kir.homerentalsystem.util;
+
+import com.kir.homerentalsystem.constant.PropertySortKey;
+import com.kir.homerentalsystem.entity.PropertyRead;
+import com.kir.homerentalsystem.exception.AppException;
+import com.kir.homerentalsystem.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PropertyCursorTests {
+    private static final PropertyRead PROPERTY = PropertyRead.builder()
+            .propertyId(42L)
+            .pricePerMonth(new BigDecimal("5500000.00"))
+            .createdAt(LocalDateTime.of(2024, 3, 1, 8, 30, 15))
+            .build();
+
+    @Test
+    void priceCursorRoundTrips() {
+        PropertyCursor decoded = PropertyCursor.decode(
+                PropertyCursor.after(PROPERTY, PropertySortKey.PRICE_PER_MONTH, Sort.Direction.DESC).encode());
+
+        assertThat(decoded.getSortKey()).isEqualTo(PropertySortKey.PRICE_PER_MONTH);
+        assertThat(decoded.getDirection()).isEqualTo(Sort.Direction.DESC);
+        assertThat(decoded.getLastValue()).isEqualTo(new BigDecimal("5500000.00"));
+        assertThat(decoded.getLastId()).isEqualTo(42L);
+    }
+
+    @Test
+    void createdAtCursorRoundTrips() {
+        PropertyCursor decoded = PropertyCursor.decode(
+                PropertyCursor.after(PROPERTY, PropertySortKey.CREATED_AT, Sort.Direction.ASC).encode());
+
+        assertThat(decoded.getLastValue()).isEqualTo(LocalDateTime.of(2024, 3, 1, 8, 30, 15));
+        assertThat(decoded.getLastId()).isEqualTo(42L);
+    }
+
+    @Test
+    void propertyIdCursorRoundTrips() {
+        PropertyCursor decoded = PropertyCursor.decode(
+                PropertyCursor.after(PROPERTY, PropertySortKey.PROPERTY_ID, Sort.Direction.ASC).encode());
+
+        assertThat(decoded.getSortKey()).isEqualTo(PropertySortKey.PROPERTY_ID);
+        assertThat(decoded.getLastValue()).isEqualTo(42L);
+    }
+
+    @Test
+    void createdAtWithFractionalSecondsRoundTrips() {
+        PropertyRead property = PropertyRead.builder()
+                .propertyId(7L)
+                .createdAt(LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_456_000))
+                .build();
+
+        PropertyCursor decoded = PropertyCursor.decode(
+                PropertyCursor.after(property, PropertySortKey.CREATED_AT, Sort.Direction.DESC).encode());
+
+        assertThat(decoded.getLastValue()).isEqualTo(LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123_456_000));
+    }
+
+    @Test
+    void onlyIndexedColumnsCanBeUsedAsSortKey() {
+        assertThat(PropertySortKey.fromField("pricePerMonth")).isEqualTo(PropertySortKey.PRICE_PER_MONTH);
+        assertThat(PropertySortKey.fromField("createdAt")).isEqualTo(PropertySortKey.CREATED_AT);
+        assertThat(PropertySortKey.fromField("propertyId")).isEqualTo(PropertySortKey.PROPERTY_ID);
+        assertThat(PropertySortKey.fromField("title")).isNull();
+        assertThat(PropertySortKey.fromField(null)).isNull();
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String cursor = PropertyCursor.after(PROPERTY, PropertySortKey.CREATED_AT, Sort.Direction.DESC).encode();
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "not base64 !",
+            "PRICE_PER_MONTH|DESC|5500000",
+            "UNKNOWN|ASC|1|1",
+            "PRICE_PER_MONTH|SIDEWAYS|1|1",
+            "PRICE_PER_MONTH|ASC|cheap|1",
+            "CREATED_AT|ASC|yesterday|1",
+            "PROPERTY_ID|ASC|1|abc",
+            "PRICE_PER_MONTH|ASC|null|1"
+    })
+    void malformedCursorIsRejectedAsInvalidRequest(String raw) {
+        String cursor = raw.contains("|")
+                ? Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8))
+                : raw;
+
+        assertThatThrownBy(() -> PropertyCursor.decode(cursor))
+                .isInstanceOfSatisfying(AppException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.INVALID_REQUEST));
+    }
+}